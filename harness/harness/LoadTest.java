@@ -0,0 +1,240 @@
+package harness;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import com.jockie.bot.core.command.ICommand;
+import com.jockie.bot.core.command.impl.CommandEvent;
+import com.jockie.bot.core.command.impl.CommandEventListener;
+import com.jockie.bot.core.command.impl.CommandListener;
+import com.jockie.bot.core.utility.Histogram;
+
+import harness.discord.MockGuild;
+
+import net.dv8tion.jda.core.entities.Member;
+import net.dv8tion.jda.core.entities.TextChannel;
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+
+/**
+ * Sends messages from random members in random channels of a {@link MockGuild} to a {@link CommandListener}, from several threads at a fixed rate.
+ * Every message is the start of a script, the rest of which is sent later by the same member in the same channel,
+ * so that the paged results and awaits are answered the way a member would answer them
+ */
+public class LoadTest {
+	
+	private static class Script {
+		
+		private final int weight;
+		
+		/* {mention} is replaced with the mention of a random member */
+		private final String[] steps;
+		
+		private Script(int weight, String... steps) {
+			this.weight = weight;
+			this.steps = steps;
+		}
+	}
+	
+	/* Most messages in a guild are not commands */
+	private static final Script[] SCRIPTS = {
+		new Script(40, "hello there, how is everyone doing?"),
+		new Script(10, "!ping"),
+		new Script(10, "!add 1 2"),
+		new Script(5, "!add 5"),
+		new Script(5, "!echo {mention} hello"),
+		new Script(10, "!unknown command"),
+		new Script(5, "!add one two"),
+		new Script(5, "!pages", "next", "next", "previous", "cancel"),
+		new Script(5, "!ask", "yes"),
+		new Script(5, "!slow 10")
+	};
+	
+	private static final int TOTAL_WEIGHT;
+	
+	static {
+		int total = 0;
+		for(Script script : LoadTest.SCRIPTS) {
+			total += script.weight;
+		}
+		
+		TOTAL_WEIGHT = total;
+	}
+	
+	private static Script nextScript() {
+		int value = ThreadLocalRandom.current().nextInt(LoadTest.TOTAL_WEIGHT);
+		for(Script script : LoadTest.SCRIPTS) {
+			value -= script.weight;
+			
+			if(value < 0) {
+				return script;
+			}
+		}
+		
+		return LoadTest.SCRIPTS[0];
+	}
+	
+	private static <T> T random(List<T> list) {
+		return list.get(ThreadLocalRandom.current().nextInt(list.size()));
+	}
+	
+	private final MockGuild guild;
+	
+	private final CommandListener listener;
+	
+	private final ScheduledExecutorService followUpExecutor = Executors.newSingleThreadScheduledExecutor();
+	
+	/* How long the listener took to handle a message, on the thread which received it */
+	private final Histogram dispatch = new Histogram();
+	
+	/* How long it took from a message being received until its command had been executed */
+	private final Histogram commands = new Histogram();
+	
+	/* When the messages which may be commands were received, by message id */
+	private final Map<Long, Long> received = new ConcurrentHashMap<>();
+	
+	private final LongAdder messages = new LongAdder();
+	
+	private final LongAdder errors = new LongAdder();
+	
+	private long followUpDelay = TimeUnit.MILLISECONDS.toNanos(500);
+	
+	public LoadTest(MockGuild guild, CommandListener listener) {
+		this.guild = guild;
+		this.listener = listener;
+		
+		this.listener.addCommandEventListener(new CommandEventListener() {
+			public void onCommandExecuted(ICommand command, MessageReceivedEvent event, CommandEvent commandEvent) {
+				Long started = LoadTest.this.received.remove(event.getMessage().getIdLong());
+				if(started != null) {
+					LoadTest.this.commands.record(System.nanoTime() - started);
+				}
+			}
+			
+			public void onCommandExecutionException(ICommand command, MessageReceivedEvent event, CommandEvent commandEvent, Exception e) {
+				LoadTest.this.errors.increment();
+			}
+		});
+	}
+	
+	/**
+	 * @param delay how long a member waits before sending the next step of a script, 
+	 * this should be longer than the latency of the rest stub since the steps answer the messages sent by the bot
+	 */
+	public LoadTest setFollowUpDelay(long delay, TimeUnit unit) {
+		this.followUpDelay = unit.toNanos(delay);
+		
+		return this;
+	}
+	
+	private void send(Member member, TextChannel channel, String content) {
+		MessageReceivedEvent event = this.guild.createEvent(member, channel, content);
+		
+		long started = System.nanoTime();
+		
+		if(content.startsWith("!")) {
+			this.received.put(event.getMessage().getIdLong(), started);
+		}
+		
+		try {
+			this.listener.onEvent(event);
+		}catch(Throwable e) {
+			this.errors.increment();
+			
+			e.printStackTrace();
+		}
+		
+		this.dispatch.record(System.nanoTime() - started);
+		this.messages.increment();
+	}
+	
+	private void sendSteps(Member member, TextChannel channel, String[] steps, int step) {
+		this.send(member, channel, steps[step].replace("{mention}", LoadTest.random(this.guild.getMembers()).getAsMention()));
+		
+		if(step + 1 < steps.length) {
+			this.followUpExecutor.schedule(() -> this.sendSteps(member, channel, steps, step + 1), this.followUpDelay, TimeUnit.NANOSECONDS);
+		}
+	}
+	
+	/**
+	 * Sends messages until the duration has passed, this blocks until every thread has finished, 
+	 * the steps of the scripts which were started may still be sent afterwards
+	 * 
+	 * @param threads the amount of threads to send messages from
+	 * @param rate the amount of messages to send per second, shared by all the threads
+	 */
+	public void run(int threads, int rate, long duration, TimeUnit unit) throws InterruptedException {
+		long interval = TimeUnit.SECONDS.toNanos(1) * threads / rate;
+		long end = System.nanoTime() + unit.toNanos(duration);
+		
+		CountDownLatch finished = new CountDownLatch(threads);
+		AtomicInteger count = new AtomicInteger();
+		
+		for(int i = 0; i < threads; i++) {
+			Thread thread = new Thread(() -> {
+				/* Spreads the threads out so that they do not all send at the same time */
+				long next = System.nanoTime() + ThreadLocalRandom.current().nextLong(interval);
+				
+				while(next < end) {
+					long wait = next - System.nanoTime();
+					if(wait > 0) {
+						LockSupport.parkNanos(wait);
+					}
+					
+					this.sendSteps(LoadTest.random(this.guild.getMembers()), LoadTest.random(this.guild.getTextChannels()), LoadTest.nextScript().steps, 0);
+					
+					/* Fixed rate rather than fixed delay, a thread which falls behind catches up */
+					next += interval;
+				}
+				
+				finished.countDown();
+			}, "LoadTest-" + count.incrementAndGet());
+			
+			thread.setDaemon(true);
+			thread.start();
+		}
+		
+		finished.await();
+	}
+	
+	/**
+	 * Waits for the steps of the scripts which have already been started to be sent
+	 */
+	public void awaitFollowUps(long timeout, TimeUnit unit) throws InterruptedException {
+		this.followUpExecutor.shutdown();
+		this.followUpExecutor.awaitTermination(timeout, unit);
+	}
+	
+	/**
+	 * @return how long the listener took to handle each message, in nanoseconds
+	 */
+	public Histogram getDispatchLatencies() {
+		return this.dispatch.copy();
+	}
+	
+	/**
+	 * @return how long it took from receiving a message until its command had been executed, in nanoseconds
+	 */
+	public Histogram getCommandLatencies() {
+		return this.commands.copy();
+	}
+	
+	public long getMessages() {
+		return this.messages.sum();
+	}
+	
+	/**
+	 * @return the amount of exceptions thrown by the listener or by commands
+	 */
+	public long getErrors() {
+		return this.errors.sum();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,123 @@
+package harness;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.jockie.bot.core.command.impl.CommandListener;
+import com.jockie.bot.core.command.impl.CommandStore;
+import com.jockie.bot.core.utility.Histogram;
+
+import harness.command.CommandAdd;
+import harness.command.CommandAsk;
+import harness.command.CommandEcho;
+import harness.command.CommandPages;
+import harness.command.CommandPing;
+import harness.command.CommandSlow;
+import harness.discord.MockGuild;
+import harness.rest.RestStub;
+
+/**
+ * Runs a {@link LoadTest} against a {@link MockGuild} and prints the latencies and the requests made, no connection to Discord is needed.
+ * <br><br>
+ * Options, all of which are optional:
+ * <ul>
+ * <li>--threads, the amount of threads sending messages (default 4)</li>
+ * <li>--rate, the amount of messages per second (default 1000)</li>
+ * <li>--duration, for how many seconds messages are sent (default 10)</li>
+ * <li>--members, the amount of members in the guild (default 1000)</li>
+ * <li>--channels, the amount of text channels in the guild (default 20)</li>
+ * <li>--roles, the amount of roles in the guild (default 20)</li>
+ * <li>--latency, how many milliseconds every request takes (default 50)</li>
+ * <li>--rate-limited, whether or not requests are held back by rate limits (default true)</li>
+ * </ul>
+ */
+public class Main {
+	
+	private static Map<String, String> parseOptions(String[] args) {
+		Map<String, String> options = new HashMap<>();
+		for(int i = 0; i < args.length; i++) {
+			if(!args[i].startsWith("--")) {
+				throw new IllegalArgumentException("Unexpected argument " + args[i]);
+			}
+			
+			if(i + 1 >= args.length) {
+				throw new IllegalArgumentException("Missing value for " + args[i]);
+			}
+			
+			options.put(args[i].substring(2), args[++i]);
+		}
+		
+		return options;
+	}
+	
+	private static String format(Histogram histogram) {
+		return "count=" + histogram.getCount()
+			+ ", p50=" + TimeUnit.NANOSECONDS.toMicros(histogram.getPercentile(50)) + "us"
+			+ ", p90=" + TimeUnit.NANOSECONDS.toMicros(histogram.getPercentile(90)) + "us"
+			+ ", p99=" + TimeUnit.NANOSECONDS.toMicros(histogram.getPercentile(99)) + "us"
+			+ ", p99.9=" + TimeUnit.NANOSECONDS.toMicros(histogram.getPercentile(99.9)) + "us"
+			+ ", max=" + TimeUnit.NANOSECONDS.toMicros(histogram.getMax()) + "us";
+	}
+	
+	public static void main(String[] args) throws InterruptedException {
+		Map<String, String> options = Main.parseOptions(args);
+		
+		int threads = Integer.parseInt(options.getOrDefault("threads", "4"));
+		int rate = Integer.parseInt(options.getOrDefault("rate", "1000"));
+		int duration = Integer.parseInt(options.getOrDefault("duration", "10"));
+		int members = Integer.parseInt(options.getOrDefault("members", "1000"));
+		int channels = Integer.parseInt(options.getOrDefault("channels", "20"));
+		int roles = Integer.parseInt(options.getOrDefault("roles", "20"));
+		int latency = Integer.parseInt(options.getOrDefault("latency", "50"));
+		boolean rateLimited = Boolean.parseBoolean(options.getOrDefault("rate-limited", "true"));
+		
+		RestStub rest = new RestStub()
+			.setLatency(latency, TimeUnit.MILLISECONDS)
+			.setRateLimited(rateLimited);
+		
+		MockGuild guild = new MockGuild(rest, members, channels, roles);
+		
+		CommandListener listener = new CommandListener()
+			.addCommandStore(new CommandStore().addCommands(new CommandPing(), new CommandAdd(), new CommandEcho(), new CommandPages(), new CommandAsk(), new CommandSlow()));
+		
+		LoadTest test = new LoadTest(guild, listener)
+			.setFollowUpDelay(Math.max(latency * 4, 100), TimeUnit.MILLISECONDS);
+		
+		System.out.println("Sending " + rate + " messages per second from " + threads + " threads for " + duration + " seconds to " + members + " members in " + channels + " channels");
+		
+		long started = System.nanoTime();
+		
+		test.run(threads, rate, duration, TimeUnit.SECONDS);
+		
+		long elapsed = System.nanoTime() - started;
+		
+		test.awaitFollowUps(30, TimeUnit.SECONDS);
+		
+		/* Gives the requests which are still waiting on a rate limit some time to complete */
+		for(int i = 0; i < 100 && rest.getPending() > 0; i++) {
+			Thread.sleep(100);
+		}
+		
+		System.out.println();
+		System.out.println("Messages: " + test.getMessages() + " (" + (test.getMessages() * TimeUnit.SECONDS.toNanos(1) / elapsed) + "/s), errors: " + test.getErrors());
+		System.out.println("Dispatch latency: " + Main.format(test.getDispatchLatencies()));
+		System.out.println("Command latency: " + Main.format(test.getCommandLatencies()));
+		
+		System.out.println();
+		System.out.println(listener.getMetrics());
+		
+		System.out.println();
+		System.out.println("Requests: " + rest.getTotalCalls());
+		for(RestStub.Call call : RestStub.Call.values()) {
+			System.out.println("  " + call + ": " + rest.getCalls(call));
+		}
+		
+		System.out.println("Rate limited: " + rest.getDelayed() + ", " + Main.format(rest.getDelays()));
+		System.out.println("Pending: " + rest.getPending());
+		System.out.println("Messages kept by the bot: " + guild.getMessageCount());
+		
+		/* The executors of the framework are not daemon threads */
+		System.exit(0);
+	}
+}
\ No newline at end of file
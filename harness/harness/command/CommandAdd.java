@@ -0,0 +1,19 @@
+package harness.command;
+
+import com.jockie.bot.core.command.argument.Argument;
+import com.jockie.bot.core.command.impl.CommandImpl;
+
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+
+public class CommandAdd extends CommandImpl {
+	
+	public CommandAdd() {
+		super("add");
+		
+		super.setDescription("Adds two numbers, the second one is optional");
+	}
+	
+	public void onCommand(MessageReceivedEvent event, @Argument(name="number") int number, @Argument(name="number 2", nullDefault=true) Integer number2) {
+		event.getChannel().sendMessage(String.valueOf(number + (number2 != null ? number2 : 0))).queue();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package harness.command;
+
+import com.jockie.bot.core.await.AwaitEvent;
+import com.jockie.bot.core.await.AwaitManager;
+import com.jockie.bot.core.command.impl.CommandImpl;
+
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+
+public class CommandAsk extends CommandImpl {
+	
+	public CommandAsk() {
+		super("ask");
+		
+		super.setDescription("Asks a question and waits for the answer of the one who asked for it");
+	}
+	
+	public void onCommand(MessageReceivedEvent event) {
+		event.getChannel().sendMessage("Yes or no?").queue(message -> {
+			AwaitManager.addAwait(new AwaitEvent<MessageReceivedEvent>(reply -> {
+				return reply.getAuthor().equals(event.getAuthor()) && reply.getChannel().equals(event.getChannel());
+			}, reply -> {
+				reply.getChannel().sendMessage("You said " + reply.getMessage().getContentRaw()).queue();
+			}));
+		});
+	}
+}
\ No newline at end of file
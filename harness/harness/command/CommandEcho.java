@@ -0,0 +1,20 @@
+package harness.command;
+
+import com.jockie.bot.core.command.argument.Argument;
+import com.jockie.bot.core.command.impl.CommandImpl;
+
+import net.dv8tion.jda.core.entities.Member;
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+
+public class CommandEcho extends CommandImpl {
+	
+	public CommandEcho() {
+		super("echo");
+		
+		super.setDescription("Repeats the text to a member, in a private message");
+	}
+	
+	public void onCommand(MessageReceivedEvent event, @Argument(name="member") Member member, @Argument(name="text", endless=true) String text) {
+		member.getUser().openPrivateChannel().queue(channel -> channel.sendMessage(text).queue());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package harness.command;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jockie.bot.core.command.impl.CommandImpl;
+import com.jockie.bot.core.paged.impl.PagedManager;
+import com.jockie.bot.core.paged.impl.PagedResult;
+
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+
+public class CommandPages extends CommandImpl {
+	
+	public CommandPages() {
+		super("pages");
+		
+		super.setDescription("Lists the members in pages, which can be flipped through with next and previous");
+	}
+	
+	public void onCommand(MessageReceivedEvent event) {
+		List<String> names = new ArrayList<>();
+		event.getGuild().getMembers().forEach(member -> names.add(member.getEffectiveName()));
+		
+		PagedManager.addPagedResult(event, new PagedResult<>(names, name -> name));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package harness.command;
+
+import com.jockie.bot.core.command.impl.CommandImpl;
+
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+
+public class CommandPing extends CommandImpl {
+	
+	public CommandPing() {
+		super("ping");
+		
+		super.setDescription("Responds with pong");
+	}
+	
+	public void onCommand(MessageReceivedEvent event) {
+		event.getChannel().sendMessage("pong").queue();
+	}
+}
\ No newline at end of file
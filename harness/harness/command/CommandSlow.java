@@ -0,0 +1,22 @@
+package harness.command;
+
+import com.jockie.bot.core.command.argument.Argument;
+import com.jockie.bot.core.command.impl.CommandImpl;
+
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+
+public class CommandSlow extends CommandImpl {
+	
+	public CommandSlow() {
+		super("slow");
+		
+		super.setDescription("Takes the given amount of milliseconds to respond, on the command executor");
+		super.setExecuteAsync(true);
+	}
+	
+	public void onCommand(MessageReceivedEvent event, @Argument(name="milliseconds") int milliseconds) throws InterruptedException {
+		Thread.sleep(milliseconds);
+		
+		event.getChannel().sendMessage("Done").queue();
+	}
+}
\ No newline at end of file
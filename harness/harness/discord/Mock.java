@@ -0,0 +1,93 @@
+package harness.discord;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Creates an implementation of an interface, such as a JDA entity, which is backed by a proxy so that it can be used without a connection.
+ * Only the methods which have been given an implementation do anything, every other method returns null, false, 0 or an empty collection
+ */
+public class Mock<Type> {
+	
+	private static Object getDefault(Class<?> type) {
+		if(type == boolean.class) {
+			return false;
+		}else if(type == char.class) {
+			return '\0';
+		}else if(type == byte.class) {
+			return (byte) 0;
+		}else if(type == short.class) {
+			return (short) 0;
+		}else if(type == int.class) {
+			return 0;
+		}else if(type == long.class) {
+			return 0L;
+		}else if(type == float.class) {
+			return 0F;
+		}else if(type == double.class) {
+			return 0D;
+		}else if(type == List.class) {
+			return Collections.emptyList();
+		}else if(type == Set.class) {
+			return Collections.emptySet();
+		}else if(type == Map.class) {
+			return Collections.emptyMap();
+		}
+		
+		return null;
+	}
+	
+	private final Class<Type> type;
+	
+	/* Overloaded methods share the same implementation, they can be told apart by their arguments */
+	private final Map<String, Function<Object[], Object>> methods = new HashMap<>();
+	
+	public Mock(Class<Type> type) {
+		this.type = type;
+	}
+	
+	/**
+	 * @param function the implementation of the method, given the arguments it was called with
+	 */
+	public Mock<Type> on(String method, Function<Object[], Object> function) {
+		this.methods.put(method, function);
+		
+		return this;
+	}
+	
+	public Mock<Type> returns(String method, Object value) {
+		return this.on(method, (arguments) -> value);
+	}
+	
+	public Type build() {
+		String name = "Mock" + this.type.getSimpleName();
+		
+		Map<String, Function<Object[], Object>> methods = new HashMap<>(this.methods);
+		
+		InvocationHandler handler = new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] arguments) {
+				Function<Object[], Object> function = methods.get(method.getName());
+				if(function != null) {
+					return function.apply(arguments != null ? arguments : new Object[0]);
+				}
+				
+				switch(method.getName()) {
+					case "equals": return proxy == arguments[0];
+					case "hashCode": return System.identityHashCode(proxy);
+					case "toString": return name;
+				}
+				
+				return Mock.getDefault(method.getReturnType());
+			}
+		};
+		
+		return this.type.cast(Proxy.newProxyInstance(this.type.getClassLoader(), new Class<?>[] {this.type}, handler));
+	}
+}
\ No newline at end of file
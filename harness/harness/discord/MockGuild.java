@@ -0,0 +1,393 @@
+package harness.discord;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import harness.rest.MockAuditableRestAction;
+import harness.rest.MockMessageAction;
+import harness.rest.MockRestAction;
+import harness.rest.RestStub;
+
+import net.dv8tion.jda.core.JDA;
+import net.dv8tion.jda.core.Permission;
+import net.dv8tion.jda.core.entities.ChannelType;
+import net.dv8tion.jda.core.entities.Guild;
+import net.dv8tion.jda.core.entities.Member;
+import net.dv8tion.jda.core.entities.Message;
+import net.dv8tion.jda.core.entities.MessageChannel;
+import net.dv8tion.jda.core.entities.MessageEmbed;
+import net.dv8tion.jda.core.entities.MessageType;
+import net.dv8tion.jda.core.entities.PrivateChannel;
+import net.dv8tion.jda.core.entities.Role;
+import net.dv8tion.jda.core.entities.SelfUser;
+import net.dv8tion.jda.core.entities.TextChannel;
+import net.dv8tion.jda.core.entities.User;
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+
+/**
+ * A guild, with members, text channels and roles, which only exists in memory. The bot has every permission
+ * and messages can be created from any member in any channel without connecting to Discord, see {@link #createEvent(Member, TextChannel, String)}.
+ * <br><br>
+ * Sending, editing, deleting and retrieving messages and opening private channels goes through a {@link RestStub},
+ * the messages sent by the bot are kept so that they can be retrieved, edited and deleted
+ */
+public class MockGuild {
+	
+	/* Ids are snowflake sized so that they are parsed the same way as real ones */
+	private static final AtomicLong IDS = new AtomicLong(400000000000000000L);
+	
+	private static long nextId() {
+		return MockGuild.IDS.incrementAndGet();
+	}
+	
+	private static long toId(Object id) {
+		return id instanceof String ? Long.parseUnsignedLong((String) id) : (Long) id;
+	}
+	
+	private static <T> Mock<T> snowflake(Class<T> type, long id) {
+		return new Mock<>(type)
+			.returns("getIdLong", id)
+			.returns("getId", Long.toUnsignedString(id));
+	}
+	
+	private static <T> T getById(Map<Long, T> entities, Object id) {
+		try {
+			return entities.get(MockGuild.toId(id));
+		}catch(NumberFormatException e) {
+			return null;
+		}
+	}
+	
+	private static <T> List<T> getByName(List<T> entities, Function<T, String> name, Object[] arguments) {
+		List<T> matching = new ArrayList<>();
+		for(T entity : entities) {
+			if((Boolean) arguments[1] ? name.apply(entity).equalsIgnoreCase((String) arguments[0]) : name.apply(entity).equals(arguments[0])) {
+				matching.add(entity);
+			}
+		}
+		
+		return matching;
+	}
+	
+	/* Sets the content of an action to whatever a send or edit method was given */
+	private static MockMessageAction apply(MockMessageAction action, Object content) {
+		if(content instanceof CharSequence) {
+			action.append((CharSequence) content);
+		}else if(content instanceof MessageEmbed) {
+			action.embed((MessageEmbed) content);
+		}else if(content instanceof Message) {
+			Message message = (Message) content;
+			
+			action.append(message.getContentRaw());
+			if(message.getEmbeds() != null && !message.getEmbeds().isEmpty()) {
+				action.embed(message.getEmbeds().get(0));
+			}
+		}
+		
+		return action;
+	}
+	
+	private final RestStub rest;
+	
+	/* Not final since the entities refer to each other, they are all created in the constructor */
+	private JDA jda;
+	
+	private final SelfUser selfUser;
+	
+	private Guild guild;
+	
+	private Member selfMember;
+	
+	private final Map<Long, User> users = new HashMap<>();
+	private final Map<Long, Member> members = new HashMap<>();
+	private final Map<Long, TextChannel> textChannels = new HashMap<>();
+	private final Map<Long, Role> roles = new HashMap<>();
+	
+	/* Every channel, including the private channels, which are opened when they are first used */
+	private final Map<Long, MessageChannel> channels = new ConcurrentHashMap<>();
+	private final Map<Long, PrivateChannel> privateChannels = new ConcurrentHashMap<>();
+	
+	private final List<Member> memberList = new ArrayList<>();
+	private final List<TextChannel> textChannelList = new ArrayList<>();
+	private final List<Role> roleList = new ArrayList<>();
+	
+	/* The messages sent by the bot which have not been deleted */
+	private final Map<Long, Message> messages = new ConcurrentHashMap<>();
+	
+	private final AtomicLong responses = new AtomicLong();
+	
+	public MockGuild(RestStub rest, int members, int textChannels, int roles) {
+		this.rest = rest;
+		
+		long selfId = MockGuild.nextId();
+		
+		this.selfUser = MockGuild.snowflake(SelfUser.class, selfId)
+			.returns("getName", "Bot")
+			.returns("getDiscriminator", "0000")
+			.returns("isBot", true)
+			.returns("getAsMention", "<@" + selfId + ">")
+			.on("getJDA", (arguments) -> this.jda)
+			.build();
+		
+		this.users.put(selfId, this.selfUser);
+		
+		this.jda = new Mock<>(JDA.class)
+			.returns("getSelfUser", this.selfUser)
+			.on("getUserById", (arguments) -> MockGuild.getById(this.users, arguments[0]))
+			.on("getGuildById", (arguments) -> this.guild)
+			.on("getTextChannelById", (arguments) -> MockGuild.getById(this.textChannels, arguments[0]))
+			.on("getPrivateChannelById", (arguments) -> MockGuild.getById(this.privateChannels, arguments[0]))
+			.on("getUsers", (arguments) -> new ArrayList<>(this.users.values()))
+			.on("getGuilds", (arguments) -> Collections.singletonList(this.guild))
+			.build();
+		
+		long guildId = MockGuild.nextId();
+		
+		this.guild = MockGuild.snowflake(Guild.class, guildId)
+			.returns("getName", "Guild")
+			.returns("getJDA", this.jda)
+			.on("getSelfMember", (arguments) -> this.selfMember)
+			.on("getMember", (arguments) -> this.members.get(((User) arguments[0]).getIdLong()))
+			.on("getMemberById", (arguments) -> MockGuild.getById(this.members, arguments[0]))
+			.on("getMembers", (arguments) -> Collections.unmodifiableList(this.memberList))
+			.on("getMembersByEffectiveName", (arguments) -> MockGuild.getByName(this.memberList, Member::getEffectiveName, arguments))
+			.on("getTextChannelById", (arguments) -> MockGuild.getById(this.textChannels, arguments[0]))
+			.on("getTextChannels", (arguments) -> Collections.unmodifiableList(this.textChannelList))
+			.on("getTextChannelsByName", (arguments) -> MockGuild.getByName(this.textChannelList, TextChannel::getName, arguments))
+			.on("getRoleById", (arguments) -> MockGuild.getById(this.roles, arguments[0]))
+			.on("getRoles", (arguments) -> Collections.unmodifiableList(this.roleList))
+			.on("getRolesByName", (arguments) -> MockGuild.getByName(this.roleList, Role::getName, arguments))
+			.build();
+		
+		this.selfMember = this.createMember(this.selfUser);
+		
+		for(int i = 0; i < members; i++) {
+			long id = MockGuild.nextId();
+			
+			User user = MockGuild.snowflake(User.class, id)
+				.returns("getName", "user" + i)
+				.returns("getDiscriminator", String.format("%04d", i % 10000))
+				.returns("getAsMention", "<@" + id + ">")
+				.returns("getJDA", this.jda)
+				.on("openPrivateChannel", (arguments) -> new MockRestAction<>(this.rest, RestStub.Call.OPEN_PRIVATE_CHANNEL, Long.toUnsignedString(id), () -> this.getPrivateChannel(id)))
+				.build();
+			
+			this.users.put(id, user);
+			this.memberList.add(this.createMember(user));
+		}
+		
+		for(int i = 0; i < textChannels; i++) {
+			long id = MockGuild.nextId();
+			
+			TextChannel channel = this.channel(TextChannel.class, id, ChannelType.TEXT)
+				.returns("getName", "channel-" + i)
+				.returns("getAsMention", "<#" + id + ">")
+				.returns("getGuild", this.guild)
+				.build();
+			
+			this.channels.put(id, channel);
+			this.textChannels.put(id, channel);
+			this.textChannelList.add(channel);
+		}
+		
+		for(int i = 0; i < roles; i++) {
+			long id = MockGuild.nextId();
+			
+			Role role = MockGuild.snowflake(Role.class, id)
+				.returns("getName", "role " + i)
+				.returns("getAsMention", "<@&" + id + ">")
+				.returns("getGuild", this.guild)
+				.returns("getJDA", this.jda)
+				.build();
+			
+			this.roles.put(id, role);
+			this.roleList.add(role);
+		}
+	}
+	
+	/**
+	 * Creates a guild whose requests are completed by a {@link RestStub} with the default latency and rate limits
+	 */
+	public MockGuild(int members, int textChannels, int roles) {
+		this(new RestStub(), members, textChannels, roles);
+	}
+	
+	private Member createMember(User user) {
+		Member member = new Mock<>(Member.class)
+			.returns("getUser", user)
+			.returns("getGuild", this.guild)
+			.returns("getJDA", this.jda)
+			.returns("getEffectiveName", user.getName())
+			.returns("getAsMention", user.getAsMention())
+			/* Everyone has every permission, so no command is rejected or answered with a missing permission message */
+			.returns("hasPermission", true)
+			.returns("getPermissions", Permission.getPermissions(Permission.ALL_PERMISSIONS))
+			.build();
+		
+		this.members.put(user.getIdLong(), member);
+		
+		return member;
+	}
+	
+	/* A channel which messages can be sent to, edited in, deleted from and retrieved from */
+	private <T extends MessageChannel> Mock<T> channel(Class<T> type, long id, ChannelType channelType) {
+		return MockGuild.snowflake(type, id)
+			.returns("getType", channelType)
+			.returns("getJDA", this.jda)
+			.on("sendMessage", (arguments) -> this.sendMessage(id, arguments[0]))
+			.on("editMessageById", (arguments) -> this.editMessage(id, MockGuild.toId(arguments[0]), arguments[1]))
+			.on("deleteMessageById", (arguments) -> this.deleteMessage(id, MockGuild.toId(arguments[0])))
+			.on("getMessageById", (arguments) -> this.getMessage(id, MockGuild.toId(arguments[0])));
+	}
+	
+	private PrivateChannel getPrivateChannel(long userId) {
+		return this.privateChannels.computeIfAbsent(userId, (key) -> {
+			User user = this.users.get(userId);
+			
+			long id = MockGuild.nextId();
+			
+			PrivateChannel channel = this.channel(PrivateChannel.class, id, ChannelType.PRIVATE)
+				.returns("getName", user.getName())
+				.returns("getUser", user)
+				.build();
+			
+			this.channels.put(id, channel);
+			
+			return channel;
+		});
+	}
+	
+	private Message createMessage(long id, User author, MessageChannel channel, String content, MessageEmbed embed) {
+		ChannelType type = channel.getType();
+		
+		Mock<Message> message = MockGuild.snowflake(Message.class, id)
+			.returns("getContentRaw", content)
+			.returns("getContentDisplay", content)
+			.returns("getContentStripped", content)
+			.returns("getEmbeds", embed != null ? Collections.singletonList(embed) : Collections.emptyList())
+			.returns("getAuthor", author)
+			.returns("getChannel", channel)
+			.returns("getChannelType", type)
+			.on("isFromType", (arguments) -> arguments[0] == type)
+			.returns("getType", MessageType.DEFAULT)
+			.returns("getJDA", this.jda)
+			.on("editMessage", (arguments) -> this.editMessage(channel.getIdLong(), id, arguments[0]))
+			.on("delete", (arguments) -> this.deleteMessage(channel.getIdLong(), id));
+		
+		if(type == ChannelType.TEXT) {
+			message.returns("getGuild", this.guild)
+				.returns("getTextChannel", channel)
+				.returns("getMember", this.members.get(author.getIdLong()));
+		}else{
+			message.returns("getPrivateChannel", channel);
+		}
+		
+		return message.build();
+	}
+	
+	private MockMessageAction sendMessage(long channelId, Object content) {
+		MessageChannel channel = this.channels.get(channelId);
+		
+		return MockGuild.apply(new MockMessageAction(this.rest, RestStub.Call.SEND_MESSAGE, channel, (action) -> {
+			Message message = this.createMessage(MockGuild.nextId(), this.selfUser, channel, action.getContent(), action.getEmbed());
+			this.messages.put(message.getIdLong(), message);
+			
+			return message;
+		}), content);
+	}
+	
+	private MockMessageAction editMessage(long channelId, long messageId, Object content) {
+		MessageChannel channel = this.channels.get(channelId);
+		
+		return MockGuild.apply(new MockMessageAction(this.rest, RestStub.Call.EDIT_MESSAGE, channel, (action) -> {
+			if(!this.messages.containsKey(messageId)) {
+				throw new IllegalStateException("Unknown message " + messageId);
+			}
+			
+			Message message = this.createMessage(messageId, this.selfUser, channel, action.getContent(), action.getEmbed());
+			this.messages.put(messageId, message);
+			
+			return message;
+		}), content);
+	}
+	
+	/* Deleting always succeeds since the messages sent by members are not kept */
+	private MockAuditableRestAction<Void> deleteMessage(long channelId, long messageId) {
+		return new MockAuditableRestAction<>(this.rest, RestStub.Call.DELETE_MESSAGE, Long.toUnsignedString(channelId), () -> {
+			this.messages.remove(messageId);
+			
+			return null;
+		});
+	}
+	
+	private MockRestAction<Message> getMessage(long channelId, long messageId) {
+		return new MockRestAction<>(this.rest, RestStub.Call.GET_MESSAGE, Long.toUnsignedString(channelId), () -> {
+			Message message = this.messages.get(messageId);
+			if(message == null) {
+				throw new IllegalStateException("Unknown message " + messageId);
+			}
+			
+			return message;
+		});
+	}
+	
+	public RestStub getRest() {
+		return this.rest;
+	}
+	
+	public JDA getJDA() {
+		return this.jda;
+	}
+	
+	public Guild getGuild() {
+		return this.guild;
+	}
+	
+	public SelfUser getSelfUser() {
+		return this.selfUser;
+	}
+	
+	public Member getSelfMember() {
+		return this.selfMember;
+	}
+	
+	public List<Member> getMembers() {
+		return Collections.unmodifiableList(this.memberList);
+	}
+	
+	public List<TextChannel> getTextChannels() {
+		return Collections.unmodifiableList(this.textChannelList);
+	}
+	
+	public List<Role> getRoles() {
+		return Collections.unmodifiableList(this.roleList);
+	}
+	
+	/**
+	 * @return the amount of messages sent by the bot which have not been deleted
+	 */
+	public int getMessageCount() {
+		return this.messages.size();
+	}
+	
+	public Message createMessage(Member author, TextChannel channel, String content) {
+		return this.createMessage(MockGuild.nextId(), author.getUser(), channel, content, null);
+	}
+	
+	public MessageReceivedEvent createEvent(Member author, TextChannel channel, String content) {
+		return new MessageReceivedEvent(this.jda, this.responses.incrementAndGet(), this.createMessage(author, channel, content));
+	}
+	
+	/**
+	 * @return an event for a message sent by the first member in the first text channel
+	 */
+	public MessageReceivedEvent createEvent(String content) {
+		return this.createEvent(this.memberList.get(0), this.textChannelList.get(0), content);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,48 @@
+package harness.rest;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import net.dv8tion.jda.core.entities.Message;
+import net.dv8tion.jda.core.entities.MessageChannel;
+import net.dv8tion.jda.core.entities.MessageEmbed;
+import net.dv8tion.jda.core.requests.restaction.MessageAction;
+
+/**
+ * A message action, for sending or editing a message, which is completed by a {@link RestStub} instead of being sent to Discord
+ */
+public class MockMessageAction extends MessageAction {
+	
+	private final RestStub rest;
+	
+	private final RestStub.Call call;
+	
+	private final Function<MockMessageAction, Message> result;
+	
+	/**
+	 * @param result creates the message which was sent or edited, given the content and embed of this action
+	 */
+	public MockMessageAction(RestStub rest, RestStub.Call call, MessageChannel channel, Function<MockMessageAction, Message> result) {
+		super(RestStub.getAPI(), null, channel);
+		
+		this.rest = rest;
+		this.call = call;
+		this.result = result;
+	}
+	
+	public String getContent() {
+		return this.content.toString();
+	}
+	
+	public MessageEmbed getEmbed() {
+		return this.embed;
+	}
+	
+	public void queue(Consumer<? super Message> success, Consumer<? super Throwable> failure) {
+		this.rest.queue(this.call, this.channel.getId(), () -> this.result.apply(this), success, failure);
+	}
+	
+	public Message complete(boolean shouldQueue) {
+		return this.rest.complete(this.call, this.channel.getId(), () -> this.result.apply(this));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+package harness.rest;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import net.dv8tion.jda.core.requests.Request;
+import net.dv8tion.jda.core.requests.Response;
+import net.dv8tion.jda.core.requests.RestAction;
+
+/**
+ * A rest action which is completed by a {@link RestStub} instead of being sent to Discord
+ */
+public class MockRestAction<T> extends RestAction<T> {
+	
+	private final RestStub rest;
+	
+	private final RestStub.Call call;
+	private final String bucket;
+	
+	private final Supplier<T> result;
+	
+	/**
+	 * See {@link RestStub#queue(RestStub.Call, String, Supplier, Consumer, Consumer)}
+	 */
+	public MockRestAction(RestStub rest, RestStub.Call call, String bucket, Supplier<T> result) {
+		super(RestStub.getAPI(), null);
+		
+		this.rest = rest;
+		this.call = call;
+		this.bucket = bucket;
+		this.result = result;
+	}
+	
+	public void queue(Consumer<? super T> success, Consumer<? super Throwable> failure) {
+		this.rest.queue(this.call, this.bucket, this.result, success, failure);
+	}
+	
+	public T complete(boolean shouldQueue) {
+		return this.rest.complete(this.call, this.bucket, this.result);
+	}
+	
+	/* Never called since nothing is sent */
+	protected void handleResponse(Response response, Request<T> request) {}
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package harness.rest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allows a limited amount of requests per period, like the rate limit buckets of Discord. Requests which do not fit in
+ * the current period are given a slot in a later one, so a burst of requests is spread out over as many periods as it needs
+ */
+public class RateLimitBucket {
+	
+	private final int limit;
+	private final long period;
+	
+	/* When the current period ends, this is in the future for as long as there is a backlog */
+	private long reset = System.nanoTime();
+	
+	private int used = 0;
+	
+	public RateLimitBucket(int limit, long period, TimeUnit unit) {
+		if(limit <= 0) {
+			throw new IllegalArgumentException("The limit has to be greater than 0");
+		}
+		
+		this.limit = limit;
+		this.period = unit.toNanos(period);
+	}
+	
+	public int getLimit() {
+		return this.limit;
+	}
+	
+	public long getPeriod(TimeUnit unit) {
+		return unit.convert(this.period, TimeUnit.NANOSECONDS);
+	}
+	
+	/**
+	 * Reserves a slot for a request
+	 *
+	 * @param now the current {@link System#nanoTime()}
+	 *
+	 * @return the {@link System#nanoTime()} at which the request may be sent, this is the given time if the bucket was not exhausted
+	 */
+	public synchronized long reserve(long now) {
+		if(now - this.reset >= 0) {
+			this.reset = now + this.period;
+			this.used = 0;
+		}
+		
+		if(this.used == this.limit) {
+			this.reset += this.period;
+			this.used = 0;
+		}
+		
+		this.used++;
+		
+		return Math.max(now, this.reset - this.period);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,259 @@
+package harness.rest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.jockie.bot.core.utility.Histogram;
+
+import net.dv8tion.jda.core.AccountType;
+import net.dv8tion.jda.core.entities.impl.JDAImpl;
+import okhttp3.OkHttpClient;
+
+/**
+ * Stands in for the REST API of Discord. Every request is counted and completed, on one of the REST threads, after a simulated latency.
+ * Requests are limited by a bucket per kind of request and per channel and by a global bucket, see {@link RateLimitBucket},
+ * a request which does not fit in its buckets is delayed until it does instead of failing, like JDA queues them
+ */
+public class RestStub {
+	
+	/**
+	 * The kinds of requests which are recorded, each has its own rate limit
+	 */
+	public static enum Call {
+		SEND_MESSAGE,
+		EDIT_MESSAGE,
+		DELETE_MESSAGE,
+		GET_MESSAGE,
+		OPEN_PRIVATE_CHANNEL;
+	}
+	
+	private static class RateLimit {
+		
+		private final int limit;
+		private final long period;
+		private final TimeUnit unit;
+		
+		private RateLimit(int limit, long period, TimeUnit unit) {
+			this.limit = limit;
+			this.period = period;
+			this.unit = unit;
+		}
+	}
+	
+	/* 
+	 * Rest actions require a JDAImpl even though the ones created by the stub never use it, 
+	 * it is never logged in so it does not connect to anything and nothing is sent through its requester
+	 */
+	private static final JDAImpl API = new JDAImpl(AccountType.BOT, "", null, new OkHttpClient.Builder(), null, false, false, false, false, false, false, 1, 900, null);
+	
+	static JDAImpl getAPI() {
+		return RestStub.API;
+	}
+	
+	private final ScheduledExecutorService executor;
+	
+	private final Map<Call, LongAdder> calls = new EnumMap<>(Call.class);
+	
+	private final Map<Call, RateLimit> rateLimits = new EnumMap<>(Call.class);
+	
+	private final Map<String, RateLimitBucket> buckets = new ConcurrentHashMap<>();
+	
+	private volatile RateLimitBucket global = new RateLimitBucket(50, 1, TimeUnit.SECONDS);
+	
+	private volatile boolean rateLimited = true;
+	
+	private volatile long latency = TimeUnit.MILLISECONDS.toNanos(50);
+	
+	private final LongAdder delayed = new LongAdder();
+	
+	/* How long the delayed requests were held back by the rate limits */
+	private final Histogram delays = new Histogram();
+	
+	private final AtomicLong pending = new AtomicLong();
+	
+	/**
+	 * @param threads the amount of threads the requests are completed and their callbacks are called on
+	 */
+	public RestStub(int threads) {
+		AtomicInteger count = new AtomicInteger();
+		
+		this.executor = Executors.newScheduledThreadPool(threads, (runnable) -> {
+			Thread thread = new Thread(runnable, "RestStub-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			
+			return thread;
+		});
+		
+		for(Call call : Call.values()) {
+			this.calls.put(call, new LongAdder());
+		}
+		
+		/* The limits Discord has for bots, the global limit is shared by all requests */
+		this.rateLimits.put(Call.SEND_MESSAGE, new RateLimit(5, 5, TimeUnit.SECONDS));
+		this.rateLimits.put(Call.EDIT_MESSAGE, new RateLimit(5, 5, TimeUnit.SECONDS));
+		this.rateLimits.put(Call.DELETE_MESSAGE, new RateLimit(5, 1, TimeUnit.SECONDS));
+		this.rateLimits.put(Call.GET_MESSAGE, new RateLimit(50, 1, TimeUnit.SECONDS));
+		this.rateLimits.put(Call.OPEN_PRIVATE_CHANNEL, new RateLimit(5, 1, TimeUnit.SECONDS));
+	}
+	
+	public RestStub() {
+		this(4);
+	}
+	
+	/**
+	 * @param latency how long every request takes to complete, not counting any time spent waiting on a rate limit
+	 */
+	public RestStub setLatency(long latency, TimeUnit unit) {
+		this.latency = unit.toNanos(latency);
+		
+		return this;
+	}
+	
+	/**
+	 * Sets the limit of a kind of request, per channel, this only applies to the channels which have not made that request yet
+	 */
+	public synchronized RestStub setRateLimit(Call call, int limit, long period, TimeUnit unit) {
+		this.rateLimits.put(call, new RateLimit(limit, period, unit));
+		
+		return this;
+	}
+	
+	public RestStub setGlobalRateLimit(int limit, long period, TimeUnit unit) {
+		this.global = new RateLimitBucket(limit, period, unit);
+		
+		return this;
+	}
+	
+	/**
+	 * @param rateLimited whether or not requests should be limited at all, if not every request completes after only the latency
+	 */
+	public RestStub setRateLimited(boolean rateLimited) {
+		this.rateLimited = rateLimited;
+		
+		return this;
+	}
+	
+	private synchronized RateLimitBucket createBucket(Call call) {
+		RateLimit rateLimit = this.rateLimits.get(call);
+		
+		return new RateLimitBucket(rateLimit.limit, rateLimit.period, rateLimit.unit);
+	}
+	
+	/**
+	 * @return the delay, in nanoseconds, before the request can be sent
+	 */
+	private long reserve(Call call, String bucket) {
+		this.calls.get(call).increment();
+		
+		if(!this.rateLimited) {
+			return 0;
+		}
+		
+		long now = System.nanoTime();
+		
+		RateLimitBucket rateLimitBucket = this.buckets.computeIfAbsent(call + "/" + bucket, (key) -> this.createBucket(call));
+		
+		long delay = Math.max(rateLimitBucket.reserve(now), this.global.reserve(now)) - now;
+		if(delay > 0) {
+			this.delayed.increment();
+			this.delays.record(delay);
+		}
+		
+		return delay;
+	}
+	
+	/**
+	 * @param bucket what the request is limited by, in addition to the kind of request, such as the id of the channel
+	 * @param result called once the request completes, it fails the request if it throws an exception
+	 */
+	public <T> void queue(Call call, String bucket, Supplier<T> result, Consumer<? super T> success, Consumer<? super Throwable> failure) {
+		long delay = this.reserve(call, bucket) + this.latency;
+		
+		this.pending.incrementAndGet();
+		
+		this.executor.schedule(() -> {
+			this.pending.decrementAndGet();
+			
+			T value;
+			try {
+				value = result.get();
+			}catch(Throwable e) {
+				if(failure != null) {
+					failure.accept(e);
+				}else{
+					System.err.println(call + " failed: " + e.getMessage());
+				}
+				
+				return;
+			}
+			
+			if(success != null) {
+				/* Like JDA, an exception thrown by the callback does not fail the request */
+				try {
+					success.accept(value);
+				}catch(Throwable e) {
+					e.printStackTrace();
+				}
+			}
+		}, delay, TimeUnit.NANOSECONDS);
+	}
+	
+	/**
+	 * Blocks until the request has completed
+	 */
+	public <T> T complete(Call call, String bucket, Supplier<T> result) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		
+		this.queue(call, bucket, result, future::complete, future::completeExceptionally);
+		
+		return future.join();
+	}
+	
+	public long getCalls(Call call) {
+		return this.calls.get(call).sum();
+	}
+	
+	public long getTotalCalls() {
+		long total = 0;
+		for(LongAdder calls : this.calls.values()) {
+			total += calls.sum();
+		}
+		
+		return total;
+	}
+	
+	/**
+	 * @return the amount of requests which had to wait for a rate limit
+	 */
+	public long getDelayed() {
+		return this.delayed.sum();
+	}
+	
+	/**
+	 * @return how long the requests which had to wait for a rate limit waited, in nanoseconds
+	 */
+	public Histogram getDelays() {
+		return this.delays.copy();
+	}
+	
+	/**
+	 * @return the amount of requests which have not completed yet
+	 */
+	public long getPending() {
+		return this.pending.get();
+	}
+	
+	public void shutdown() {
+		this.executor.shutdownNow();
+	}
+}
\ No newline at end of file
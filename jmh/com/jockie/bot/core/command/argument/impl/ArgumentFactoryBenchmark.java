@@ -0,0 +1,148 @@
+package com.jockie.bot.core.command.argument.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jockie.bot.core.command.argument.IArgument;
+import com.jockie.bot.core.command.argument.VerifiedArgument;
+import com.jockie.bot.core.command.impl.CommandListener;
+import com.jockie.bot.core.command.impl.CommandListenerBenchmark.BenchmarkCommand;
+import com.jockie.bot.core.command.impl.CommandStore;
+
+import harness.discord.MockGuild;
+
+import net.dv8tion.jda.core.entities.Member;
+import net.dv8tion.jda.core.entities.Role;
+import net.dv8tion.jda.core.entities.TextChannel;
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+
+/**
+ * Measures the parsers of the {@link ArgumentFactory}, both on their own and as the only argument of a command
+ * dispatched through the {@link CommandListener}. Members, text channels and roles are looked up by name,
+ * which is the slowest way of finding them, in a {@link MockGuild} with a varying amount of them
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ArgumentFactoryBenchmark {
+	
+	@Param({"integer", "double", "boolean", "string", "member", "memberMention", "textChannel", "role"})
+	public String parser;
+	
+	@Param({"100", "1000"})
+	public int entities;
+	
+	private IArgument<?> argument;
+	
+	private String value;
+	
+	private CommandListener listener;
+	
+	/* The event the argument is verified with, only its guild is used */
+	private MessageReceivedEvent event;
+	
+	private MessageReceivedEvent command;
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		MockGuild guild = new MockGuild(this.entities, this.entities, this.entities);
+		
+		/* The last of each, so that a search by name goes through all of them */
+		Member member = guild.getMembers().get(this.entities - 1);
+		TextChannel channel = guild.getTextChannels().get(this.entities - 1);
+		Role role = guild.getRoles().get(this.entities - 1);
+		
+		Class<?> type;
+		switch(this.parser) {
+			case "integer": {
+				type = Integer.class;
+				this.value = "123456";
+				
+				break;
+			}
+			case "double": {
+				type = Double.class;
+				this.value = "1234.56";
+				
+				break;
+			}
+			case "boolean": {
+				type = Boolean.class;
+				this.value = "true";
+				
+				break;
+			}
+			case "string": {
+				type = String.class;
+				this.value = "value";
+				
+				break;
+			}
+			case "member": {
+				type = Member.class;
+				this.value = member.getEffectiveName();
+				
+				break;
+			}
+			case "memberMention": {
+				type = Member.class;
+				this.value = member.getAsMention();
+				
+				break;
+			}
+			case "textChannel": {
+				type = TextChannel.class;
+				this.value = channel.getName();
+				
+				break;
+			}
+			case "role": {
+				type = Role.class;
+				this.value = role.getName();
+				
+				break;
+			}
+			default: {
+				throw new IllegalArgumentException("Unknown parser " + this.parser);
+			}
+		}
+		
+		this.argument = ArgumentFactory.of(type).setName("value").build();
+		
+		this.listener = new CommandListener()
+			.addCommandStore(new CommandStore().addCommands(new BenchmarkCommand("command", this.argument)))
+			.setHelpEnabled(false);
+		
+		this.event = guild.createEvent("");
+		this.command = guild.createEvent("!command " + (this.value.contains(" ") ? "\"" + this.value + "\"" : this.value));
+		
+		if(this.argument.verify(this.event, this.value).getObject() == null) {
+			throw new IllegalStateException("The " + this.parser + " parser did not accept " + this.value);
+		}
+	}
+	
+	@Benchmark
+	public VerifiedArgument<?> verify() {
+		return this.argument.verify(this.event, this.value);
+	}
+	
+	@Benchmark
+	public void command() {
+		this.listener.onMessageReceived(this.command);
+	}
+}
\ No newline at end of file
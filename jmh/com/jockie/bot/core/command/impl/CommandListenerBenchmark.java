@@ -0,0 +1,140 @@
+package com.jockie.bot.core.command.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jockie.bot.core.command.argument.IArgument;
+import com.jockie.bot.core.command.argument.impl.ArgumentFactory;
+
+import harness.discord.MockGuild;
+
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+
+/**
+ * Dispatches messages through {@link CommandListener#onMessageReceived(MessageReceivedEvent)} end to end, against a {@link MockGuild},
+ * with a varying amount of commands, optional arguments per command (each optional argument doubles the amount of {@link DummyCommand}s) and prefixes.
+ * The commands do nothing and help is disabled so only the dispatching itself is measured
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CommandListenerBenchmark {
+	
+	public static class BenchmarkCommand extends CommandImpl {
+		
+		/* Written on every execution so that executing the command can not be optimized away */
+		private long executions;
+		
+		public BenchmarkCommand(String command, IArgument<?>... arguments) {
+			super(command, false, arguments);
+		}
+		
+		public void execute(MessageReceivedEvent event, CommandEvent commandEvent, Object... arguments) {
+			this.executions++;
+		}
+	}
+	
+	@Param({"10", "100", "1000"})
+	public int commands;
+	
+	@Param({"0", "2", "4"})
+	public int optionalArguments;
+	
+	@Param({"1", "10"})
+	public int prefixes;
+	
+	private CommandListener listener;
+	
+	/* The command with all its optional arguments given */
+	private MessageReceivedEvent command;
+	
+	/* The command without any of its optional arguments, resolved to a DummyCommand */
+	private MessageReceivedEvent commandWithoutOptionals;
+	
+	/* A command which does not exist */
+	private MessageReceivedEvent unknownCommand;
+	
+	/* A message which is not a command, which is what most messages are */
+	private MessageReceivedEvent noPrefix;
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		MockGuild guild = new MockGuild(100, 10, 10);
+		
+		CommandStore store = new CommandStore();
+		for(int i = 0; i < this.commands; i++) {
+			IArgument<?>[] arguments = new IArgument<?>[1 + this.optionalArguments];
+			arguments[0] = ArgumentFactory.of(Integer.class).setName("number").build();
+			
+			for(int j = 1; j < arguments.length; j++) {
+				arguments[j] = ArgumentFactory.of(String.class).setName("optional " + j).setDefaultAsNull().build();
+			}
+			
+			store.addCommands(new BenchmarkCommand("command" + i, arguments));
+		}
+		
+		/* The prefix which is used is the shortest, so all the other prefixes are checked before it */
+		String[] prefixes = new String[this.prefixes];
+		prefixes[0] = "!";
+		
+		for(int i = 1; i < prefixes.length; i++) {
+			prefixes[i] = "prefix" + i + "!";
+		}
+		
+		this.listener = new CommandListener()
+			.addCommandStore(store)
+			.setDefaultPrefixes(prefixes)
+			.setHelpEnabled(false);
+		
+		StringBuilder optionals = new StringBuilder();
+		for(int i = 0; i < this.optionalArguments; i++) {
+			optionals.append(" optional").append(i);
+		}
+		
+		/* A command in the middle of the command triggers */
+		String trigger = "!command" + (this.commands / 2);
+		
+		this.command = guild.createEvent(trigger + " 10" + optionals);
+		this.commandWithoutOptionals = guild.createEvent(trigger + " 10");
+		this.unknownCommand = guild.createEvent("!unknown 10");
+		this.noPrefix = guild.createEvent("hello there, this is not a command");
+		
+		/* Builds the command triggers so that it is not a part of the first measurement */
+		this.listener.getCommandTriggers();
+	}
+	
+	@Benchmark
+	public void command() {
+		this.listener.onMessageReceived(this.command);
+	}
+	
+	@Benchmark
+	public void commandWithoutOptionals() {
+		this.listener.onMessageReceived(this.commandWithoutOptionals);
+	}
+	
+	@Benchmark
+	public void unknownCommand() {
+		this.listener.onMessageReceived(this.unknownCommand);
+	}
+	
+	@Benchmark
+	public void noPrefix() {
+		this.listener.onMessageReceived(this.noPrefix);
+	}
+}
\ No newline at end of file
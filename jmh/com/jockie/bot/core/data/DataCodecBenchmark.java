@@ -0,0 +1,128 @@
+package com.jockie.bot.core.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.jockie.bot.core.data.impl.BinaryCodec;
+import com.jockie.bot.core.data.impl.JsonCodec;
+
+/**
+ * Compares the time it takes to save and load snowflake-heavy records, and the size of the files, between the codecs
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DataCodecBenchmark {
+	
+	public static class GuildSettings {
+		
+		public long guildId;
+		public long logChannelId;
+		public long muteRoleId;
+		
+		public long[] disabledChannels;
+		
+		public String prefix;
+		
+		public boolean premium;
+		
+		public int warnings;
+	
+	}
+	
+	@Param({"1000", "100000"})
+	public int size;
+	
+	@Param({"json", "binary", "binary-deflate"})
+	public String codecName;
+	
+	private DataCodec codec;
+	
+	private GuildSettings[] settings;
+	
+	private File directory, loadFile, saveFile;
+	
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		if(this.codecName.equals("json")) {
+			this.codec = new JsonCodec();
+		}else{
+			this.codec = new BinaryCodec(this.codecName.equals("binary-deflate"));
+		}
+		
+		/* Seeded so that every codec gets the same data */
+		Random random = new Random(0);
+		
+		this.settings = new GuildSettings[this.size];
+		for(int i = 0; i < this.size; i++) {
+			GuildSettings settings = new GuildSettings();
+			settings.guildId = 100000000000000000L + random.nextInt(Integer.MAX_VALUE) * 1000000L;
+			settings.logChannelId = settings.guildId + random.nextInt(1000000);
+			settings.muteRoleId = settings.guildId + random.nextInt(1000000);
+			settings.disabledChannels = new long[random.nextInt(4)];
+			
+			for(int j = 0; j < settings.disabledChannels.length; j++) {
+				settings.disabledChannels[j] = settings.guildId + random.nextInt(1000000);
+			}
+			
+			settings.prefix = random.nextBoolean() ? "!" : "?";
+			settings.premium = random.nextInt(10) == 0;
+			settings.warnings = random.nextInt(5);
+			
+			this.settings[i] = settings;
+		}
+		
+		this.directory = Files.createTempDirectory("jockie-benchmark").toFile();
+		
+		this.loadFile = new File(this.directory, "load" + this.codec.getExtension());
+		this.saveFile = new File(this.directory, "save" + this.codec.getExtension());
+		
+		this.codec.save(this.loadFile, this.settings);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		System.out.println();
+		System.out.println(this.codecName + " with " + this.size + " elements: " + this.loadFile.length() + " bytes");
+		
+		this.loadFile.delete();
+		this.saveFile.delete();
+		this.directory.delete();
+	}
+	
+	@Benchmark
+	public long save() throws IOException {
+		return this.codec.save(this.saveFile, this.settings);
+	}
+	
+	@Benchmark
+	public GuildSettings[] load() throws IOException {
+		return this.codec.load(this.loadFile, GuildSettings[].class);
+	}
+	
+	@Benchmark
+	public void loadElements(Blackhole blackhole) throws IOException {
+		this.codec.loadElements(this.loadFile, GuildSettings.class, blackhole::consume);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,138 @@
+package com.jockie.bot.core.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the Vector which DataListImpl used to be backed by with the CopyOnWriteArrayList it is backed by now,
+ * for reads, snapshots, loading and a read-heavy mix of concurrent reads and writes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DataListBenchmark {
+	
+	public static class Warning {
+		
+		public long userId;
+		public long guildId;
+		
+		public String reason;
+	
+	}
+	
+	@Param({"1000", "10000"})
+	public int size;
+	
+	@Param({"vector", "copyOnWrite"})
+	public String backend;
+	
+	private Warning[] warnings;
+	
+	private List<Warning> list;
+	
+	private List<Warning> create() {
+		return this.backend.equals("vector") ? new Vector<>() : new CopyOnWriteArrayList<>();
+	}
+	
+	@Setup(Level.Iteration)
+	public void setup() {
+		this.warnings = new Warning[this.size];
+		for(int i = 0; i < this.size; i++) {
+			Warning warning = new Warning();
+			warning.userId = i;
+			warning.guildId = i % 100;
+			warning.reason = "Reason " + i;
+			
+			this.warnings[i] = warning;
+		}
+		
+		this.list = this.create();
+		this.list.addAll(Arrays.asList(this.warnings));
+	}
+	
+	@Benchmark
+	public void get(Blackhole blackhole) {
+		for(int i = 0; i < this.size; i++) {
+			blackhole.consume(this.list.get(i));
+		}
+	}
+	
+	@Benchmark
+	public void iterate(Blackhole blackhole) {
+		for(Warning warning : this.list) {
+			blackhole.consume(warning);
+		}
+	}
+	
+	@Benchmark
+	public Warning[] snapshot() {
+		return this.list.toArray(new Warning[0]);
+	}
+	
+	/* How DataListImpl used to load, one element at a time */
+	@Benchmark
+	public List<Warning> loadOneByOne() {
+		List<Warning> list = this.create();
+		for(Warning warning : this.warnings) {
+			list.add(warning);
+		}
+		
+		return list;
+	}
+	
+	/* How DataListImpl loads now, buffered and then added in bulk */
+	@Benchmark
+	public List<Warning> loadBulk() {
+		List<Warning> buffer = new ArrayList<>();
+		for(Warning warning : this.warnings) {
+			buffer.add(warning);
+		}
+		
+		List<Warning> list = this.create();
+		list.addAll(buffer);
+		
+		return list;
+	}
+	
+	@Benchmark
+	@Group("mixed")
+	@GroupThreads(7)
+	public Warning mixedRead() {
+		return this.list.get(ThreadLocalRandom.current().nextInt(this.size));
+	}
+	
+	@Benchmark
+	@Group("mixed")
+	@GroupThreads(1)
+	public void mixedWrite() {
+		/* Replaces an element so that the size stays the same */
+		int index = ThreadLocalRandom.current().nextInt(this.size);
+		
+		this.list.set(index, this.warnings[index]);
+	}
+}
\ No newline at end of file
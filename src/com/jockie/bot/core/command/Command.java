@@ -25,6 +25,8 @@ public @interface Command {
 	
 	public boolean caseSensitive() default false;
 	public boolean developerCommand() default false;
+	public long[] allowedGuilds() default {};
+	public long[] deniedGuilds() default {};
 	public boolean botTriggerable() default false;
 	public boolean hidden() default false;
 	public long cooldown() default 0;
@@ -59,6 +59,20 @@ public interface ICommand {
 	 */
 	public Permission[] getAuthorDiscordPermissionsNeeded();
 	
+	/**
+	 * @return {@link #getBotDiscordPermissionsNeeded()} as a raw permission value, implementations should compute this once rather than every time
+	 */
+	public default long getBotDiscordPermissionsNeededRaw() {
+		return Permission.getRaw(this.getBotDiscordPermissionsNeeded());
+	}
+	
+	/**
+	 * @return {@link #getAuthorDiscordPermissionsNeeded()} as a raw permission value, implementations should compute this once rather than every time
+	 */
+	public default long getAuthorDiscordPermissionsNeededRaw() {
+		return Permission.getRaw(this.getAuthorDiscordPermissionsNeeded());
+	}
+	
 	/**
 	 * @return a boolean that will prove if this command is a <strong>developer</strong> command, if it is a developer command it can only be triggered by developers/authorised users
 	 */
@@ -1,5 +1,7 @@
 package com.jockie.bot.core.command.argument;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
@@ -26,11 +28,45 @@ public interface IArgument<Type> {
 	
 	public VerifiedArgument<Type> verify(MessageReceivedEvent event, String value);
 	
+	/**
+	 * @return whether or not {@link #verify(MessageReceivedEvent, String)} is free of side-effects and safe to call from multiple threads at once,
+	 * this allows for instance endless arguments to verify their elements in parallel
+	 */
+	public default boolean isThreadSafe() {
+		return false;
+	}
+	
+	/**
+	 * @return whether or not this argument should be verified through {@link #verifyAsync(MessageReceivedEvent, String)},
+	 * for instance if it needs to make a REST request to be verified.
+	 * The arguments after an asynchronous argument are parsed before it has been verified, it can therefore only end the parsing early if it is the last argument
+	 */
+	public default boolean isAsync() {
+		return false;
+	}
+	
+	/**
+	 * @return the maximum time in milliseconds {@link #verifyAsync(MessageReceivedEvent, String)} is allowed to take, 
+	 * if it is less than or equal to 0 there is no timeout
+	 */
+	public default long getTimeout() {
+		return 0;
+	}
+	
+	/**
+	 * Verify the argument without blocking the current thread, by default this is completed with {@link #verify(MessageReceivedEvent, String)}
+	 */
+	public default CompletionStage<VerifiedArgument<Type>> verifyAsync(MessageReceivedEvent event, String value) {
+		return CompletableFuture.completedFuture(this.verify(event, value));
+	}
+	
 	public abstract class Builder<RT, A extends IArgument<RT>, BT extends Builder<RT, A, BT>> {
 		
 		/* I see no reason not to allow quoted by default */
 		protected boolean endless, empty, quote = true;
 		
+		protected boolean threadSafe;
+		
 		protected String name, error;
 		
 		protected BiFunction<MessageReceivedEvent, CommandEvent, RT> defaultValueFunction;
@@ -87,6 +123,15 @@ public interface IArgument<Type> {
 			return this.self();
 		}
 		
+		/**
+		 * See {@link IArgument#isThreadSafe()}
+		 */
+		public BT setThreadSafe(boolean threadSafe) {
+			this.threadSafe = threadSafe;
+			
+			return this.self();
+		}
+		
 		public boolean isEndless() {
 			return this.endless;
 		}
@@ -99,6 +144,10 @@ public interface IArgument<Type> {
 			return this.quote;
 		}
 		
+		public boolean isThreadSafe() {
+			return this.threadSafe;
+		}
+		
 		public String getName() {
 			return this.name;
 		}
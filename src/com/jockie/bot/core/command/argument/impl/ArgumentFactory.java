@@ -1,7 +1,11 @@
 package com.jockie.bot.core.command.argument.impl;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 import com.jockie.bot.core.command.argument.IArgument;
 import com.jockie.bot.core.command.argument.VerifiedArgument;
@@ -13,6 +17,7 @@ import net.dv8tion.jda.core.entities.Category;
 import net.dv8tion.jda.core.entities.Channel;
 import net.dv8tion.jda.core.entities.Emote;
 import net.dv8tion.jda.core.entities.Member;
+import net.dv8tion.jda.core.entities.Message;
 import net.dv8tion.jda.core.entities.Role;
 import net.dv8tion.jda.core.entities.TextChannel;
 import net.dv8tion.jda.core.entities.User;
@@ -23,16 +28,49 @@ public class ArgumentFactory {
 	
 	private static Map<Class<?>, TriFunction<MessageReceivedEvent, SimpleArgument<?>, String, VerifiedArgument<?>>> arguments = new HashMap<>();
 	
+	private static Map<Class<?>, TriFunction<MessageReceivedEvent, AsyncArgument<?>, String, CompletionStage<VerifiedArgument<?>>>> asyncArguments = new HashMap<>();
+	
+	/* Registered arguments which are free of side-effects, see IArgument#isThreadSafe() */
+	private static Set<Class<?>> threadSafeArguments = new HashSet<>();
+	
+	/**
+	 * @param threadSafe whether or not the function is free of side-effects and safe to call from multiple threads at once, see {@link IArgument#isThreadSafe()}
+	 */
 	@SuppressWarnings("unchecked")
-	public static <T> void registerArgument(Class<T> clazz, TriFunction<MessageReceivedEvent, SimpleArgument<T>, String, VerifiedArgument<T>> function) {
+	public static <T> void registerArgument(Class<T> clazz, TriFunction<MessageReceivedEvent, SimpleArgument<T>, String, VerifiedArgument<T>> function, boolean threadSafe) {
+		ArgumentFactory.asyncArguments.remove(clazz);
 		ArgumentFactory.arguments.put(clazz, (TriFunction<MessageReceivedEvent, SimpleArgument<?>, String, VerifiedArgument<?>>) (Object) function);
+		
+		if(threadSafe) {
+			ArgumentFactory.threadSafeArguments.add(clazz);
+		}else{
+			ArgumentFactory.threadSafeArguments.remove(clazz);
+		}
+	}
+	
+	public static <T> void registerArgument(Class<T> clazz, TriFunction<MessageReceivedEvent, SimpleArgument<T>, String, VerifiedArgument<T>> function) {
+		ArgumentFactory.registerArgument(clazz, function, false);
+	}
+	
+	/**
+	 * Register an argument which is verified asynchronously, this should be used when the argument may need to make a REST request,
+	 * such as retrieving a user which is not cached, so that it does not have to block the thread handling the event
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> void registerAsyncArgument(Class<T> clazz, TriFunction<MessageReceivedEvent, AsyncArgument<T>, String, CompletionStage<VerifiedArgument<T>>> function) {
+		ArgumentFactory.arguments.remove(clazz);
+		ArgumentFactory.threadSafeArguments.remove(clazz);
+		ArgumentFactory.asyncArguments.put(clazz, (TriFunction<MessageReceivedEvent, AsyncArgument<?>, String, CompletionStage<VerifiedArgument<?>>>) (Object) function);
 	}
 	
 	public static void unregisterArgument(Class<?> clazz) {
 		ArgumentFactory.arguments.remove(clazz);
+		ArgumentFactory.threadSafeArguments.remove(clazz);
+		ArgumentFactory.asyncArguments.remove(clazz);
 	}
 	
 	static {
+		/* These only read from the cache and are therefore thread-safe */
 		ArgumentFactory.registerArgument(Member.class, (event, argument, value) -> {
 			Member member = ArgumentUtility.getMemberByIdOrName(event.getGuild(), value, true);
 			
@@ -41,7 +79,7 @@ public class ArgumentFactory {
 			}else{
 				return new VerifiedArgument<Member>(null);
 			}
-		});
+		}, true);
 		
 		ArgumentFactory.registerArgument(TextChannel.class, (event, argument, value) -> {
 			TextChannel channel = ArgumentUtility.getTextChannelByIdOrName(event.getGuild(), value, true);
@@ -51,7 +89,7 @@ public class ArgumentFactory {
 			}else{
 				return new VerifiedArgument<TextChannel>(null);
 			}
-		});
+		}, true);
 		
 		ArgumentFactory.registerArgument(VoiceChannel.class, (event, argument, value) -> {
 			VoiceChannel channel = ArgumentUtility.getVoiceChannelByIdOrName(event.getGuild(), value, true);
@@ -61,7 +99,7 @@ public class ArgumentFactory {
 			}else{
 				return new VerifiedArgument<VoiceChannel>(null);
 			}
-		});
+		}, true);
 		
 		/* Even though Category technically does implement Channel I do not want it to be a part of the Channel argument */
 		ArgumentFactory.registerArgument(Channel.class, (event, argument, value) -> {
@@ -72,7 +110,7 @@ public class ArgumentFactory {
 			}else{
 				return new VerifiedArgument<Channel>(null);
 			}
-		});
+		}, true);
 		
 		ArgumentFactory.registerArgument(Category.class, (event, argument, value) -> {
 			Category category = ArgumentUtility.getCategoryByIdOrName(event.getGuild(), value, true);
@@ -82,7 +120,7 @@ public class ArgumentFactory {
 			}else{
 				return new VerifiedArgument<Category>(null);
 			}
-		});
+		}, true);
 		
 		ArgumentFactory.registerArgument(Role.class, (event, argument, value) -> {
 			Role role = ArgumentUtility.getRoleByIdOrName(event.getGuild(), value, true);
@@ -92,7 +130,7 @@ public class ArgumentFactory {
 			}else{
 				return new VerifiedArgument<Role>(null);
 			}
-		});
+		}, true);
 		
 		ArgumentFactory.registerArgument(Emote.class, (event, argument, value) -> {
 			Emote emote = ArgumentUtility.getEmoteByIdOrName(event.getGuild(), value, true);
@@ -102,16 +140,33 @@ public class ArgumentFactory {
 			}else{
 				return new VerifiedArgument<Emote>(null);
 			}
-		});
+		}, true);
 		
-		ArgumentFactory.registerArgument(User.class, (event, argument, value) -> {
+		ArgumentFactory.registerAsyncArgument(User.class, (event, argument, value) -> {
 			User user = ArgumentUtility.getUser(event.getJDA(), value);
 			
 			if(user != null) {
-				return new VerifiedArgument<User>(VerifiedType.VALID, user);
-			}else{
-				return new VerifiedArgument<User>(null);
+				return CompletableFuture.completedFuture(new VerifiedArgument<User>(VerifiedType.VALID, user));
 			}
+			
+			/* Not cached, retrieve it instead of giving up */
+			return ArgumentUtility.retrieveUserCached(event.getJDA(), value).handle((retrieved, throwable) -> {
+				if(retrieved != null) {
+					return new VerifiedArgument<User>(VerifiedType.VALID, retrieved);
+				}else{
+					return new VerifiedArgument<User>(null);
+				}
+			});
+		});
+		
+		ArgumentFactory.registerAsyncArgument(Message.class, (event, argument, value) -> {
+			return ArgumentUtility.retrieveMessageCached(event.getChannel(), value).handle((message, throwable) -> {
+				if(message != null) {
+					return new VerifiedArgument<Message>(VerifiedType.VALID, message);
+				}else{
+					return new VerifiedArgument<Message>(null);
+				}
+			});
 		});
 	}
 	
@@ -204,11 +259,20 @@ public class ArgumentFactory {
 				return new VerifiedArgument<ReturnType>(null);
 			});
 		}else if(ArgumentFactory.arguments.containsKey(type)) {
-			builder = new SimpleArgument.Builder<ReturnType>().setFunction((event, argument, value) -> {
+			return new SimpleArgument.Builder<ReturnType>().setFunction((event, argument, value) -> {
 				return (VerifiedArgument<ReturnType>) ArgumentFactory.arguments.get(type).apply(event, argument, value);
+			}).setThreadSafe(ArgumentFactory.threadSafeArguments.contains(type));
+		}else if(ArgumentFactory.asyncArguments.containsKey(type)) {
+			return new AsyncArgument.Builder<ReturnType>().setFunction((event, argument, value) -> {
+				return ArgumentFactory.asyncArguments.get(type).apply(event, argument, value).thenApply(verified -> (VerifiedArgument<ReturnType>) verified);
 			});
 		}
 		
+		if(builder != null) {
+			/* None of the built-in parsers have any side-effects */
+			builder.setThreadSafe(true);
+		}
+		
 		return builder;
 	}
 }
\ No newline at end of file
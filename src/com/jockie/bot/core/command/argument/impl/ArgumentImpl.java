@@ -12,7 +12,7 @@ public abstract class ArgumentImpl<Type> implements IArgument<Type> {
 	
 	private BiFunction<MessageReceivedEvent, CommandEvent, Type> defaultValueFunction;
 	
-	private boolean endless, empty, quote;
+	private boolean endless, empty, quote, threadSafe;
 	
 	private String name, error;
 	
@@ -20,6 +20,7 @@ public abstract class ArgumentImpl<Type> implements IArgument<Type> {
 		this.endless = builder.isEndless();
 		this.empty = builder.isAcceptEmpty();
 		this.quote = builder.isAcceptQuote();
+		this.threadSafe = builder.isThreadSafe();
 		this.name = builder.getName();
 		this.error = builder.getError();
 		this.defaultValueFunction = builder.getDefaultValueFunction();
@@ -49,6 +50,10 @@ public abstract class ArgumentImpl<Type> implements IArgument<Type> {
 		return this.empty;
 	}
 	
+	public boolean isThreadSafe() {
+		return this.threadSafe;
+	}
+	
 	public String getName() {
 		return this.name;
 	}
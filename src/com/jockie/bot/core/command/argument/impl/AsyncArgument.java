@@ -0,0 +1,116 @@
+package com.jockie.bot.core.command.argument.impl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.jockie.bot.core.command.argument.IArgument;
+import com.jockie.bot.core.command.argument.VerifiedArgument;
+import com.jockie.bot.core.utility.TriFunction;
+
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+
+/**
+ * An argument which is verified without blocking, for instance by retrieving an entity through a REST request.
+ * The CommandListener resolves these concurrently and dispatches the command once they have all completed
+ */
+public class AsyncArgument<Type> extends ArgumentImpl<Type> {
+	
+	public static class Builder<Type> extends IArgument.Builder<Type, AsyncArgument<Type>, Builder<Type>> {
+		
+		private TriFunction<MessageReceivedEvent, AsyncArgument<Type>, String, CompletionStage<VerifiedArgument<Type>>> function;
+		
+		/* Anything longer than this and the user will most likely think the bot is not responding */
+		private long timeout = TimeUnit.SECONDS.toMillis(5);
+		
+		public Builder<Type> setFunction(TriFunction<MessageReceivedEvent, AsyncArgument<Type>, String, CompletionStage<VerifiedArgument<Type>>> function) {
+			this.function = function;
+			
+			return this.self();
+		}
+		
+		/**
+		 * @param timeout milliseconds, if it is less than or equal to 0 there will be no timeout
+		 */
+		public Builder<Type> setTimeout(long timeout) {
+			this.timeout = timeout;
+			
+			return this.self();
+		}
+		
+		public Builder<Type> setTimeout(long timeout, TimeUnit unit) {
+			return this.setTimeout(unit.toMillis(timeout));
+		}
+		
+		public TriFunction<MessageReceivedEvent, AsyncArgument<Type>, String, CompletionStage<VerifiedArgument<Type>>> getFunction() {
+			return this.function;
+		}
+		
+		public long getTimeout() {
+			return this.timeout;
+		}
+		
+		public Builder<Type> self() {
+			return this;
+		}
+		
+		public AsyncArgument<Type> build() {
+			return new AsyncArgument<>(this);
+		}
+	}
+	
+	private TriFunction<MessageReceivedEvent, AsyncArgument<Type>, String, CompletionStage<VerifiedArgument<Type>>> function;
+	
+	private long timeout;
+	
+	private AsyncArgument(Builder<Type> builder) {
+		super(builder);
+		
+		this.function = builder.getFunction();
+		this.timeout = builder.getTimeout();
+	}
+	
+	public boolean isAsync() {
+		return true;
+	}
+	
+	public long getTimeout() {
+		return this.timeout;
+	}
+	
+	public CompletionStage<VerifiedArgument<Type>> verifyAsync(MessageReceivedEvent event, String value) {
+		CompletionStage<VerifiedArgument<Type>> stage = this.function.apply(event, this, value);
+		if(stage == null) {
+			return CompletableFuture.completedFuture(new VerifiedArgument<Type>(null));
+		}
+		
+		return stage;
+	}
+	
+	/**
+	 * Blocking fallback for callers which can not handle asynchronous arguments, prefer {@link #verifyAsync(MessageReceivedEvent, String)}
+	 */
+	public VerifiedArgument<Type> verify(MessageReceivedEvent event, String value) {
+		CompletableFuture<VerifiedArgument<Type>> future = this.verifyAsync(event, value).toCompletableFuture();
+		
+		try {
+			if(this.timeout > 0) {
+				return future.get(this.timeout, TimeUnit.MILLISECONDS);
+			}else{
+				return future.get();
+			}
+		}catch(TimeoutException e) {
+			future.cancel(false);
+			
+			return new VerifiedArgument<Type>("timed out");
+		}catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			
+			return new VerifiedArgument<Type>(null);
+		}catch(ExecutionException e) {
+			return new VerifiedArgument<Type>(null);
+		}
+	}
+}
\ No newline at end of file
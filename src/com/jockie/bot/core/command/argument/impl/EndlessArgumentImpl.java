@@ -1,6 +1,13 @@
 package com.jockie.bot.core.command.argument.impl;
 
 import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import com.jockie.bot.core.command.argument.IArgument;
 import com.jockie.bot.core.command.argument.IEndlessArgument;
@@ -15,6 +22,8 @@ public class EndlessArgumentImpl<Type> extends ArgumentImpl<Type[]> implements I
 	
 	private int minArguments, maxArguments;
 	
+	private int parallelThreshold;
+	
 	private Class<Type> clazz;
 	
 	public static class Builder<Type> extends IEndlessArgument.Builder<Type, IEndlessArgument<Type>, Builder<Type>> {
@@ -23,6 +32,9 @@ public class EndlessArgumentImpl<Type> extends ArgumentImpl<Type[]> implements I
 		
 		private Class<Type> clazz;
 		
+		/* Below this it is not worth splitting the work */
+		private int parallelThreshold = 64;
+		
 		public Builder(Class<Type> clazz) {			
 			if(clazz.isPrimitive()) {
 				throw new IllegalArgumentException("Primitve types are currently not supported for endless arguments");
@@ -42,10 +54,24 @@ public class EndlessArgumentImpl<Type> extends ArgumentImpl<Type[]> implements I
 			return this.self();
 		}
 		
+		/**
+		 * @param parallelThreshold the amount of elements at which the elements will be verified in parallel, 
+		 * this is only done if the argument is {@link IArgument#isThreadSafe() thread-safe}
+		 */
+		public Builder<Type> setParallelThreshold(int parallelThreshold) {
+			this.parallelThreshold = parallelThreshold;
+			
+			return this.self();
+		}
+		
 		public IArgument<Type> getArgument() {
 			return this.argument;
 		}
 		
+		public int getParallelThreshold() {
+			return this.parallelThreshold;
+		}
+		
 		public Class<Type> getType() {
 			return this.clazz;
 		}
@@ -66,6 +92,7 @@ public class EndlessArgumentImpl<Type> extends ArgumentImpl<Type[]> implements I
 		this.argument = builder.getArgument();
 		this.minArguments = builder.getMinArguments();
 		this.maxArguments = builder.getMaxArguments();
+		this.parallelThreshold = builder.getParallelThreshold();
 	}
 	
 	public IArgument<Type> getArgument() {
@@ -80,62 +107,102 @@ public class EndlessArgumentImpl<Type> extends ArgumentImpl<Type[]> implements I
 		return this.maxArguments;
 	}
 	
-	@SuppressWarnings("unchecked")
-	public VerifiedArgument<Type[]> verify(MessageReceivedEvent event, String value) {
-		int args = 0;
-		
-		Type[] arguments = (Type[]) Array.newInstance(this.clazz, (this.maxArguments > 0) ? this.maxArguments : (int) value.codePoints().filter(c2 -> c2 == ' ').count() + 1);
+	/**
+	 * Splits the value in to the content of each element, a null entry at the end means that there was content left
+	 * which could not be split in to an element, such as when there are more elements than {@link #getMaxArguments()}
+	 */
+	private List<String> split(String value) {
+		List<String> contents = new ArrayList<>();
 		
-		ARGUMENTS:
-		for(int i = 0; i < arguments.length; i++) {
-			if(value.trim().length() == 0) {
+		int index = 0, length = value.length();
+		while(true) {
+			if(EndlessArgumentImpl.isBlank(value, index) || (this.maxArguments > 0 && contents.size() == this.maxArguments)) {
+				if(index < length) {
+					contents.add(null);
+				}
+				
 				break;
 			}
 			
-			if(i != 0 && value.length() > 0) {
-				if(value.startsWith(" ")) {
-					value = value.substring(1);
+			if(contents.size() > 0) {
+				if(value.charAt(index) == ' ') {
+					index++;
 				}else{
 					/* When does this happen? */
+					contents.add(null);
 					
-					return new VerifiedArgument<Type[]>(VerifiedType.INVALID, null);
+					break;
 				}
 			}
 			
-			String content = null;
-			if(value.length() > 0) {
-				if(this.argument.acceptQuote()) {
-					if(value.charAt(0) == '"') {
-						int nextQuote = 0;
-						while((nextQuote = value.indexOf('"', nextQuote + 1)) != -1 && value.charAt(nextQuote - 1) == '\\');
-						
-						if(nextQuote != -1) {
-							content = value.substring(1, nextQuote);
-							
-							value = value.substring(content.length() + 2);
-							
-							content = content.replace("\\\"", "\"");
-						}
-					}
-				}
+			if(this.argument.acceptQuote() && value.charAt(index) == '"') {
+				int nextQuote = index;
+				while((nextQuote = value.indexOf('"', nextQuote + 1)) != -1 && value.charAt(nextQuote - 1) == '\\');
 				
-				if(content == null) {
-					content = value.substring(0, (value.contains(" ")) ? value.indexOf(" ") : value.length());
-					value = value.substring(content.length());
+				if(nextQuote != -1) {
+					contents.add(value.substring(index + 1, nextQuote).replace("\\\"", "\""));
+					index = nextQuote + 1;
+					
+					continue;
 				}
-			}else{
-				content = "";
+			}
+			
+			int nextSpace = value.indexOf(' ', index);
+			if(nextSpace == -1) {
+				nextSpace = length;
+			}
+			
+			contents.add(value.substring(index, nextSpace));
+			index = nextSpace;
+		}
+		
+		return contents;
+	}
+	
+	private static boolean isBlank(String value, int index) {
+		for(int i = index; i < value.length(); i++) {
+			if(value.charAt(i) > ' ') {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	private boolean shouldVerify(String content) {
+		return content != null && (content.length() > 0 || this.argument.acceptEmpty());
+	}
+	
+	/**
+	 * Combines the verified elements, in order, reporting the first error
+	 */
+	@SuppressWarnings("unchecked")
+	private VerifiedArgument<Type[]> combine(List<String> contents, IntFunction<VerifiedArgument<Type>> verifier) {
+		int size = contents.size();
+		if(size > 0 && contents.get(size - 1) == null) {
+			size--;
+		}
+		
+		Type[] objects = (Type[]) Array.newInstance(this.clazz, size);
+		
+		int args = 0;
+		
+		ARGUMENTS:
+		for(int i = 0; i < contents.size(); i++) {
+			String content = contents.get(i);
+			if(content == null) {
+				return new VerifiedArgument<Type[]>(null);
 			}
 			
 			if(content.length() == 0 && !this.argument.acceptEmpty()) {
 				return new VerifiedArgument<Type[]>("may not be empty");
 			}
 			
-			VerifiedArgument<Type> verified = this.argument.verify(event, content);
+			VerifiedArgument<Type> verified = verifier.apply(i);
 			
 			switch(verified.getVerifiedType()) {
 				case INVALID: {
-					String reason = argument.getError();
+					String reason = this.argument.getError();
 					if(reason == null) {
 						reason = verified.getError();
 						if(reason == null) {
@@ -146,39 +213,85 @@ public class EndlessArgumentImpl<Type> extends ArgumentImpl<Type[]> implements I
 					return new VerifiedArgument<Type[]>("is invalid, argument at index " + (i + 1) + " " + reason);
 				}
 				case VALID: {
-					arguments[args++] = (Type) verified.getObject();
+					objects[args++] = verified.getObject();
 					
 					break;
 				}
 				case VALID_END_NOW: {
-					arguments[args++] = (Type) verified.getObject();
+					objects[args++] = verified.getObject();
+					
+					if(i < contents.size() - 1) {
+						/* There is content left which was not handled */
+						return new VerifiedArgument<Type[]>(null);
+					}
 					
 					break ARGUMENTS;
 				}
 			}
 		}
 		
-		if(value.length() > 0) {
-			/* When does this happen? */
-			
-			return new VerifiedArgument<Type[]>(null);
-		}
-		
 		if(args < this.minArguments || ((this.maxArguments > 0) ? args > this.maxArguments : false)) {
 			return new VerifiedArgument<Type[]>("incorrect amount of arguments");
 		}
 		
-		Type[] objects = (Type[]) Array.newInstance(this.clazz, args);
-		for(int i2 = 0; i2 < objects.length; i2++) {
-			objects[i2] = (Type) arguments[i2];
-		}
-		
-		arguments = objects;
-		
 		if(this.isEndless()) {
 			return new VerifiedArgument<Type[]>(VerifiedType.VALID_END_NOW, objects);
 		}else{
 			return new VerifiedArgument<Type[]>(VerifiedType.VALID, objects);
 		}
 	}
+	
+	public VerifiedArgument<Type[]> verify(MessageReceivedEvent event, String value) {
+		List<String> contents = this.split(value);
+		
+		if(this.argument.isThreadSafe() && contents.size() >= this.parallelThreshold) {
+			/* Every element is verified, even the ones after an invalid one, since there is no way to know which is the first one until they are all done */
+			List<VerifiedArgument<Type>> verified = IntStream.range(0, contents.size()).parallel().mapToObj(i -> {
+				String content = contents.get(i);
+				if(this.shouldVerify(content)) {
+					return this.argument.verify(event, content);
+				}
+				
+				return null;
+			}).collect(Collectors.toList());
+			
+			return this.combine(contents, verified::get);
+		}
+		
+		return this.combine(contents, i -> this.argument.verify(event, contents.get(i)));
+	}
+	
+	public boolean isAsync() {
+		return this.argument.isAsync();
+	}
+	
+	public long getTimeout() {
+		return this.argument.getTimeout();
+	}
+	
+	public CompletionStage<VerifiedArgument<Type[]>> verifyAsync(MessageReceivedEvent event, String value) {
+		if(!this.argument.isAsync()) {
+			return CompletableFuture.completedFuture(this.verify(event, value));
+		}
+		
+		List<String> contents = this.split(value);
+		
+		/* All the elements are verified concurrently */
+		List<CompletableFuture<VerifiedArgument<Type>>> futures = new ArrayList<>(contents.size());
+		for(String content : contents) {
+			if(this.shouldVerify(content)) {
+				futures.add(this.argument.verifyAsync(event, content).handle((verified, throwable) -> {
+					if(throwable == null && verified != null) {
+						return verified;
+					}
+					
+					return new VerifiedArgument<Type>(null);
+				}).toCompletableFuture());
+			}else{
+				futures.add(CompletableFuture.completedFuture(null));
+			}
+		}
+		
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> this.combine(contents, i -> futures.get(i).join()));
+	}
 }
\ No newline at end of file
@@ -1,8 +1,8 @@
 package com.jockie.bot.core.command.impl;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import com.jockie.bot.core.command.ICommand;
 
@@ -11,9 +11,10 @@ public class Category {
 	
 	private String name;
 	
-	private List<CommandImpl> commands = new ArrayList<>();
+	/* Commands may set their category in their constructor, which can be called from multiple threads when they are loaded in parallel */
+	private List<CommandImpl> commands = new CopyOnWriteArrayList<>();
 	
-	private List<CommandStore> commandStores = new ArrayList<>();
+	private List<CommandStore> commandStores = new CopyOnWriteArrayList<>();
 	
 	public Category(String name) {
 		this.name = name;
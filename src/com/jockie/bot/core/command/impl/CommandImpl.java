@@ -20,6 +20,7 @@ import com.jockie.bot.core.command.argument.Endless;
 import com.jockie.bot.core.command.argument.IArgument;
 import com.jockie.bot.core.command.argument.impl.ArgumentFactory;
 import com.jockie.bot.core.command.argument.impl.EndlessArgumentImpl;
+import com.jockie.bot.core.utility.ConcurrentLongSet;
 import com.jockie.bot.core.utility.LoaderUtility;
 import com.jockie.bot.core.utility.TriFunction;
 
@@ -218,6 +219,8 @@ public class CommandImpl implements ICommand {
 			methodCommand.setCooldownDuration(annotation.cooldown());
 			methodCommand.setDescription(annotation.description());
 			methodCommand.setDeveloperCommand(annotation.developerCommand());
+			methodCommand.setAllowedGuilds(annotation.allowedGuilds());
+			methodCommand.setDeniedGuilds(annotation.deniedGuilds());
 			methodCommand.setExecuteAsync(annotation.async());
 			methodCommand.setGuildTriggerable(annotation.guildTriggerable());
 			methodCommand.setHidden(annotation.hidden());
@@ -244,6 +247,10 @@ public class CommandImpl implements ICommand {
 	private Permission[] botDiscordPermissionsNeeded = {};
 	private Permission[] authorDiscordPermissionsNeeded = {};
 	
+	/* The permissions needed as raw permission values, these are set together with the arrays */
+	private long botDiscordPermissionsNeededRaw = 0;
+	private long authorDiscordPermissionsNeededRaw = 0;
+	
 	private boolean guildTriggerable = true;
 	private boolean privateTriggerable;
 	
@@ -253,6 +260,10 @@ public class CommandImpl implements ICommand {
 	
 	private boolean developerCommand;
 	
+	/* If any guilds are allowed the command can only be used in those, denied guilds can never use it */
+	private ConcurrentLongSet allowedGuilds = new ConcurrentLongSet();
+	private ConcurrentLongSet deniedGuilds = new ConcurrentLongSet();
+	
 	private boolean hidden;
 	
 	private boolean executeAsync;
@@ -367,6 +378,14 @@ public class CommandImpl implements ICommand {
 		return this.authorDiscordPermissionsNeeded;
 	}
 	
+	public long getBotDiscordPermissionsNeededRaw() {
+		return this.botDiscordPermissionsNeededRaw;
+	}
+	
+	public long getAuthorDiscordPermissionsNeededRaw() {
+		return this.authorDiscordPermissionsNeededRaw;
+	}
+	
 	public boolean isGuildTriggerable() {
 		return this.guildTriggerable;
 	}
@@ -391,6 +410,31 @@ public class CommandImpl implements ICommand {
 		return this.hidden;
 	}
 	
+	/**
+	 * @return the ids of the guilds this command can be used in, if this is empty it can be used in any guild which is not denied
+	 */
+	public long[] getAllowedGuilds() {
+		return this.allowedGuilds.toArray();
+	}
+	
+	/**
+	 * @return the ids of the guilds this command can not be used in
+	 */
+	public long[] getDeniedGuilds() {
+		return this.deniedGuilds.toArray();
+	}
+	
+	/**
+	 * @return whether or not this command can be used in the guild, see {@link #getAllowedGuilds()} and {@link #getDeniedGuilds()}
+	 */
+	public boolean isAllowedIn(long guildId) {
+		if(!this.allowedGuilds.isEmpty() && !this.allowedGuilds.contains(guildId)) {
+			return false;
+		}
+		
+		return !this.deniedGuilds.contains(guildId);
+	}
+	
 	public Category getCategory() {
 		return this.category;
 	}
@@ -452,12 +496,14 @@ public class CommandImpl implements ICommand {
 	
 	protected CommandImpl setBotDiscordPermissionsNeeded(Permission... permissions) {
 		this.botDiscordPermissionsNeeded = permissions;
+		this.botDiscordPermissionsNeededRaw = Permission.getRaw(permissions);
 		
 		return this;
 	}
 	
 	protected CommandImpl setAuthorDiscordPermissionsNeeded(Permission... permissions) {
 		this.authorDiscordPermissionsNeeded = permissions;
+		this.authorDiscordPermissionsNeededRaw = Permission.getRaw(permissions);
 		
 		return this;
 	}
@@ -545,6 +591,18 @@ public class CommandImpl implements ICommand {
 		return this;
 	}
 	
+	protected CommandImpl setAllowedGuilds(long... guildIds) {
+		this.allowedGuilds.set(guildIds);
+		
+		return this;
+	}
+	
+	protected CommandImpl setDeniedGuilds(long... guildIds) {
+		this.deniedGuilds.set(guildIds);
+		
+		return this;
+	}
+	
 	protected CommandImpl setParent(ICommand parent) {
 		this.parent = parent;
 		
@@ -644,15 +702,18 @@ public class CommandImpl implements ICommand {
 			return false;
 		}
 		
-		if(this.developerCommand && !commandListener.getDevelopers().contains(event.getAuthor().getIdLong())) {
+		if(this.developerCommand && !commandListener.isDeveloper(event.getAuthor().getIdLong())) {
 			return false;
 		}
 		
 		if(event.getChannelType().isGuild()) {
-			if(this.authorDiscordPermissionsNeeded.length > 0) {
+			if(!this.isAllowedIn(event.getGuild().getIdLong())) {
+				return false;
+			}
+			
+			if(this.authorDiscordPermissionsNeededRaw != 0) {
 				if(event.getMember() != null) {
-					Permission[] permissions = this.authorDiscordPermissionsNeeded;
-					if(!event.getMember().hasPermission(event.getTextChannel(), permissions) && !event.getMember().hasPermission(permissions)) {
+					if(!commandListener.hasAuthorPermissions(event, this.authorDiscordPermissionsNeededRaw)) {
 						return false;
 					}
 				}
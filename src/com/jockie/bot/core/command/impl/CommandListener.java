@@ -4,28 +4,40 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 import com.jockie.bot.core.await.AwaitManager;
 import com.jockie.bot.core.command.ICommand;
 import com.jockie.bot.core.command.argument.IArgument;
 import com.jockie.bot.core.command.argument.IEndlessArgument;
 import com.jockie.bot.core.command.argument.VerifiedArgument;
+import com.jockie.bot.core.command.argument.VerifiedArgument.VerifiedType;
+import com.jockie.bot.core.command.impl.CommandMetrics.Gate;
+import com.jockie.bot.core.command.impl.command.CommandPrefix;
 import com.jockie.bot.core.paged.impl.PagedManager;
+import com.jockie.bot.core.utility.ConcurrentLongSet;
 import com.jockie.bot.core.utility.TriFunction;
 
 import net.dv8tion.jda.core.EmbedBuilder;
+import net.dv8tion.jda.core.JDA;
 import net.dv8tion.jda.core.MessageBuilder;
-import net.dv8tion.jda.core.MessageBuilder.Formatting;
 import net.dv8tion.jda.core.Permission;
+import net.dv8tion.jda.core.entities.ChannelType;
 import net.dv8tion.jda.core.entities.Member;
-import net.dv8tion.jda.core.entities.MessageChannel;
 import net.dv8tion.jda.core.events.Event;
 import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.core.exceptions.InsufficientPermissionException;
@@ -107,24 +119,215 @@ public class CommandListener implements EventListener {
 		}
 	};
 	
+	/* Snapshot of the command triggers and the versions of the command stores they were created from */
+	private static class CommandTriggers {
+		
+		private final CommandStore[] stores;
+		private final long[] versions;
+		
+		private final List<Pair<String, ICommand>> triggers;
+		
+		/* Whether any of the commands can be triggered at all by bots or in private channels, messages which can not are rejected early */
+		private final boolean botTriggerable;
+		private final boolean privateTriggerable;
+		
+		/**
+		 * @param priorityStores the amount of stores, from the start, whose triggers are checked ahead of the triggers of the other stores
+		 * instead of being sorted together with them
+		 */
+		private CommandTriggers(CommandStore[] stores, int priorityStores) {
+			this.stores = stores;
+			this.versions = new long[stores.length];
+			
+			List<Pair<String, ICommand>> triggers = new ArrayList<>();
+			
+			int priorityTriggers = 0;
+			
+			boolean botTriggerable = false, privateTriggerable = false;
+			for(int i = 0; i < stores.length; i++) {
+				/* The version has to be read before the commands so that a concurrent modification will cause it to be rebuilt next time */
+				this.versions[i] = stores[i].getVersion();
+				
+				for(ICommand command : stores[i].getCommands()) {
+					for(Pair<ICommand, List<?>> pair : command.getAllCommandsRecursive("")) {
+						if(pair.getLeft().isPassive()) {
+							continue;
+						}
+						
+						botTriggerable |= pair.getLeft().isBotTriggerable();
+						privateTriggerable |= pair.getLeft().isPrivateTriggerable();
+						
+						for(Object obj : pair.getRight()) {
+							if(obj instanceof String) {
+								triggers.add(Pair.of((String) obj, pair.getLeft()));
+							}else if(obj instanceof Pair) {
+								@SuppressWarnings("unchecked")
+								Pair<ICommand, List<String>> pairs = (Pair<ICommand, List<String>>) obj;
+								
+								for(String trigger : pairs.getRight()) {
+									triggers.add(Pair.of(trigger, pairs.getLeft()));
+								}
+							}
+						}
+					}
+				}
+				
+				if(i < priorityStores) {
+					priorityTriggers = triggers.size();
+				}
+			}
+			
+			triggers.subList(0, priorityTriggers).sort(COMMAND_COMPARATOR);
+			triggers.subList(priorityTriggers, triggers.size()).sort(COMMAND_COMPARATOR);
+			
+			this.triggers = Collections.unmodifiableList(triggers);
+			
+			this.botTriggerable = botTriggerable;
+			this.privateTriggerable = privateTriggerable;
+		}
+		
+		private boolean isCurrent(CommandStore[] stores) {
+			if(stores.length != this.stores.length) {
+				return false;
+			}
+			
+			for(int i = 0; i < stores.length; i++) {
+				if(stores[i] != this.stores[i] || stores[i].getVersion() != this.versions[i]) {
+					return false;
+				}
+			}
+			
+			return true;
+		}
+	}
+	
+	/* The mentions of the bot, which are hard-coded prefixes, they are only created once per JDA */
+	private static class MentionPrefixes {
+		
+		private final long selfId;
+		
+		/* Needs to work for both non-nicked mention and nicked mention */
+		private final String mention;
+		private final String nickMention;
+		
+		private MentionPrefixes(long selfId) {
+			this.selfId = selfId;
+			
+			this.mention = "<@" + Long.toUnsignedString(selfId) + "> ";
+			this.nickMention = "<@!" + Long.toUnsignedString(selfId) + "> ";
+		}
+		
+		private String match(String message) {
+			if(message.regionMatches(0, this.mention, 0, this.mention.length())) {
+				return this.mention;
+			}
+			
+			if(message.regionMatches(0, this.nickMention, 0, this.nickMention.length())) {
+				return this.nickMention;
+			}
+			
+			return null;
+		}
+	}
+	
+	/* Used to time out asynchronous arguments */
+	private static final ScheduledExecutorService TIMEOUT_EXECUTOR = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+		Thread thread = new Thread(runnable, "CommandListener-ArgumentTimeout");
+		thread.setDaemon(true);
+		
+		return thread;
+	});
+	
 	private Permission[] genericPermissions = {};
 	
-	private String[] defaultPrefixes = {"!"};
+	private long genericPermissionsRaw = 0;
+	
+	private PrefixMatcher defaultPrefixMatcher = new PrefixMatcher("!");
 	
 	private Function<MessageReceivedEvent, String[]> prefixFunction;
 	
+	/* The prefixes returned by the prefix function, by the id of the guild or of the user in private channels */
+	private Map<Long, PrefixMatcher> prefixMatchers = new ConcurrentHashMap<>();
+	
 	private TriFunction<MessageReceivedEvent, CommandEvent, List<ICommand>, MessageBuilder> helperFunction;
 	
 	private boolean helpEnabled = true;
 	
-	private List<Long> developers = new ArrayList<>();
+	private ConcurrentLongSet developers = new ConcurrentLongSet();
+	
+	private CopyOnWriteArrayList<CommandStore> commandStores = new CopyOnWriteArrayList<>();
+	
+	private volatile CommandTriggers commandTriggers;
+	
+	/* The commands which can only be triggered by mentioning the bot, these are checked before any other commands */
+	private CommandStore mentionCommandStore = new CommandStore().addCommands(new CommandPrefix());
+	
+	private volatile CommandTriggers mentionCommandTriggers;
 	
-	private List<CommandStore> commandStores = new ArrayList<>();
+	private Map<JDA, MentionPrefixes> mentionPrefixes = new ConcurrentHashMap<>();
 	
 	private List<CommandEventListener> commandEventListeners = new ArrayList<>();
 	
 	private ExecutorService commandExecutor = Executors.newCachedThreadPool();
 	
+	private CommandMetrics metrics = new CommandMetrics();
+	
+	private PermissionCache permissionCache = new PermissionCache();
+	
+	/* The permissions of the author of the message which was last handled on each thread */
+	private static class AuthorPermissions {
+		
+		private MessageReceivedEvent event;
+		
+		private long channelPermissions;
+		private long guildPermissions;
+	}
+	
+	private ThreadLocal<AuthorPermissions> authorPermissions = ThreadLocal.withInitial(AuthorPermissions::new);
+	
+	/**
+	 * @return a snapshot of the timings and counters of all the messages and commands handled by this listener
+	 */
+	public CommandMetrics getMetrics() {
+		return this.metrics.snapshot();
+	}
+	
+	/**
+	 * @return the cached permissions of the bot which are used to check the permissions needed by the commands, 
+	 * it is kept up to date by the events this listener receives
+	 */
+	public PermissionCache getPermissionCache() {
+		return this.permissionCache;
+	}
+	
+	/**
+	 * Used by {@link CommandImpl#verify(MessageReceivedEvent, CommandListener)}, the permissions of the author are only computed once per message 
+	 * no matter how many commands are verified for it, as long as they are verified on the same thread
+	 * 
+	 * @param permissions the raw permissions to check for, see {@link Permission#getRaw(Permission...)}
+	 * 
+	 * @return whether or not the author of the message has all of the permissions, either in the channel or in the guild
+	 */
+	public boolean hasAuthorPermissions(MessageReceivedEvent event, long permissions) {
+		AuthorPermissions authorPermissions = this.authorPermissions.get();
+		if(authorPermissions.event != event) {
+			Member member = event.getMember();
+			
+			authorPermissions.channelPermissions = Permission.getRaw(member.getPermissions(event.getTextChannel()));
+			authorPermissions.guildPermissions = Permission.getRaw(member.getPermissions());
+			authorPermissions.event = event;
+		}
+		
+		return (permissions & ~authorPermissions.channelPermissions) == 0 || (permissions & ~authorPermissions.guildPermissions) == 0;
+	}
+	
+	/**
+	 * Called once the current thread is done with a message so that the event is not kept around by the thread
+	 */
+	private void clearAuthorPermissions() {
+		this.authorPermissions.get().event = null;
+	}
+	
 	public CommandListener addCommandEventListener(CommandEventListener... commandEventListeners) {
 		for(CommandEventListener commandEventListener : commandEventListeners) {
 			if(!this.commandEventListeners.contains(commandEventListener)) {
@@ -152,9 +355,7 @@ public class CommandListener implements EventListener {
 	 */
 	public CommandListener addCommandStore(CommandStore... commandStores) {
 		for(CommandStore commandStore : commandStores) {
-			if(!this.commandStores.contains(commandStore)) {
-				this.commandStores.add(commandStore);
-			}
+			this.commandStores.addIfAbsent(commandStore);
 		}
 		
 		return this;
@@ -178,18 +379,75 @@ public class CommandListener implements EventListener {
 		return Collections.unmodifiableList(this.commandStores);
 	}
 	
+	/**
+	 * @return all the triggers, for all the non-passive commands, sorted in the order they should be checked. 
+	 * This is only rebuilt when a {@link CommandStore} has been added, removed or modified
+	 */
+	public List<Pair<String, ICommand>> getCommandTriggers() {
+		return this.getTriggers().triggers;
+	}
+	
+	private CommandTriggers getTriggers() {
+		CommandStore[] stores = this.commandStores.toArray(new CommandStore[0]);
+		
+		CommandTriggers triggers = this.commandTriggers;
+		if(triggers == null || !triggers.isCurrent(stores)) {
+			triggers = new CommandTriggers(stores, 0);
+			
+			this.commandTriggers = triggers;
+		}
+		
+		return triggers;
+	}
+	
+	/**
+	 * @return the same as {@link #getCommandTriggers()} but with the built in commands which are only triggered by mentioning the bot, 
+	 * such as {@link CommandPrefix}, ahead of the other commands
+	 */
+	public List<Pair<String, ICommand>> getMentionCommandTriggers() {
+		return this.getMentionTriggers().triggers;
+	}
+	
+	private CommandTriggers getMentionTriggers() {
+		CommandStore[] commandStores = this.commandStores.toArray(new CommandStore[0]);
+		
+		CommandStore[] stores = new CommandStore[commandStores.length + 1];
+		stores[0] = this.mentionCommandStore;
+		System.arraycopy(commandStores, 0, stores, 1, commandStores.length);
+		
+		CommandTriggers triggers = this.mentionCommandTriggers;
+		if(triggers == null || !triggers.isCurrent(stores)) {
+			triggers = new CommandTriggers(stores, 1);
+			
+			this.mentionCommandTriggers = triggers;
+		}
+		
+		return triggers;
+	}
+	
+	/**
+	 * @return the mention of the bot the message starts with, including the space after it, or null if it does not start with one
+	 */
+	private String matchMention(MessageReceivedEvent event, String message) {
+		JDA jda = event.getJDA();
+		
+		long selfId = jda.getSelfUser().getIdLong();
+		
+		MentionPrefixes prefixes = this.mentionPrefixes.get(jda);
+		if(prefixes == null || prefixes.selfId != selfId) {
+			prefixes = new MentionPrefixes(selfId);
+			
+			this.mentionPrefixes.put(jda, prefixes);
+		}
+		
+		return prefixes.match(message);
+	}
+	
 	/**
 	 * See {@link #getDefaultPrefixes()}
 	 */
 	public CommandListener setDefaultPrefixes(String... prefixes) {
-		/* 
-		 * From the longest prefix to the shortest so that if the bot for instance has two prefixes one being "hello" 
-		 * and the other being "hello there" it would recognize that the prefix is "hello there" instead of it thinking that
-		 * "hello" is the prefix and "there" being the command.
-		 */
-		Arrays.sort(prefixes, (a, b) -> Integer.compare(b.length(), a.length()));
-		
-		this.defaultPrefixes = prefixes;
+		this.defaultPrefixMatcher = new PrefixMatcher(prefixes);
 		
 		return this;
 	}
@@ -199,7 +457,7 @@ public class CommandListener implements EventListener {
 	 * additionally the mention of the bot is a hard-coded prefix which can not be removed
 	 */
 	public String[] getDefaultPrefixes() {
-		return this.defaultPrefixes;
+		return this.defaultPrefixMatcher.getPrefixes();
 	}
 	
 	/**
@@ -207,6 +465,7 @@ public class CommandListener implements EventListener {
 	 */
 	public CommandListener setGenericPermissions(Permission... permissions) {
 		this.genericPermissions = permissions;
+		this.genericPermissionsRaw = Permission.getRaw(permissions);
 		
 		return this;
 	}
@@ -237,55 +496,109 @@ public class CommandListener implements EventListener {
 	}
 	
 	/**
-	 * @return the developers which should be checked for in {@link ICommand#verify(MessageReceivedEvent, CommandListener)} if the command has {@link ICommand#isDeveloperCommand()}
+	 * @return the developers which should be checked for in {@link ICommand#verify(MessageReceivedEvent, CommandListener)} if the command has {@link ICommand#isDeveloperCommand()}, 
+	 * this is a copy, use {@link #isDeveloper(long)} to check if someone is a developer
 	 */
 	public List<Long> getDevelopers() {
-		return Collections.unmodifiableList(this.developers);
+		List<Long> developers = new ArrayList<>();
+		for(long developer : this.developers.toArray()) {
+			developers.add(developer);
+		}
+		
+		return Collections.unmodifiableList(developers);
+	}
+	
+	/**
+	 * See {@link #getDevelopers()}
+	 */
+	public boolean isDeveloper(long id) {
+		return this.developers.contains(id);
 	}
 	
 	/**
 	 * See {@link #getPrefixes(MessageReceivedEvent)}
 	 * 
 	 * @param function the function which will return a set amount of prefixes for the specific context,
-	 * for instance you can return guild or user specific prefixes
+	 * for instance you can return guild or user specific prefixes. The function is only called once per guild, 
+	 * or per user in private channels, after that the prefixes are cached until {@link #invalidatePrefixes(long)} is called
 	 */
 	public CommandListener setPrefixesFunction(Function<MessageReceivedEvent, String[]> function) {
 		this.prefixFunction = function;
+		this.prefixMatchers.clear();
 		
 		return this;
 	}
 	
+	/**
+	 * Should be called whenever the prefixes returned by the prefix function change, see {@link #setPrefixesFunction(Function)}
+	 * 
+	 * @param id the id of the guild, or of the user for private channels, which the prefixes changed for
+	 */
+	public CommandListener invalidatePrefixes(long id) {
+		this.prefixMatchers.remove(id);
+		
+		return this;
+	}
+	
+	/**
+	 * Same as {@link #invalidatePrefixes(long)} but for every guild and user
+	 */
+	public CommandListener invalidatePrefixes() {
+		this.prefixMatchers.clear();
+		
+		return this;
+	}
+	
+	private PrefixMatcher createPrefixMatcher(MessageReceivedEvent event) {
+		String[] prefixes = this.prefixFunction.apply(event);
+		
+		/* 
+		 * Should we also check if the length of the array is greater than 0 or
+		 * can we justify giving the user the freedom of not returning any prefixes at all? 
+		 * After all the mention prefix is hard-coded 
+		 */
+		if(prefixes != null /* && prefixes.length > 0 */) {
+			return new PrefixMatcher(prefixes);
+		}else{
+			System.err.println("The prefix function returned a null object, I will return the default prefixes instead");
+		}
+		
+		/* Not cached so that the context uses the current default prefixes, even if they are changed later */
+		return null;
+	}
+	
 	/**
 	 * @param event the context of the message
 	 * 
-	 * @return this will return a set of prefixes for the specific context,
+	 * @return the prefixes for the specific context compiled in to a matcher, 
 	 * if a function was not set through {@link #setPrefixesFunction(Function)}
-	 * the default function, {@link #getDefaultPrefixes()}, will instead be used
+	 * the default prefixes, {@link #getDefaultPrefixes()}, will instead be used
 	 */
-	public String[] getPrefixes(MessageReceivedEvent event) {
-		if(this.prefixFunction != null) {
-			String[] prefixes = this.prefixFunction.apply(event);
-			
-			/* 
-			 * Should we also check if the length of the array is greater than 0 or
-			 * can we justify giving the user the freedom of not returning any prefixes at all? 
-			 * After all the mention prefix is hard-coded 
-			 */
-			if(prefixes != null /* && prefixes.length > 0 */) {
-				/* 
-				 * From the longest prefix to the shortest so that if the bot for instance has two prefixes one being "hello" 
-				 * and the other being "hello there" it would recognize that the prefix is "hello there" instead of it thinking that
-				 * "hello" is the prefix and "there" being the command.
-				 */
-				Arrays.sort(prefixes, (a, b) -> Integer.compare(b.length(), a.length()));
-				
-				return prefixes;
-			}else{
-				System.err.println("The prefix function returned a null object, I will return the default prefixes instead");
-			}
+	public PrefixMatcher getPrefixMatcher(MessageReceivedEvent event) {
+		if(this.prefixFunction == null) {
+			return this.defaultPrefixMatcher;
+		}
+		
+		long id = event.getChannelType().isGuild() ? event.getGuild().getIdLong() : event.getAuthor().getIdLong();
+		
+		/* The get avoids the locking of computeIfAbsent for the contexts which are already cached */
+		PrefixMatcher matcher = this.prefixMatchers.get(id);
+		if(matcher == null) {
+			matcher = this.prefixMatchers.computeIfAbsent(id, (key) -> this.createPrefixMatcher(event));
 		}
 		
-		return this.getDefaultPrefixes();
+		return matcher != null ? matcher : this.defaultPrefixMatcher;
+	}
+	
+	/**
+	 * @param event the context of the message
+	 * 
+	 * @return this will return a set of prefixes for the specific context, from the longest to the shortest,
+	 * if a function was not set through {@link #setPrefixesFunction(Function)}
+	 * the default function, {@link #getDefaultPrefixes()}, will instead be used
+	 */
+	public String[] getPrefixes(MessageReceivedEvent event) {
+		return this.getPrefixMatcher(event).getPrefixes();
 	}
 	
 	/**
@@ -349,279 +662,385 @@ public class CommandListener implements EventListener {
 	public void onEvent(Event event) {
 		if(event instanceof MessageReceivedEvent) {
 			this.onMessageReceived((MessageReceivedEvent) event);
+		}else{
+			this.permissionCache.onEvent(event);
 		}
 		
 		AwaitManager.handleAwait(event);
 	}
 	
-	/* Would it be possible to split this event in to different steps, opinions? */
 	public void onMessageReceived(MessageReceivedEvent event) {
+		try {
+			this.handleMessage(event);
+		}finally{
+			this.clearAuthorPermissions();
+		}
+	}
+	
+	/* Would it be possible to split this event in to different steps, opinions? */
+	private void handleMessage(MessageReceivedEvent event) {
+		this.metrics.recordMessage();
+		
+		/* 
+		 * Messages which can not be commands are rejected with a few field reads before any string work, 
+		 * these are the same checks as in CommandImpl#verify but against all the commands at once 
+		 */
+		if(event.getAuthor().getIdLong() == event.getJDA().getSelfUser().getIdLong()) {
+			this.metrics.recordRejected(Gate.SELF);
+			
+			return;
+		}
+		
+		/* Paged results are handled for any author, including bots, regardless of whether or not they can trigger any commands */
 		if(event.getChannelType().isGuild()) {
 			if(PagedManager.handlePagedResults(event)) {
 				return;
 			}
 		}
 		
-		String[] prefixes = this.getPrefixes(event);
+		CommandTriggers triggers = this.getTriggers();
+		
+		/* None of the built in mention commands can be triggered by bots so the mention triggers do not have to be checked */
+		if(event.getAuthor().isBot() && !triggers.botTriggerable) {
+			this.metrics.recordRejected(Gate.BOT);
+			
+			return;
+		}
+		
+		long prefixStarted = System.nanoTime();
 		
-		String message = event.getMessage().getContentRaw(), prefix = null;
+		String message = event.getMessage().getContentRaw();
 		
-		/* Needs to work for both non-nicked mention and nicked mention */
-		if(message.startsWith("<@" + event.getJDA().getSelfUser().getId() + "> ") || message.startsWith("<@!" + event.getJDA().getSelfUser().getId() + "> ")) {
-			/* I want every bot to have this feature therefore it will be a hard coded one, arguments against it? */
-			prefix = message.substring(0, message.indexOf(" ") + 1);
+		/* The mention of the bot is a hard-coded prefix, which also allows for the built in mention commands */
+		String prefix = this.matchMention(event, message);
+		
+		boolean mentioned = prefix != null;
+		if(mentioned) {
+			triggers = this.getMentionTriggers();
+		}
+		
+		if(!triggers.privateTriggerable && event.getChannelType() == ChannelType.PRIVATE) {
+			this.metrics.recordRejected(Gate.PRIVATE);
 			
-			if(message.equals(prefix + "prefix") || message.equals(prefix + "prefixes")) {
-				String allPrefixes = Arrays.deepToString(prefixes);
-				allPrefixes = allPrefixes.substring(1, allPrefixes.length() - 1);
-				
-				event.getChannel().sendMessage(new MessageBuilder()
-					.append("My prefix")
-					.append(prefixes.length > 1 ? "es are " : " is ")
-					.append(allPrefixes, Formatting.BOLD)
-					.build()).queue();
-				
-				return;
-			}
-		}else{
-			for(String p : prefixes) {
-				if(message.startsWith(p)) {
-					prefix = p;
-					
-					break;
-				}
-			}
+			return;
 		}
 		
-		if(prefix != null) {
-			long commandStarted = System.nanoTime();
+		/* The first level of the prefix trie is the set of the first characters of all the prefixes, most messages are rejected there */
+		if(!mentioned) {
+			prefix = this.getPrefixMatcher(event).match(message);
+		}
+		
+		long commandStarted = System.nanoTime();
+		
+		this.metrics.recordPrefix(commandStarted - prefixStarted);
+		
+		if(prefix == null) {
+			this.metrics.recordRejected(Gate.PREFIX);
 			
-			message = message.substring(prefix.length());
+			return;
+		}
+		
+		message = message.substring(prefix.length());
+		
+		this.handleCommands(event, prefix, message, triggers.triggers, 0, new HashSet<>(), commandStarted);
+	}
+	
+	/**
+	 * Attempts the command candidates in order, starting at the specified index. If a candidate has any asynchronous arguments 
+	 * they are all verified concurrently and the remaining candidates are only attempted, on the command executor, once those have completed
+	 */
+	private void handleCommands(MessageReceivedEvent event, String prefix, String message, List<Pair<String, ICommand>> commands, int index, Set<ICommand> possibleCommands, long commandStarted) {
+		COMMANDS :
+		for(int c = index; c < commands.size(); c++) {
+			Pair<String, ICommand> pair = commands.get(c);
 			
-			Set<ICommand> possibleCommands = new HashSet<>();
+			ICommand command = pair.getRight();
 			
-			/* This is probably not the best but it works */
-			List<Pair<ICommand, List<?>>> allCommands = this.getCommandStores().stream()
-				.map(store -> store.getCommands())
-				.flatMap(List::stream)
-				.map(command -> command.getAllCommandsRecursive(""))
-				.flatMap(List::stream)
-				.filter(pair -> pair.getLeft().verify(event, this))
-				.filter(pair -> !pair.getLeft().isPassive())
-				.collect(Collectors.toList());
+			String msg = message, cmd = pair.getLeft();
 			
-			List<Pair<String, ICommand>> commands = new ArrayList<>();
-			for(Pair<ICommand, List<?>> pair : allCommands) {
-				for(Object obj : pair.getRight()) {
-					if(obj instanceof String) {
-						commands.add(Pair.of((String) obj, pair.getLeft()));
-					}else if(obj instanceof Pair) {
-						@SuppressWarnings("unchecked")
-						Pair<ICommand, List<String>> pairs = (Pair<ICommand, List<String>>) obj;
-						
-						for(String trigger : pairs.getRight()) {
-							commands.add(Pair.of(trigger, pairs.getLeft()));
-						}
-					}
-				}
+			if(!command.isCaseSensitive()) {
+				msg = msg.toLowerCase();
+				cmd = cmd.toLowerCase();
 			}
 			
-			commands.sort(COMMAND_COMPARATOR);
-			
-			for(Pair<String, ICommand> pair : commands) {
-				System.out.println(pair.getRight().getUsage());
+			if(!msg.startsWith(cmd)) {
+				continue COMMANDS;
 			}
 			
-			COMMANDS :
-			for(Pair<String, ICommand> pair : commands) {
-				ICommand command = pair.getRight();
-				
-				String msg = message, cmd = pair.getLeft();
-				
-				if(!command.isCaseSensitive()) {
-					msg = msg.toLowerCase();
-					cmd = cmd.toLowerCase();
-				}
-				
-				if(!msg.startsWith(cmd)) {
-					continue COMMANDS;
-				}
-				
-				msg = message.substring(cmd.length());
+			msg = message.substring(cmd.length());
+			
+			if(msg.length() > 0 && msg.charAt(0) != ' ') {
+				/* Can it even get to this? */
 				
-				if(msg.length() > 0 && msg.charAt(0) != ' ') {
-					/* Can it even get to this? */
-					
-					continue COMMANDS;
+				continue COMMANDS;
+			}
+			
+			/* Only verified once the trigger matches since most commands will not */
+			if(!command.verify(event, this)) {
+				continue COMMANDS;
+			}
+			
+			long argumentsStarted = System.nanoTime();
+			
+			int argumentCount = 0;
+			
+			Object[] arguments = new Object[command.getArguments().length];
+			
+			IArgument<?>[] args = command.getArguments();
+			
+			/* Index of the argument to the pending verification, only created if the command has any asynchronous arguments */
+			Map<Integer, CompletableFuture<VerifiedArgument<?>>> asyncArguments = null;
+			
+			ARGUMENTS:
+			for(int i = 0; i < arguments.length; i++) {
+				if(msg.length() > 0) {
+					if(msg.startsWith(" ")) {
+						msg = msg.substring(1);
+					}else{
+						/* When does it get here? */
+						
+						continue COMMANDS;
+					}
 				}
 				
-				int argumentCount = 0;
-				
-				Object[] arguments = new Object[command.getArguments().length];
-				
-				IArgument<?>[] args = command.getArguments();
+				IArgument<?> argument = args[i];
 				
-				ARGUMENTS:
-				for(int i = 0; i < arguments.length; i++) {
-					if(msg.length() > 0) {
-						if(msg.startsWith(" ")) {
-							msg = msg.substring(1);
-						}else{
-							/* When does it get here? */
-							
-							continue COMMANDS;
-						}
+				String content = null;
+				if(argument.isEndless()) {
+					if(msg.length() == 0 && !argument.acceptEmpty()) {
+						possibleCommands.add((command instanceof DummyCommand) ? command.getParent() : command);
+						
+						continue COMMANDS;
 					}
 					
-					IArgument<?> argument = args[i];
-					
-					VerifiedArgument<?> verified;
-					if(argument.isEndless()) {
-						if(msg.length() == 0 && !argument.acceptEmpty()) {
-							possibleCommands.add((command instanceof DummyCommand) ? command.getParent() : command);
-							
-							continue COMMANDS;
-						}
-						
-						verified = argument.verify(event, msg);
-						msg = "";
-					}else{
-						String content = null;
-						if(msg.length() > 0) {
-							/* Is this even worth having? Not quite sure if I like the implementation */
-							if(argument instanceof IEndlessArgument) {
-								if(msg.charAt(0) == '[') {
-									int endBracket = 0;
-									while((endBracket = msg.indexOf(']', endBracket + 1)) != -1 && msg.charAt(endBracket - 1) == '\\');
+					content = msg;
+					msg = "";
+				}else{
+					if(msg.length() > 0) {
+						/* Is this even worth having? Not quite sure if I like the implementation */
+						if(argument instanceof IEndlessArgument) {
+							if(msg.charAt(0) == '[') {
+								int endBracket = 0;
+								while((endBracket = msg.indexOf(']', endBracket + 1)) != -1 && msg.charAt(endBracket - 1) == '\\');
+								
+								if(endBracket != -1) {
+									content = msg.substring(1, endBracket);
 									
-									if(endBracket != -1) {
-										content = msg.substring(1, endBracket);
-										
-										msg = msg.substring(content.length() + 2);
-										
-										content = content.replace("\\[", "[").replace("\\]", "]");
-									}
-								}
-							}else if(argument.acceptQuote()) {
-								if(msg.charAt(0) == '"') {
-									int nextQuote = 0;
-									while((nextQuote = msg.indexOf('"', nextQuote + 1)) != -1 && msg.charAt(nextQuote - 1) == '\\');
+									msg = msg.substring(content.length() + 2);
 									
-									if(nextQuote != -1) {
-										content = msg.substring(1, nextQuote);
-										
-										msg = msg.substring(content.length() + 2);
-										
-										content = content.replace("\\\"", "\"");
-									}
+									content = content.replace("\\[", "[").replace("\\]", "]");
 								}
 							}
-							
-							if(content == null) {
-								content = msg.substring(0, (msg.contains(" ")) ? msg.indexOf(" ") : msg.length());
-								msg = msg.substring(content.length());
+						}else if(argument.acceptQuote()) {
+							if(msg.charAt(0) == '"') {
+								int nextQuote = 0;
+								while((nextQuote = msg.indexOf('"', nextQuote + 1)) != -1 && msg.charAt(nextQuote - 1) == '\\');
+								
+								if(nextQuote != -1) {
+									content = msg.substring(1, nextQuote);
+									
+									msg = msg.substring(content.length() + 2);
+									
+									content = content.replace("\\\"", "\"");
+								}
 							}
-						}else{
-							content = "";
 						}
 						
-						if(content.length() == 0 && !argument.acceptEmpty()) {
-							possibleCommands.add((command instanceof DummyCommand) ? command.getParent() : command);
-							
-							continue COMMANDS;
+						if(content == null) {
+							content = msg.substring(0, (msg.contains(" ")) ? msg.indexOf(" ") : msg.length());
+							msg = msg.substring(content.length());
 						}
+					}else{
+						content = "";
+					}
+					
+					if(content.length() == 0 && !argument.acceptEmpty()) {
+						possibleCommands.add((command instanceof DummyCommand) ? command.getParent() : command);
 						
-						verified = argument.verify(event, content);
+						continue COMMANDS;
+					}
+				}
+				
+				/* 
+				 * The result of an asynchronous argument is not known yet, it is therefore treated as valid for now
+				 * and checked once all the asynchronous arguments of this candidate have completed
+				 */
+				if(argument.isAsync()) {
+					if(asyncArguments == null) {
+						asyncArguments = new HashMap<>();
 					}
 					
-					switch(verified.getVerifiedType()) {
-						case INVALID: {
-							String reason = argument.getError();
+					asyncArguments.put(argumentCount++, this.verifyAsync(event, argument, content));
+					
+					continue ARGUMENTS;
+				}
+				
+				VerifiedArgument<?> verified = argument.verify(event, content);
+				
+				switch(verified.getVerifiedType()) {
+					case INVALID: {
+						String reason = argument.getError();
+						if(reason == null) {
+							reason = verified.getError();
 							if(reason == null) {
-								reason = verified.getError();
-								if(reason == null) {
-									reason = "is invalid";
-								}
+								reason = "is invalid";
 							}
+						}
+						
+						possibleCommands.add((command instanceof DummyCommand) ? command.getParent() : command);
+						
+						continue COMMANDS;
+					}
+					case VALID: {
+						arguments[argumentCount++] = verified.getObject();
+						
+						break;
+					}
+					case VALID_END_NOW: {
+						arguments[argumentCount++] = verified.getObject();
+						
+						break ARGUMENTS;
+					}
+				}
+			}
+			
+			/* There is more content than the arguments handled */
+			if(msg.length() > 0) {
+				continue COMMANDS;
+			}
+			
+			/* Not the correct amount of arguments for the command */
+			if(command.getArguments().length != argumentCount) {
+				continue COMMANDS;
+			}
+			
+			long argumentsFinished = System.nanoTime();
+			
+			CommandEvent commandEvent = new CommandEvent(event, this, prefix, cmd, pair.getLeft());
+			
+			if(asyncArguments != null) {
+				Map<Integer, CompletableFuture<VerifiedArgument<?>>> pending = asyncArguments;
+				
+				int next = c + 1;
+				
+				/* Continued on the command executor so that neither the gateway thread nor the thread completing the request is blocked */
+				CompletableFuture.allOf(pending.values().toArray(new CompletableFuture<?>[0])).whenCompleteAsync((ignored, throwable) -> {
+					try {
+						for(Entry<Integer, CompletableFuture<VerifiedArgument<?>>> entry : pending.entrySet()) {
+							VerifiedArgument<?> verified = entry.getValue().join();
+						
+							if(verified.getVerifiedType().equals(VerifiedType.INVALID)) {
+								possibleCommands.add((command instanceof DummyCommand) ? command.getParent() : command);
 							
-							possibleCommands.add((command instanceof DummyCommand) ? command.getParent() : command);
+								this.handleCommands(event, prefix, message, commands, next, possibleCommands, commandStarted);
 							
-							continue COMMANDS;
-						}
-						case VALID: {
-							arguments[argumentCount++] = verified.getObject();
+								return;
+							}
 							
-							break;
-						}
-						case VALID_END_NOW: {
-							arguments[argumentCount++] = verified.getObject();
+							/* 
+							 * The arguments after it have already been parsed so it can not end the parsing, 
+							 * the same as when it is verified synchronously the command does not match unless it is the last argument
+							 */
+							if(verified.getVerifiedType().equals(VerifiedType.VALID_END_NOW) && entry.getKey() != arguments.length - 1) {
+								this.handleCommands(event, prefix, message, commands, next, possibleCommands, commandStarted);
+								
+								return;
+							}
 							
-							break ARGUMENTS;
+							arguments[entry.getKey()] = verified.getObject();
 						}
+						
+						this.executeCommand(command, event, commandEvent, commandStarted, argumentsStarted, System.nanoTime(), arguments);
+					}finally{
+						this.clearAuthorPermissions();
 					}
-				}
-				
-				/* There is more content than the arguments handled */
-				if(msg.length() > 0) {
-					continue COMMANDS;
-				}
-				
-				/* Not the correct amount of arguments for the command */
-				if(command.getArguments().length != argumentCount) {
-					continue COMMANDS;
-				}
-				
-				CommandEvent commandEvent = new CommandEvent(event, this, prefix, cmd, pair.getLeft());
-				if(command.isExecuteAsync()) {
-					this.commandExecutor.submit(() -> {
-						this.executeCommand(command, event, commandEvent, commandStarted, arguments);
-					});
-				}else{
-					this.executeCommand(command, event, commandEvent, commandStarted, arguments);
-				}
+				}, this.commandExecutor);
 				
 				return;
 			}
 			
-			if(this.helpEnabled && possibleCommands.size() > 0) {
-				if(event.getChannelType().isGuild()) {
-					Member bot = event.getGuild().getSelfMember();
-					
-					if(!bot.hasPermission(Permission.MESSAGE_WRITE)) {
-						event.getAuthor().openPrivateChannel().queue(channel -> {
-							channel.sendMessage("Missing permission **" + Permission.MESSAGE_WRITE.getName() + "** in " + event.getChannel().getName() + ", " + event.getGuild().getName()).queue();
-						});
-						
-						return;
-					}else if(!bot.hasPermission(Permission.MESSAGE_EMBED_LINKS)) {
-						event.getChannel().sendMessage("Missing permission **" + Permission.MESSAGE_EMBED_LINKS.getName() + "** in " + event.getChannel().getName() + ", " + event.getGuild().getName()).queue();
-						
-						return;
+			if(command.isExecuteAsync()) {
+				this.commandExecutor.submit(() -> {
+					try {
+						this.executeCommand(command, event, commandEvent, commandStarted, argumentsStarted, argumentsFinished, arguments);
+					}finally{
+						this.clearAuthorPermissions();
 					}
+				});
+			}else{
+				this.executeCommand(command, event, commandEvent, commandStarted, argumentsStarted, argumentsFinished, arguments);
+			}
+			
+			return;
+		}
+		
+		if(this.helpEnabled && possibleCommands.size() > 0) {
+			if(event.getChannelType().isGuild()) {
+				if(!this.permissionCache.hasPermissions(event.getTextChannel(), Permission.MESSAGE_WRITE.getRawValue())) {
+					event.getAuthor().openPrivateChannel().queue(channel -> {
+						channel.sendMessage("Missing permission **" + Permission.MESSAGE_WRITE.getName() + "** in " + event.getChannel().getName() + ", " + event.getGuild().getName()).queue();
+					});
+					
+					return;
+				}else if(!this.permissionCache.hasPermissions(event.getTextChannel(), Permission.MESSAGE_EMBED_LINKS.getRawValue())) {
+					event.getChannel().sendMessage("Missing permission **" + Permission.MESSAGE_EMBED_LINKS.getName() + "** in " + event.getChannel().getName() + ", " + event.getGuild().getName()).queue();
+					
+					return;
 				}
-				
-				/* The alias for the CommandEvent is just everything after the prefix since there is no way to do it other than having a list of CommandEvent or aliases */
-				event.getChannel().sendMessage(this.getHelp(event, new CommandEvent(event, this, prefix, message, null), new ArrayList<>(possibleCommands)).build()).queue();
 			}
+			
+			this.metrics.recordHelp();
+			
+			/* The alias for the CommandEvent is just everything after the prefix since there is no way to do it other than having a list of CommandEvent or aliases */
+			event.getChannel().sendMessage(this.getHelp(event, new CommandEvent(event, this, prefix, message, null), new ArrayList<>(possibleCommands)).build()).queue();
+		}
+	}
+	
+	/**
+	 * @return a future which is always completed normally, with an invalid argument if the verification failed or timed out
+	 */
+	private CompletableFuture<VerifiedArgument<?>> verifyAsync(MessageReceivedEvent event, IArgument<?> argument, String content) {
+		CompletableFuture<VerifiedArgument<?>> future = new CompletableFuture<>();
+		
+		try {
+			argument.verifyAsync(event, content).whenComplete((verified, throwable) -> {
+				if(throwable == null && verified != null) {
+					future.complete(verified);
+				}else{
+					future.complete(new VerifiedArgument<Object>(null));
+				}
+			});
+		}catch(Exception e) {
+			future.complete(new VerifiedArgument<Object>(null));
+		}
+		
+		long timeout = argument.getTimeout();
+		if(timeout > 0 && !future.isDone()) {
+			ScheduledFuture<?> timeoutCall = CommandListener.TIMEOUT_EXECUTOR.schedule(() -> {
+				future.complete(new VerifiedArgument<Object>("timed out"));
+			}, timeout, TimeUnit.MILLISECONDS);
+			
+			future.whenComplete((verified, throwable) -> timeoutCall.cancel(false));
 		}
+		
+		return future;
 	}
 	
 	private boolean checkPermissions(MessageReceivedEvent event, CommandEvent commandEvent, ICommand command) {
 		if(event.getChannelType().isGuild()) {
-			Member bot = event.getGuild().getMember(event.getJDA().getSelfUser());
+			long permissionsNeeded = this.genericPermissionsRaw | command.getBotDiscordPermissionsNeededRaw();
 			
-			long permissionsNeeded = Permission.getRaw(this.genericPermissions) | Permission.getRaw(command.getBotDiscordPermissionsNeeded());
-			
-			StringBuilder missingPermissions = new StringBuilder();
-			for(Permission permission : Permission.getPermissions(permissionsNeeded)) {
-				if(!bot.hasPermission(event.getTextChannel(), permission)) {
+			long missing = this.permissionCache.getMissingPermissions(event.getTextChannel(), permissionsNeeded);
+			if(missing != 0) {
+				List<Permission> permissions = Permission.getPermissions(missing);
+				
+				StringBuilder missingPermissions = new StringBuilder();
+				for(Permission permission : permissions) {
 					missingPermissions.append(permission.getName() + "\n");
 				}
-			}
-			
-			if(missingPermissions.length() > 0) {
+				
 				StringBuilder message = new StringBuilder()
-					.append("Missing permission" + (missingPermissions.length() > 1 ? "s" : "") + " to execute **")
+					.append("Missing permission" + (permissions.size() > 1 ? "s" : "") + " to execute **")
 					.append(commandEvent.getCommandTrigger()).append("** in ")
 					.append(event.getChannel().getName())
 					.append(", ")
@@ -630,15 +1049,13 @@ public class CommandListener implements EventListener {
 					.append(missingPermissions)
 					.append("```");
 				
-				MessageChannel channel;
-				if(!bot.hasPermission(event.getTextChannel(), Permission.MESSAGE_WRITE)) {
-					channel = event.getAuthor().openPrivateChannel().complete();
+				/* Opening the private channel is not waited for since this is on the thread which received the message */
+				if(!this.permissionCache.hasPermissions(event.getTextChannel(), Permission.MESSAGE_WRITE.getRawValue())) {
+					event.getAuthor().openPrivateChannel().queue(channel -> channel.sendMessage(message).queue());
 				}else{
-					channel = event.getChannel();
+					event.getChannel().sendMessage(message).queue();
 				}
 				
-				channel.sendMessage(message).queue();
-				
 				return false;
 			}
 		}
@@ -646,13 +1063,28 @@ public class CommandListener implements EventListener {
 		return true;
 	}
 	
+	/**
+	 * @param commandStarted when the command started being resolved, after the prefix had been found
+	 * @param argumentsStarted when the arguments of the command started being parsed
+	 * @param argumentsFinished when the arguments of the command had all been verified
+	 */
 	@Deprecated
-	private void executeCommand(ICommand command, MessageReceivedEvent event, CommandEvent commandEvent, long timeStarted, Object... arguments) {
-		if(this.checkPermissions(event, commandEvent, command)) {
+	private void executeCommand(ICommand command, MessageReceivedEvent event, CommandEvent commandEvent, long commandStarted, long argumentsStarted, long argumentsFinished, Object... arguments) {
+		this.metrics.record(command, CommandMetrics.Phase.RESOLVE, argumentsStarted - commandStarted);
+		this.metrics.record(command, CommandMetrics.Phase.ARGUMENTS, argumentsFinished - argumentsStarted);
+		
+		long permissionsStarted = System.nanoTime();
+		boolean permissions = this.checkPermissions(event, commandEvent, command);
+		
+		this.metrics.record(command, CommandMetrics.Phase.PERMISSIONS, System.nanoTime() - permissionsStarted);
+		
+		if(permissions) {
 			try {
 				/* Allow for a custom cooldown implementation? */
 				/* Simple cooldown feature, not sure how scalable it is */
 				if(command.getCooldownDuration() > 0) {
+					long cooldownStarted = System.nanoTime();
+					
 					/* Should a new manager be used for this or not? */
 					long remaining = CooldownManager.getTimeRemaining(command, event.getAuthor().getIdLong());
 					
@@ -660,12 +1092,17 @@ public class CommandListener implements EventListener {
 						/* Add the cooldown before the command has executed so that in case the command has a long execution time it will not get there */
 						CooldownManager.addCooldown(command, event.getAuthor().getIdLong());
 						
-						command.execute(event, commandEvent, arguments);
+						this.metrics.record(command, CommandMetrics.Phase.COOLDOWN, System.nanoTime() - cooldownStarted);
+						
+						this.execute(command, event, commandEvent, arguments);
 					}else{
+						this.metrics.record(command, CommandMetrics.Phase.COOLDOWN, System.nanoTime() - cooldownStarted);
+						this.metrics.recordCooldown(command);
+						
 						event.getChannel().sendMessage("This command has a cooldown, please try again in " + ((double) remaining/1000) + " seconds").queue();
 					}
 				}else{
-					command.execute(event, commandEvent, arguments);
+					this.execute(command, event, commandEvent, arguments);
 				}
 				
 				for(CommandEventListener listener : this.commandEventListeners) {
@@ -677,14 +1114,18 @@ public class CommandListener implements EventListener {
 					}
 				}
 			}catch(Exception e) {
+				this.metrics.recordFailure(command);
+				
 				if(command.getCooldownDuration() > 0) {
 					/* If the command execution fails then no cooldown should be added therefore this */
 					CooldownManager.removeCooldown(command, event.getAuthor().getIdLong());
 				}
 				
 				if(e instanceof InsufficientPermissionException) {
+					this.metrics.recordPermissionDenied(command);
+					
 					System.out.println("Attempted to execute command (" + commandEvent.getCommandTrigger() + ") with arguments " + Arrays.deepToString(arguments) + 
-						", though it failed due to missing permissions, time elapsed " + (System.nanoTime() - timeStarted) + 
+						", though it failed due to missing permissions, time elapsed " + (System.nanoTime() - commandStarted) + 
 						", error message (" + e.getMessage() + ")");
 					
 					/* Should we filter out the missing permission(s) from the exception and get its readable format and send it back to the user? */
@@ -702,21 +1143,27 @@ public class CommandListener implements EventListener {
 					}
 				}
 				
-				/* Should this still be thrown even if it sends to the listener? */
-				try {
-					@Deprecated /* This doesn't always work, look in to it */
-					Exception exception = e.getClass().getConstructor(String.class).newInstance("Attempted to execute command (" + commandEvent.getCommandTrigger() + ") with the arguments " +
-						Arrays.deepToString(arguments) + " but it failed" + 
-						((e.getMessage() != null) ? " with the message \"" + e.getMessage() + "\""  : ""));
-					
-					exception.setStackTrace(e.getStackTrace());
-					exception.printStackTrace();
-				}catch(Exception e2) {
-					e2.printStackTrace();
-				}
+				/* Logged even when there are listeners so that a failing command is never silently ignored */
+				System.err.println("Attempted to execute command (" + commandEvent.getCommandTrigger() + ") with the arguments " + Arrays.deepToString(arguments) + " but it failed");
+				
+				e.printStackTrace();
 			}
-			
-			System.out.println("Executed command (" + commandEvent.getCommandTrigger() + ") with the arguments " + Arrays.deepToString(arguments) + ", time elapsed " + (System.nanoTime() - timeStarted));
+		}else{
+			this.metrics.recordMissingPermissions(command);
 		}
+		
+		this.metrics.record(command, CommandMetrics.Phase.TOTAL, System.nanoTime() - commandStarted);
+	}
+	
+	private void execute(ICommand command, MessageReceivedEvent event, CommandEvent commandEvent, Object... arguments) throws Exception {
+		long executeStarted = System.nanoTime();
+		
+		try {
+			command.execute(event, commandEvent, arguments);
+		}finally{
+			this.metrics.record(command, CommandMetrics.Phase.EXECUTE, System.nanoTime() - executeStarted);
+		}
+		
+		this.metrics.recordSuccess(command);
 	}
 }
\ No newline at end of file
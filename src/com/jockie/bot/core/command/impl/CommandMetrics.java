@@ -0,0 +1,299 @@
+package com.jockie.bot.core.command.impl;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.jockie.bot.core.command.ICommand;
+import com.jockie.bot.core.utility.Histogram;
+
+/**
+ * Timings and counters of the commands handled by a {@link CommandListener}, all timings are in nanoseconds, 
+ * see {@link CommandListener#getMetrics()}
+ */
+public class CommandMetrics {
+	
+	public static enum Phase {
+		/** Finding the prefix of a message, this is recorded for every message which was not rejected before it, see {@link Gate} */
+		PREFIX,
+		/** Finding the command which matches the message, including checking the commands which did not */
+		RESOLVE,
+		/** Parsing and verifying the arguments of the command, including waiting for asynchronous arguments */
+		ARGUMENTS,
+		/** Checking the permissions of the bot */
+		PERMISSIONS,
+		/** Checking and adding the cooldown */
+		COOLDOWN,
+		/** Executing the command */
+		EXECUTE,
+		/** Everything from finding the command to it having been executed, including any time spent waiting on the command executor */
+		TOTAL;
+	}
+	
+	/**
+	 * The checks which reject the messages that can not be commands before any string work is done
+	 */
+	public static enum Gate {
+		/** Sent by the bot itself */
+		SELF,
+		/** Sent by a bot while none of the commands can be triggered by bots */
+		BOT,
+		/** Sent in a private channel while none of the commands can be triggered in private channels */
+		PRIVATE,
+		/** Did not start with a prefix */
+		PREFIX;
+	}
+	
+	public static class Statistics {
+		
+		/* Created when the first value is recorded, most commands never go through some of the phases */
+		private final AtomicReferenceArray<Histogram> histograms = new AtomicReferenceArray<>(Phase.values().length);
+		
+		private final LongAdder successes = new LongAdder();
+		private final LongAdder failures = new LongAdder();
+		private final LongAdder cooldowns = new LongAdder();
+		private final LongAdder missingPermissions = new LongAdder();
+		private final LongAdder permissionsDenied = new LongAdder();
+		
+		private Statistics() {}
+		
+		private Statistics(Statistics statistics) {
+			for(int i = 0; i < this.histograms.length(); i++) {
+				Histogram histogram = statistics.histograms.get(i);
+				if(histogram != null) {
+					this.histograms.set(i, histogram.copy());
+				}
+			}
+			
+			this.successes.add(statistics.successes.sum());
+			this.failures.add(statistics.failures.sum());
+			this.cooldowns.add(statistics.cooldowns.sum());
+			this.missingPermissions.add(statistics.missingPermissions.sum());
+			this.permissionsDenied.add(statistics.permissionsDenied.sum());
+		}
+		
+		private Histogram getOrCreateHistogram(Phase phase) {
+			Histogram histogram = this.histograms.get(phase.ordinal());
+			if(histogram == null) {
+				this.histograms.compareAndSet(phase.ordinal(), null, new Histogram());
+				
+				histogram = this.histograms.get(phase.ordinal());
+			}
+			
+			return histogram;
+		}
+		
+		/**
+		 * @return the timings of the phase, this is empty if nothing has been recorded for it
+		 */
+		public Histogram getHistogram(Phase phase) {
+			Histogram histogram = this.histograms.get(phase.ordinal());
+			
+			return histogram != null ? histogram : new Histogram();
+		}
+		
+		/**
+		 * @return the amount of times the command was executed without throwing an exception
+		 */
+		public long getSuccesses() {
+			return this.successes.sum();
+		}
+		
+		/**
+		 * @return the amount of times the command threw an exception
+		 */
+		public long getFailures() {
+			return this.failures.sum();
+		}
+		
+		/**
+		 * @return the amount of times the command was not executed because it was on cooldown
+		 */
+		public long getCooldowns() {
+			return this.cooldowns.sum();
+		}
+		
+		/**
+		 * @return the amount of times the command was not executed because the bot was missing permissions
+		 */
+		public long getMissingPermissions() {
+			return this.missingPermissions.sum();
+		}
+		
+		/**
+		 * @return the amount of times the command failed because the bot was missing permissions the command did not require, 
+		 * these are also counted as failures
+		 */
+		public long getPermissionsDenied() {
+			return this.permissionsDenied.sum();
+		}
+		
+		public String toString() {
+			return "Statistics{successes=" + this.getSuccesses() + ", failures=" + this.getFailures()
+				+ ", cooldowns=" + this.getCooldowns() + ", missingPermissions=" + this.getMissingPermissions()
+				+ ", permissionsDenied=" + this.getPermissionsDenied()
+				+ ", total=" + this.getHistogram(Phase.TOTAL) + "}";
+		}
+	}
+	
+	private final Statistics total;
+	
+	private final Map<ICommand, Statistics> commands;
+	
+	private final LongAdder messages = new LongAdder();
+	private final LongAdder helps = new LongAdder();
+	
+	private final LongAdder[] rejected = new LongAdder[Gate.values().length];
+	
+	CommandMetrics() {
+		this.total = new Statistics();
+		this.commands = new ConcurrentHashMap<>();
+		
+		for(int i = 0; i < this.rejected.length; i++) {
+			this.rejected[i] = new LongAdder();
+		}
+	}
+	
+	private CommandMetrics(CommandMetrics metrics) {
+		this.total = new Statistics(metrics.total);
+		
+		Map<ICommand, Statistics> commands = new HashMap<>();
+		for(Map.Entry<ICommand, Statistics> entry : metrics.commands.entrySet()) {
+			commands.put(entry.getKey(), new Statistics(entry.getValue()));
+		}
+		
+		this.commands = Collections.unmodifiableMap(commands);
+		
+		this.messages.add(metrics.messages.sum());
+		this.helps.add(metrics.helps.sum());
+		
+		for(int i = 0; i < this.rejected.length; i++) {
+			this.rejected[i] = new LongAdder();
+			this.rejected[i].add(metrics.rejected[i].sum());
+		}
+	}
+	
+	private Statistics getStatistics(ICommand command) {
+		return this.commands.computeIfAbsent(command, (key) -> new Statistics());
+	}
+	
+	void recordMessage() {
+		this.messages.increment();
+	}
+	
+	void recordPrefix(long prefixTime) {
+		this.total.getOrCreateHistogram(Phase.PREFIX).record(prefixTime);
+	}
+	
+	void recordRejected(Gate gate) {
+		this.rejected[gate.ordinal()].increment();
+	}
+	
+	void record(ICommand command, Phase phase, long time) {
+		this.total.getOrCreateHistogram(phase).record(time);
+		this.getStatistics(command).getOrCreateHistogram(phase).record(time);
+	}
+	
+	void recordSuccess(ICommand command) {
+		this.total.successes.increment();
+		this.getStatistics(command).successes.increment();
+	}
+	
+	void recordFailure(ICommand command) {
+		this.total.failures.increment();
+		this.getStatistics(command).failures.increment();
+	}
+	
+	void recordCooldown(ICommand command) {
+		this.total.cooldowns.increment();
+		this.getStatistics(command).cooldowns.increment();
+	}
+	
+	void recordMissingPermissions(ICommand command) {
+		this.total.missingPermissions.increment();
+		this.getStatistics(command).missingPermissions.increment();
+	}
+	
+	void recordPermissionDenied(ICommand command) {
+		this.total.permissionsDenied.increment();
+		this.getStatistics(command).permissionsDenied.increment();
+	}
+	
+	void recordHelp() {
+		this.helps.increment();
+	}
+	
+	/**
+	 * @return a copy of these metrics, which will not change as more commands are handled
+	 */
+	public CommandMetrics snapshot() {
+		return new CommandMetrics(this);
+	}
+	
+	/**
+	 * @return the statistics of all the commands combined
+	 */
+	public Statistics getTotal() {
+		return this.total;
+	}
+	
+	/**
+	 * @return the statistics of a command, null if it has not been executed
+	 */
+	public Statistics getCommand(ICommand command) {
+		return this.commands.get(command);
+	}
+	
+	public Map<ICommand, Statistics> getCommands() {
+		return Collections.unmodifiableMap(this.commands);
+	}
+	
+	/**
+	 * @return the amount of messages received
+	 */
+	public long getMessages() {
+		return this.messages.sum();
+	}
+	
+	/**
+	 * @return the amount of messages which were rejected by the gate, divide it by {@link #getMessages()} for the rate
+	 */
+	public long getRejected(Gate gate) {
+		return this.rejected[gate.ordinal()].sum();
+	}
+	
+	/**
+	 * @return the amount of messages which were rejected by any of the gates
+	 */
+	public long getRejected() {
+		long rejected = 0;
+		for(LongAdder adder : this.rejected) {
+			rejected += adder.sum();
+		}
+		
+		return rejected;
+	}
+	
+	/**
+	 * @return the amount of times the help message was sent because no command matched the given arguments
+	 */
+	public long getHelps() {
+		return this.helps.sum();
+	}
+	
+	public String toString() {
+		StringBuilder rejected = new StringBuilder();
+		for(Gate gate : Gate.values()) {
+			if(rejected.length() > 0) {
+				rejected.append(", ");
+			}
+			
+			rejected.append(gate).append("=").append(this.getRejected(gate));
+		}
+		
+		return "CommandMetrics{messages=" + this.getMessages() + ", rejected={" + rejected + "}, helps=" + this.getHelps() + ", total=" + this.total + "}";
+	}
+}
\ No newline at end of file
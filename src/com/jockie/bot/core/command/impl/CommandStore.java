@@ -3,9 +3,12 @@ package com.jockie.bot.core.command.impl;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import com.google.common.collect.ImmutableList;
 import com.jockie.bot.core.command.ICommand;
 import com.jockie.bot.core.utility.LoaderUtility;
 
@@ -17,7 +20,13 @@ public class CommandStore {
 		return new CommandStore().loadFrom(packagePath);
 	}
 	
-	private List<ICommand> commands = new ArrayList<ICommand>();
+	/* Only used when modifying the commands, to avoid a linear search for duplicates, guarded by this */
+	private Set<ICommand> commandSet = Collections.newSetFromMap(new IdentityHashMap<>());
+	
+	/* Immutable snapshot which is replaced on every change, this way the commands can be read without locking while they are being modified */
+	private volatile List<ICommand> commands = ImmutableList.of();
+	
+	private volatile long version = 0;
 	
 	public CommandStore loadFrom(String packagePath) {
 		return this.loadFrom(packagePath, true);
@@ -31,13 +40,18 @@ public class CommandStore {
 		return this;
 	}
 	
-	public CommandStore addCommands(ICommand... commands) {
+	public synchronized CommandStore addCommands(ICommand... commands) {
+		List<ICommand> added = new ArrayList<>(this.commands);
 		for(ICommand command : commands) {
-			if(!this.commands.contains(command)) {
-				this.commands.add(command);
+			if(this.commandSet.add(command)) {
+				added.add(command);
 			}
 		}
 		
+		if(added.size() != this.commands.size()) {
+			this.publish(added);
+		}
+		
 		return this;
 	}
 	
@@ -49,19 +63,31 @@ public class CommandStore {
 		return this.addCommands(category.addCommandStores(this).getCommands());
 	}
 	
-	public CommandStore removeCommands(ICommand... commands) {
+	public synchronized CommandStore removeCommands(ICommand... commands) {
+		Set<ICommand> removed = Collections.newSetFromMap(new IdentityHashMap<>());
 		for(ICommand command : commands) {
-			if(this.commands.contains(command)) {
-				this.commands.remove(command);
+			if(this.commandSet.remove(command)) {
+				removed.add(command);
+			}
+		}
+		
+		if(removed.size() > 0) {
+			List<ICommand> remaining = new ArrayList<>(this.commands.size());
+			for(ICommand command : this.commands) {
+				if(removed.contains(command)) {
+					continue;
+				}
 				
-				for(int i = 0; i < this.commands.size(); i++) {
-					if(this.commands.get(i) instanceof DummyCommand) {
-						if(this.commands.get(i).getParent().equals(command)) {
-							this.commands.remove(i--);
-						}
-					}
+				if(command instanceof DummyCommand && removed.contains(command.getParent())) {
+					this.commandSet.remove(command);
+					
+					continue;
 				}
+				
+				remaining.add(command);
 			}
+			
+			this.publish(remaining);
 		}
 		
 		return this;
@@ -75,8 +101,24 @@ public class CommandStore {
 		return this.removeCommands(category.removeCommandStores(this).getCommands());
 	}
 	
+	private void publish(List<ICommand> commands) {
+		this.commands = ImmutableList.copyOf(commands);
+		this.version++;
+	}
+	
+	/**
+	 * @return an immutable snapshot of the commands, this will not change if the store is modified
+	 */
 	public List<ICommand> getCommands() {
-		return Collections.unmodifiableList(this.commands);
+		return this.commands;
+	}
+	
+	/**
+	 * @return a number which is changed every time the commands of this store change, 
+	 * this can be used to know when anything derived from {@link #getCommands()} has to be rebuilt
+	 */
+	public long getVersion() {
+		return this.version;
 	}
 	
 	public List<ICommand> getCommandsAuthorized(MessageReceivedEvent event, CommandListener commandListener) {
@@ -119,6 +119,14 @@ public class DummyCommand implements ICommand {
 		return this.command.getBotDiscordPermissionsNeeded();
 	}
 	
+	public long getAuthorDiscordPermissionsNeededRaw() {
+		return this.command.getAuthorDiscordPermissionsNeededRaw();
+	}
+	
+	public long getBotDiscordPermissionsNeededRaw() {
+		return this.command.getBotDiscordPermissionsNeededRaw();
+	}
+	
 	public String getCommand() {
 		return this.command.getCommand();
 	}
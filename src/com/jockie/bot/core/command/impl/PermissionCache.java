@@ -0,0 +1,96 @@
+package com.jockie.bot.core.command.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.dv8tion.jda.core.Permission;
+import net.dv8tion.jda.core.entities.Guild;
+import net.dv8tion.jda.core.entities.TextChannel;
+import net.dv8tion.jda.core.events.Event;
+import net.dv8tion.jda.core.events.channel.category.GenericCategoryEvent;
+import net.dv8tion.jda.core.events.channel.text.GenericTextChannelEvent;
+import net.dv8tion.jda.core.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.core.events.guild.member.GenericGuildMemberEvent;
+import net.dv8tion.jda.core.events.guild.update.GuildUpdateOwnerEvent;
+import net.dv8tion.jda.core.events.role.GenericRoleEvent;
+
+/**
+ * The effective permissions of the bot in every text channel it has been checked in, as a raw permission value. 
+ * Computing them requires going through the roles of the bot and the overrides of the channel so they are only computed once 
+ * and then cached until an event which could change them is received, see {@link #onEvent(Event)}
+ */
+public class PermissionCache {
+	
+	/* 
+	 * By the id of the guild and then the id of the channel, invalidating a guild replaces its map 
+	 * so a computation which was started before the invalidation can not be put in to the new one
+	 */
+	private final Map<Long, Map<Long, Long>> permissions = new ConcurrentHashMap<>();
+	
+	/**
+	 * @return the raw permissions the bot has in the channel, see {@link Permission#getPermissions(long)}
+	 */
+	public long getPermissions(TextChannel channel) {
+		Map<Long, Long> permissions = this.permissions.get(channel.getGuild().getIdLong());
+		if(permissions == null) {
+			permissions = this.permissions.computeIfAbsent(channel.getGuild().getIdLong(), (key) -> new ConcurrentHashMap<>());
+		}
+		
+		Long raw = permissions.get(channel.getIdLong());
+		if(raw == null) {
+			raw = Permission.getRaw(channel.getGuild().getSelfMember().getPermissions(channel));
+			
+			permissions.put(channel.getIdLong(), raw);
+		}
+		
+		return raw;
+	}
+	
+	/**
+	 * @param permissions the raw permissions to check for, see {@link Permission#getRaw(Permission...)}
+	 * 
+	 * @return the raw permissions the bot does not have in the channel, 0 if it has all of them
+	 */
+	public long getMissingPermissions(TextChannel channel, long permissions) {
+		return permissions & ~this.getPermissions(channel);
+	}
+	
+	public boolean hasPermissions(TextChannel channel, long permissions) {
+		return this.getMissingPermissions(channel, permissions) == 0;
+	}
+	
+	/**
+	 * Removes the cached permissions of the bot in every channel of the guild
+	 */
+	public void invalidate(Guild guild) {
+		this.permissions.remove(guild.getIdLong());
+	}
+	
+	public void invalidate() {
+		this.permissions.clear();
+	}
+	
+	/**
+	 * Invalidates the guild of any event which could change the permissions of the bot, those are any role event, any text channel or category event 
+	 * (which includes permission overrides), any member event for the bot itself (which includes roles being added and removed), 
+	 * the owner of the guild changing and the bot leaving the guild
+	 */
+	public void onEvent(Event event) {
+		if(event instanceof GenericRoleEvent) {
+			this.invalidate(((GenericRoleEvent) event).getGuild());
+		}else if(event instanceof GenericTextChannelEvent) {
+			this.invalidate(((GenericTextChannelEvent) event).getGuild());
+		}else if(event instanceof GenericCategoryEvent) {
+			this.invalidate(((GenericCategoryEvent) event).getGuild());
+		}else if(event instanceof GenericGuildMemberEvent) {
+			GenericGuildMemberEvent memberEvent = (GenericGuildMemberEvent) event;
+			if(memberEvent.getUser().getIdLong() == event.getJDA().getSelfUser().getIdLong()) {
+				this.invalidate(memberEvent.getGuild());
+			}
+		}else if(event instanceof GuildUpdateOwnerEvent) {
+			this.invalidate(((GuildUpdateOwnerEvent) event).getGuild());
+		}else if(event instanceof GuildLeaveEvent) {
+			this.invalidate(((GuildLeaveEvent) event).getGuild());
+		}
+	}
+}
\ No newline at end of file
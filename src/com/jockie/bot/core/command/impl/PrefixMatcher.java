@@ -0,0 +1,103 @@
+package com.jockie.bot.core.command.impl;
+
+import java.util.Arrays;
+
+/**
+ * A trie of prefixes which finds the longest prefix a message starts with in a single pass over the message, without allocating anything.
+ * <br><br>
+ * If the bot for instance has two prefixes one being "hello" and the other being "hello there" it will recognize that the prefix is "hello there" 
+ * instead of it thinking that "hello" is the prefix and "there" being the command
+ */
+public class PrefixMatcher {
+	
+	private static final char[] NO_KEYS = {};
+	private static final Node[] NO_CHILDREN = {};
+	
+	private static class Node {
+		
+		/* Sorted so that the children can be binary searched */
+		private char[] keys = PrefixMatcher.NO_KEYS;
+		private Node[] children = PrefixMatcher.NO_CHILDREN;
+		
+		/* The prefix which ends at this node, if any */
+		private String prefix;
+		
+		private Node getChild(char key) {
+			int index = Arrays.binarySearch(this.keys, key);
+			
+			return index >= 0 ? this.children[index] : null;
+		}
+		
+		private Node getOrAddChild(char key) {
+			int index = Arrays.binarySearch(this.keys, key);
+			if(index >= 0) {
+				return this.children[index];
+			}
+			
+			index = -(index + 1);
+			
+			char[] keys = new char[this.keys.length + 1];
+			System.arraycopy(this.keys, 0, keys, 0, index);
+			System.arraycopy(this.keys, index, keys, index + 1, this.keys.length - index);
+			keys[index] = key;
+			
+			Node[] children = new Node[this.children.length + 1];
+			System.arraycopy(this.children, 0, children, 0, index);
+			System.arraycopy(this.children, index, children, index + 1, this.children.length - index);
+			children[index] = new Node();
+			
+			this.keys = keys;
+			this.children = children;
+			
+			return children[index];
+		}
+	}
+	
+	/* The nodes are only modified in the constructor, they are safely published through this final field */
+	private final Node root = new Node();
+	
+	private final String[] prefixes;
+	
+	public PrefixMatcher(String... prefixes) {
+		/* From the longest prefix to the shortest, this is only the order they are displayed in */
+		this.prefixes = prefixes.clone();
+		Arrays.sort(this.prefixes, (a, b) -> Integer.compare(b.length(), a.length()));
+		
+		for(String prefix : this.prefixes) {
+			Node node = this.root;
+			for(int i = 0; i < prefix.length(); i++) {
+				node = node.getOrAddChild(prefix.charAt(i));
+			}
+			
+			node.prefix = prefix;
+		}
+	}
+	
+	/**
+	 * @return the longest prefix the message starts with or null if it does not start with any of them
+	 */
+	public String match(String message) {
+		Node node = this.root;
+		
+		String prefix = node.prefix;
+		for(int i = 0; i < message.length(); i++) {
+			node = node.getChild(message.charAt(i));
+			if(node == null) {
+				break;
+			}
+			
+			if(node.prefix != null) {
+				prefix = node.prefix;
+			}
+		}
+		
+		return prefix;
+	}
+	
+	/**
+	 * @return a copy of the prefixes, from the longest to the shortest
+	 */
+	public String[] getPrefixes() {
+		return this.prefixes.clone();
+	}
+}
\ No newline at end of file
@@ -2,50 +2,73 @@ package com.jockie.bot.core.command.impl.command;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import com.jockie.bot.core.command.ICommand;
 import com.jockie.bot.core.command.argument.Argument;
 import com.jockie.bot.core.command.impl.CommandEvent;
 import com.jockie.bot.core.command.impl.CommandImpl;
+import com.jockie.bot.core.command.impl.CommandListener;
+import com.jockie.bot.core.command.impl.CommandStore;
 import com.jockie.bot.core.paged.impl.PagedManager;
 import com.jockie.bot.core.paged.impl.PagedResult;
 
 import net.dv8tion.jda.core.EmbedBuilder;
 import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
-import net.dv8tion.jda.core.utils.tuple.Pair;
 
 /* This will do as a temporary solution */
 public class CommandHelp extends CommandImpl {
 	
+	/* Rebuilt whenever the command stores change */
+	private volatile HelpIndex index;
+	
 	public CommandHelp() {
 		super("help");
 	}
 	
+	private HelpIndex getIndex(CommandListener commandListener) {
+		List<CommandStore> stores = commandListener.getCommandStores();
+		
+		HelpIndex index = this.index;
+		if(index == null || !index.isCurrent(stores)) {
+			index = new HelpIndex(stores);
+			
+			this.index = index;
+		}
+		
+		return index;
+	}
+	
 	public void onCommand(MessageReceivedEvent event, CommandEvent commandEvent, @Argument(name="command", nullDefault=true) String commandStr) {
-		Stream<ICommand> stream = commandEvent.getCommandListener().getCommandStores().stream()
-			.map(store -> store.getCommandsAuthorized(event, commandEvent.getCommandListener()))
-			.flatMap(List::stream)
-			.filter(command -> !command.isHidden());
+		HelpIndex index = this.getIndex(commandEvent.getCommandListener());
+		
+		/* Commands are only verified once they are needed and at most once */
+		Map<ICommand, Boolean> authorized = new IdentityHashMap<>();
+		Predicate<ICommand> isAuthorized = command -> authorized.computeIfAbsent(command, key -> key.verify(event, commandEvent.getCommandListener()));
 		
 		if(commandStr != null) {
-			List<Pair<String, ICommand>> commands = stream
-				.map(command -> CommandHelp.getSubCommands(command, ""))
-				.flatMap(List::stream)
-				.filter(pair -> pair.getLeft().toLowerCase().contains(commandStr.toLowerCase()))
-				.sorted((first, second) -> first.getLeft().compareToIgnoreCase(second.getLeft()))
-				.collect(Collectors.toList());
+			Set<ICommand> commands = Collections.newSetFromMap(new LinkedHashMap<>());
+			for(HelpIndex.Entry entry : index.search(commandStr)) {
+				if(isAuthorized.test(entry.getRoot())) {
+					commands.add(entry.getCommand());
+				}
+			}
 			
 			if(commands.size() > 0) {
 				if(commands.size() == 1) {
 					EmbedBuilder builder = new EmbedBuilder();
-					CommandHelp.setHelp(builder, commandEvent, commands.get(0).getRight());
+					CommandHelp.setHelp(builder, commandEvent, commands.iterator().next());
 					
 					event.getChannel().sendMessage(builder.build()).queue();
 				}else{
-					PagedResult<ICommand> pagedResult = new PagedResult<>(commands.stream().map(Pair::getRight).distinct().collect(Collectors.toList()), c -> c.getUsage(), e -> {
+					PagedResult<ICommand> pagedResult = new PagedResult<>(new ArrayList<>(commands), c -> c.getUsage(), e -> {
 						EmbedBuilder builder = new EmbedBuilder();
 						CommandHelp.setHelp(builder, commandEvent, e.entry);
 						
@@ -58,8 +81,8 @@ public class CommandHelp extends CommandImpl {
 				event.getChannel().sendMessage("No command found").queue();
 			}
 		}else{
-			List<ICommand> commands = stream
-				.sorted((first, second) -> first.getCommand().compareToIgnoreCase(second.getCommand()))
+			List<ICommand> commands = index.getCommands().stream()
+				.filter(isAuthorized)
 				.collect(Collectors.toList());
 			
 			PagedResult<ICommand> pagedResult = new PagedResult<>(commands, command -> {
@@ -105,28 +128,4 @@ public class CommandHelp extends CommandImpl {
 		
 		builder.setFooter("* means required. [] means multiple arguments of that type.", null);
 	}
-	
-	private static List<Pair<String, ICommand>> getSubCommands(ICommand command, String prefix) {
-		List<Pair<String, ICommand>> commands = new ArrayList<>();
-		
- 		String prefixDefault = (prefix + " " + command.getCommand()).trim();
-		
-		commands.add(Pair.of(prefixDefault, command));
-		
-		for(ICommand subCommand : command.getSubCommands()) {
-			commands.addAll(CommandHelp.getSubCommands(subCommand, prefixDefault));
-		}
-		
-		for(String alias : command.getAliases()) {
-			String aliasPrefix = (prefix + " " + alias).trim();
-			
-			commands.add(Pair.of(aliasPrefix, command));
-			
-			for(ICommand subCommand : command.getSubCommands()) {
-				commands.addAll(CommandHelp.getSubCommands(subCommand, aliasPrefix));
-			}
-		}
-		
-		return commands;
-	}
 }
\ No newline at end of file
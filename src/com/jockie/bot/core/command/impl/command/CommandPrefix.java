@@ -0,0 +1,38 @@
+package com.jockie.bot.core.command.impl.command;
+
+import java.util.Arrays;
+
+import com.jockie.bot.core.command.impl.CommandEvent;
+import com.jockie.bot.core.command.impl.CommandImpl;
+
+import net.dv8tion.jda.core.MessageBuilder;
+import net.dv8tion.jda.core.MessageBuilder.Formatting;
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+
+/**
+ * Responds with the prefixes for the context of the message. This is built in to the CommandListener and can only be triggered by mentioning the bot, 
+ * I want every bot to have this feature therefore it will be a hard coded one, arguments against it?
+ */
+public class CommandPrefix extends CommandImpl {
+	
+	public CommandPrefix() {
+		super("prefix");
+		
+		super.setAliases("prefixes");
+		super.setPrivateTriggerable(true);
+		super.setHidden(true);
+	}
+	
+	public void onCommand(MessageReceivedEvent event, CommandEvent commandEvent) {
+		String[] prefixes = commandEvent.getCommandListener().getPrefixes(event);
+		
+		String allPrefixes = Arrays.deepToString(prefixes);
+		allPrefixes = allPrefixes.substring(1, allPrefixes.length() - 1);
+		
+		event.getChannel().sendMessage(new MessageBuilder()
+			.append("My prefix")
+			.append(prefixes.length > 1 ? "es are " : " is ")
+			.append(allPrefixes, Formatting.BOLD)
+			.build()).queue();
+	}
+}
\ No newline at end of file
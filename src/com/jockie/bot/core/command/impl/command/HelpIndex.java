@@ -0,0 +1,227 @@
+package com.jockie.bot.core.command.impl.command;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.jockie.bot.core.command.ICommand;
+import com.jockie.bot.core.command.impl.CommandStore;
+
+/**
+ * Every trigger, including aliases and sub-commands, of the commands in a set of {@link CommandStore}s, sorted by the trigger 
+ * and indexed by every sequence of up to 3 characters in them so that searching for a part of a trigger only has to look at the triggers which could match.
+ * <br><br>
+ * The index is built from a snapshot of the stores, {@link #isCurrent(List)} tells if any of them has changed since
+ */
+public class HelpIndex {
+	
+	public static class Entry {
+		
+		private final String trigger;
+		private final String lowerCaseTrigger;
+		
+		private final ICommand command;
+		private final ICommand root;
+		
+		private Entry(String trigger, ICommand command, ICommand root) {
+			this.trigger = trigger;
+			this.lowerCaseTrigger = trigger.toLowerCase();
+			this.command = command;
+			this.root = root;
+		}
+		
+		public String getTrigger() {
+			return this.trigger;
+		}
+		
+		public ICommand getCommand() {
+			return this.command;
+		}
+		
+		/**
+		 * @return the command in the store which this trigger belongs to, this is the command which has to be verified for the trigger to be shown
+		 */
+		public ICommand getRoot() {
+			return this.root;
+		}
+	}
+	
+	private static final int MAX_GRAM_LENGTH = 3;
+	
+	/* A sequence of up to 3 characters packed in to a long, the length is included so that shorter sequences do not collide with longer ones */
+	private static long gram(String string, int start, int length) {
+		long gram = length;
+		for(int i = start; i < start + length; i++) {
+			gram = (gram << 16) | string.charAt(i);
+		}
+		
+		return gram;
+	}
+	
+	private final CommandStore[] stores;
+	private final long[] versions;
+	
+	/* Sorted by the trigger, ignoring case */
+	private final List<Entry> entries;
+	
+	/* The non-hidden commands of the stores, sorted by the command, ignoring case */
+	private final List<ICommand> commands;
+	
+	/* The indexes of the entries, in order, which contain each sequence of characters */
+	private final Map<Long, int[]> grams;
+	
+	public HelpIndex(List<CommandStore> stores) {
+		this.stores = stores.toArray(new CommandStore[0]);
+		this.versions = new long[this.stores.length];
+		
+		List<Entry> entries = new ArrayList<>();
+		List<ICommand> commands = new ArrayList<>();
+		for(int i = 0; i < this.stores.length; i++) {
+			/* The version has to be read before the commands so that a concurrent modification will cause it to be rebuilt next time */
+			this.versions[i] = this.stores[i].getVersion();
+			
+			for(ICommand command : this.stores[i].getCommands()) {
+				if(command.isHidden()) {
+					continue;
+				}
+				
+				commands.add(command);
+				
+				for(Entry entry : HelpIndex.getEntries(command, command, "")) {
+					entries.add(entry);
+				}
+			}
+		}
+		
+		entries.sort((first, second) -> first.trigger.compareToIgnoreCase(second.trigger));
+		commands.sort((first, second) -> first.getCommand().compareToIgnoreCase(second.getCommand()));
+		
+		Map<Long, List<Integer>> grams = new HashMap<>();
+		for(int i = 0; i < entries.size(); i++) {
+			String trigger = entries.get(i).lowerCaseTrigger;
+			
+			for(int start = 0; start < trigger.length(); start++) {
+				for(int length = 1; length <= HelpIndex.MAX_GRAM_LENGTH && start + length <= trigger.length(); length++) {
+					List<Integer> indexes = grams.computeIfAbsent(HelpIndex.gram(trigger, start, length), (key) -> new ArrayList<>());
+					
+					/* A trigger may contain the same sequence more than once */
+					if(indexes.isEmpty() || indexes.get(indexes.size() - 1) != i) {
+						indexes.add(i);
+					}
+				}
+			}
+		}
+		
+		this.grams = new HashMap<>();
+		for(Map.Entry<Long, List<Integer>> entry : grams.entrySet()) {
+			this.grams.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+		}
+		
+		this.entries = Collections.unmodifiableList(entries);
+		this.commands = Collections.unmodifiableList(commands);
+	}
+	
+	private static List<Entry> getEntries(ICommand command, ICommand root, String prefix) {
+		List<Entry> entries = new ArrayList<>();
+		
+		String prefixDefault = (prefix + " " + command.getCommand()).trim();
+		
+		entries.add(new Entry(prefixDefault, command, root));
+		
+		for(ICommand subCommand : command.getSubCommands()) {
+			entries.addAll(HelpIndex.getEntries(subCommand, root, prefixDefault));
+		}
+		
+		for(String alias : command.getAliases()) {
+			String aliasPrefix = (prefix + " " + alias).trim();
+			
+			entries.add(new Entry(aliasPrefix, command, root));
+			
+			for(ICommand subCommand : command.getSubCommands()) {
+				entries.addAll(HelpIndex.getEntries(subCommand, root, aliasPrefix));
+			}
+		}
+		
+		return entries;
+	}
+	
+	/**
+	 * @return whether or not this index was built from the same stores, which have not changed since
+	 */
+	public boolean isCurrent(List<CommandStore> stores) {
+		if(stores.size() != this.stores.length) {
+			return false;
+		}
+		
+		for(int i = 0; i < this.stores.length; i++) {
+			if(stores.get(i) != this.stores[i] || this.stores[i].getVersion() != this.versions[i]) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * @return every trigger, sorted and ignoring case
+	 */
+	public List<Entry> getEntries() {
+		return this.entries;
+	}
+	
+	/**
+	 * @return the non-hidden commands of the stores, sorted by the command and ignoring case
+	 */
+	public List<ICommand> getCommands() {
+		return this.commands;
+	}
+	
+	/**
+	 * @return the triggers which contain the query, ignoring case, sorted by the trigger
+	 */
+	public List<Entry> search(String query) {
+		String lowerCaseQuery = query.toLowerCase();
+		if(lowerCaseQuery.length() == 0) {
+			return this.entries;
+		}
+		
+		if(lowerCaseQuery.length() <= HelpIndex.MAX_GRAM_LENGTH) {
+			int[] indexes = this.grams.get(HelpIndex.gram(lowerCaseQuery, 0, lowerCaseQuery.length()));
+			if(indexes == null) {
+				return Collections.emptyList();
+			}
+			
+			List<Entry> entries = new ArrayList<>(indexes.length);
+			for(int index : indexes) {
+				entries.add(this.entries.get(index));
+			}
+			
+			return entries;
+		}
+		
+		/* Only the triggers which contain the rarest sequence of the query can contain the query */
+		int[] candidates = null;
+		for(int start = 0; start + HelpIndex.MAX_GRAM_LENGTH <= lowerCaseQuery.length(); start++) {
+			int[] indexes = this.grams.get(HelpIndex.gram(lowerCaseQuery, start, HelpIndex.MAX_GRAM_LENGTH));
+			if(indexes == null) {
+				return Collections.emptyList();
+			}
+			
+			if(candidates == null || indexes.length < candidates.length) {
+				candidates = indexes;
+			}
+		}
+		
+		List<Entry> entries = new ArrayList<>();
+		for(int index : candidates) {
+			Entry entry = this.entries.get(index);
+			if(entry.lowerCaseTrigger.contains(lowerCaseQuery)) {
+				entries.add(entry);
+			}
+		}
+		
+		return entries;
+	}
+}
\ No newline at end of file
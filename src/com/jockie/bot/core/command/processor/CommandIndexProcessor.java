@@ -0,0 +1,141 @@
+package com.jockie.bot.core.command.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import com.jockie.bot.core.utility.LoaderUtility;
+
+/**
+ * Writes an index of all the commands at compile time, {@link LoaderUtility#loadFrom(String, Class)} will use this 
+ * instead of scanning the entire class path when it is present.
+ * <br><br>
+ * This is registered as a service so it will be picked up automatically, with Gradle 4.6 and above it has to be added with 
+ * <b>annotationProcessor</b> as well
+ */
+@SupportedAnnotationTypes("*")
+public class CommandIndexProcessor extends AbstractProcessor {
+	
+	public static final String COMMAND_INTERFACE = "com.jockie.bot.core.command.ICommand";
+	
+	public static final String INDEX_PATH = LoaderUtility.INDEX_DIRECTORY + COMMAND_INTERFACE + LoaderUtility.INDEX_EXTENSION;
+	
+	private Set<String> commands = new TreeSet<>();
+	
+	private boolean existingRead = false;
+	
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+	
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+		if(round.processingOver()) {
+			this.writeIndex();
+			
+			return false;
+		}
+		
+		TypeElement commandElement = this.processingEnv.getElementUtils().getTypeElement(COMMAND_INTERFACE);
+		if(commandElement == null) {
+			return false;
+		}
+		
+		if(!this.existingRead) {
+			this.readExistingIndex();
+			
+			this.existingRead = true;
+		}
+		
+		TypeMirror commandType = this.processingEnv.getTypeUtils().erasure(commandElement.asType());
+		
+		/* Only the top level classes, the same as the class path scanning */
+		for(Element element : round.getRootElements()) {
+			if(!element.getKind().equals(ElementKind.CLASS)) {
+				continue;
+			}
+			
+			Set<Modifier> modifiers = element.getModifiers();
+			if(!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.ABSTRACT)) {
+				continue;
+			}
+			
+			if(!this.processingEnv.getTypeUtils().isAssignable(this.processingEnv.getTypeUtils().erasure(element.asType()), commandType)) {
+				continue;
+			}
+			
+			if(!CommandIndexProcessor.hasPublicConstructor((TypeElement) element)) {
+				continue;
+			}
+			
+			this.commands.add(this.processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString());
+		}
+		
+		return false;
+	}
+	
+	private static boolean hasPublicConstructor(TypeElement element) {
+		for(ExecutableElement constructor : ElementFilter.constructorsIn(element.getEnclosedElements())) {
+			if(constructor.getParameters().size() == 0 && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/* An incremental compilation will only process the changed classes, so the ones from the previous index which still exist are kept */
+	private void readExistingIndex() {
+		try {
+			FileObject resource = this.processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_PATH);
+			
+			try(BufferedReader reader = new BufferedReader(resource.openReader(true))) {
+				String line;
+				while((line = reader.readLine()) != null) {
+					line = line.trim();
+					
+					if(line.length() > 0 && this.processingEnv.getElementUtils().getTypeElement(line.replace('$', '.')) != null) {
+						this.commands.add(line);
+					}
+				}
+			}
+		}catch(IOException e) {
+			/* There is no previous index */
+		}
+	}
+	
+	private void writeIndex() {
+		if(this.commands.size() == 0) {
+			return;
+		}
+		
+		try {
+			FileObject resource = this.processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_PATH);
+			
+			try(Writer writer = resource.openWriter()) {
+				for(String command : this.commands) {
+					writer.write(command);
+					writer.write('\n');
+				}
+			}
+		}catch(IOException e) {
+			this.processingEnv.getMessager().printMessage(Kind.WARNING, "Failed to write the command index, commands will be found through class path scanning instead: " + e.getMessage());
+		}
+	}
+}
\ No newline at end of file
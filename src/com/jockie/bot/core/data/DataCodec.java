@@ -0,0 +1,34 @@
+package com.jockie.bot.core.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * The format {@link Data} is stored in
+ */
+public interface DataCodec {
+	
+	/**
+	 * @return the extension of the files written by this codec, for instance ".json"
+	 */
+	public String getExtension();
+	
+	/**
+	 * @return the amount of bytes written
+	 */
+	public long save(File file, Object object) throws IOException;
+	
+	public <T> T load(File file, Class<T> clazz) throws IOException;
+	
+	/**
+	 * Loads a file containing an array one element at a time, see {@link StreamableData}
+	 */
+	public <T> void loadElements(File file, Class<T> clazz, Consumer<T> consumer) throws IOException;
+	
+	/**
+	 * Creates a file containing either an empty array or an empty object
+	 */
+	public void createEmpty(File file, boolean array) throws IOException;
+
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.jockie.bot.core.data;
+
+import java.io.IOException;
+
+/**
+ * Where and how the {@link com.jockie.bot.core.data.impl.DataHandler DataHandler} stores data, 
+ * by default each data is stored in its own file, see {@link com.jockie.bot.core.data.impl.FileStorage FileStorage}
+ */
+public interface DataStorage {
+	
+	/**
+	 * Saves all of the data
+	 * 
+	 * @return the amount of bytes written
+	 */
+	public long save(Data<?> data) throws IOException;
+	
+	public void load(Data<?> data) throws IOException;
+	
+	/**
+	 * @return whether or not this storage replays and compacts the journals of data, 
+	 * data can only be journaled if it is stored in a storage which does, see {@link com.jockie.bot.core.data.impl.DataJournal DataJournal}
+	 */
+	public boolean isJournaled();
+	
+	/**
+	 * Makes all the changes since the last commit durable, storages which write everything immediately do not have to do anything
+	 */
+	public void commit() throws IOException;
+	
+	public void close() throws IOException;
+	
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.jockie.bot.core.data;
+
+/**
+ * Data made up of entries which each have their own key, these can be stored one at a time by a {@link DataStorage} which supports it
+ */
+public interface KeyedData<Key, Element> extends StreamableData<Element> {
+	
+	public Key getKey(Element element);
+	
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.jockie.bot.core.data;
+
+import java.io.IOException;
+
+/**
+ * A {@link DataStorage} which can write, remove and read the entries of {@link KeyedData} one at a time 
+ * instead of having to save and load all of the data
+ */
+public interface KeyedDataStorage extends DataStorage {
+	
+	/**
+	 * Writes a single entry
+	 */
+	public void saveEntry(Data<?> data, Object key, Object value) throws IOException;
+	
+	/**
+	 * Removes a single entry
+	 */
+	public void removeEntry(Data<?> data, Object key) throws IOException;
+	
+	/**
+	 * Reads a single entry
+	 * 
+	 * @return the entry or null if there is none
+	 */
+	public <T> T loadEntry(Data<?> data, Object key, Class<T> type) throws IOException;
+
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.jockie.bot.core.data;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Data which manages its own files, instead of being written and read as a whole through a {@link DataCodec}
+ * the {@link com.jockie.bot.core.data.impl.DataHandler DataHandler} lets it save and load itself
+ */
+public interface ManagedData {
+	
+	/**
+	 * @param path the path of the data without any extension, the data may use it as a prefix for its files or as a directory
+	 * 
+	 * @return the amount of bytes written
+	 */
+	public long saveData(File path) throws IOException;
+	
+	/**
+	 * @param path the path of the data without any extension, see {@link #saveData(File)}
+	 */
+	public void loadData(File path) throws IOException;
+	
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.jockie.bot.core.data;
+
+/**
+ * Data which is saved as an array and can be loaded one element at a time, 
+ * this way the entire array never has to be in memory at the same time as the loaded data
+ */
+public interface StreamableData<Element> {
+	
+	public Class<Element> getElementType();
+	
+	public void loadElement(Element element);
+	
+	/**
+	 * Called once all the elements have been loaded, this can be used to add the elements in bulk instead of one at a time
+	 */
+	public default void finishLoading() {
+	
+	}
+}
\ No newline at end of file
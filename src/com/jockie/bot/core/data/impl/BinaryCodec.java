@@ -0,0 +1,455 @@
+package com.jockie.bot.core.data.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.jockie.bot.core.data.DataCodec;
+
+/**
+ * A compact binary version of the JSON produced by Gson, numbers which fit in a long are written as zig-zag encoded varints
+ * and the keys of objects are only written the first time they are used and referred to by their index after that.
+ * Arrays at the top level are written one element at a time and can be loaded one element at a time, 
+ * since later elements refer to the keys of earlier ones they have to be read in order
+ */
+public class BinaryCodec implements DataCodec {
+	
+	private static final byte[] MAGIC = {'J', 'U', 'D'};
+	
+	private static final int VERSION = 2;
+	
+	/* Files of the first version wrote the length of each element at the top level, which was never used */
+	private static final int VERSION_RECORDS = 1;
+	
+	private static final int FLAG_DEFLATE = 1;
+	
+	/* Records are only found in files of the first version */
+	private static final int NULL = 0, TRUE = 1, FALSE = 2, LONG = 3, DOUBLE = 4, STRING = 5, ARRAY = 6, OBJECT = 7, NUMBER = 8, RECORDS = 9;
+	
+	private static class Encoder {
+		
+		private Map<String, Integer> keys = new HashMap<>();
+		
+		private void writeVarint(OutputStream out, long value) throws IOException {
+			while((value & ~0x7FL) != 0) {
+				out.write((int) ((value & 0x7F) | 0x80));
+				
+				value >>>= 7;
+			}
+			
+			out.write((int) value);
+		}
+		
+		private void writeString(OutputStream out, String value) throws IOException {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			
+			this.writeVarint(out, bytes.length);
+			
+			out.write(bytes);
+		}
+		
+		private void writeNumber(OutputStream out, Number number) throws IOException {
+			if(number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte) {
+				long value = number.longValue();
+				
+				out.write(BinaryCodec.LONG);
+				
+				this.writeVarint(out, (value << 1) ^ (value >> 63));
+			}else if(number instanceof Double || number instanceof Float) {
+				long bits = Double.doubleToRawLongBits(number.doubleValue());
+				
+				out.write(BinaryCodec.DOUBLE);
+				
+				for(int i = 0; i < 8; i++) {
+					out.write((int) (bits >>> (i * 8)));
+				}
+			}else{
+				/* BigInteger, BigDecimal and numbers which have been parsed lazily */
+				String value = number.toString();
+				
+				try {
+					this.writeNumber(out, Long.parseLong(value));
+				}catch(NumberFormatException e) {
+					out.write(BinaryCodec.NUMBER);
+					
+					this.writeString(out, value);
+				}
+			}
+		}
+		
+		public void writeValue(OutputStream out, JsonElement element) throws IOException {
+			if(element == null || element.isJsonNull()) {
+				out.write(BinaryCodec.NULL);
+			}else if(element.isJsonPrimitive()) {
+				JsonPrimitive primitive = element.getAsJsonPrimitive();
+				
+				if(primitive.isBoolean()) {
+					out.write(primitive.getAsBoolean() ? BinaryCodec.TRUE : BinaryCodec.FALSE);
+				}else if(primitive.isNumber()) {
+					this.writeNumber(out, primitive.getAsNumber());
+				}else{
+					out.write(BinaryCodec.STRING);
+					
+					this.writeString(out, primitive.getAsString());
+				}
+			}else if(element.isJsonArray()) {
+				JsonArray array = element.getAsJsonArray();
+				
+				out.write(BinaryCodec.ARRAY);
+				
+				this.writeVarint(out, array.size());
+				
+				for(JsonElement value : array) {
+					this.writeValue(out, value);
+				}
+			}else{
+				JsonObject object = element.getAsJsonObject();
+				
+				out.write(BinaryCodec.OBJECT);
+				
+				this.writeVarint(out, object.size());
+				
+				for(Map.Entry<String, JsonElement> entry : object.entrySet()) {
+					Integer index = this.keys.get(entry.getKey());
+					if(index != null) {
+						this.writeVarint(out, index);
+					}else{
+						this.writeVarint(out, 0);
+						this.writeString(out, entry.getKey());
+						
+						this.keys.put(entry.getKey(), this.keys.size() + 1);
+					}
+					
+					this.writeValue(out, entry.getValue());
+				}
+			}
+		}
+	}
+	
+	private static class Decoder {
+		
+		private InputStream in;
+		
+		private List<String> keys = new ArrayList<>();
+		
+		public Decoder(InputStream in) {
+			this.in = in;
+		}
+		
+		public int readByte() throws IOException {
+			int value = this.in.read();
+			if(value == -1) {
+				throw new EOFException();
+			}
+			
+			return value;
+		}
+		
+		public long readVarint() throws IOException {
+			long value = 0;
+			
+			for(int shift = 0; shift < 64; shift += 7) {
+				int b = this.readByte();
+				
+				value |= (long) (b & 0x7F) << shift;
+				
+				if((b & 0x80) == 0) {
+					return value;
+				}
+			}
+			
+			throw new IOException("Malformed varint");
+		}
+		
+		private String readString() throws IOException {
+			byte[] bytes = new byte[(int) this.readVarint()];
+			
+			for(int read = 0; read < bytes.length;) {
+				int length = this.in.read(bytes, read, bytes.length - read);
+				if(length == -1) {
+					throw new EOFException();
+				}
+				
+				read += length;
+			}
+			
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+		
+		public JsonElement readValue() throws IOException {
+			return this.readValue(this.readByte());
+		}
+		
+		public JsonElement readValue(int type) throws IOException {
+			switch(type) {
+				case BinaryCodec.NULL: return JsonNull.INSTANCE;
+				case BinaryCodec.TRUE: return new JsonPrimitive(true);
+				case BinaryCodec.FALSE: return new JsonPrimitive(false);
+				case BinaryCodec.LONG: {
+					long value = this.readVarint();
+					
+					return new JsonPrimitive((value >>> 1) ^ -(value & 1));
+				}
+				case BinaryCodec.DOUBLE: {
+					long bits = 0;
+					for(int i = 0; i < 8; i++) {
+						bits |= (long) this.readByte() << (i * 8);
+					}
+					
+					return new JsonPrimitive(Double.longBitsToDouble(bits));
+				}
+				case BinaryCodec.STRING: return new JsonPrimitive(this.readString());
+				case BinaryCodec.NUMBER: return new JsonPrimitive(new BigDecimal(this.readString()));
+				case BinaryCodec.ARRAY: {
+					int size = (int) this.readVarint();
+					
+					JsonArray array = new JsonArray(size);
+					for(int i = 0; i < size; i++) {
+						array.add(this.readValue());
+					}
+					
+					return array;
+				}
+				case BinaryCodec.RECORDS: {
+					int size = (int) this.readVarint();
+					
+					JsonArray array = new JsonArray(size);
+					for(int i = 0; i < size; i++) {
+						array.add(this.readRecord());
+					}
+					
+					return array;
+				}
+				case BinaryCodec.OBJECT: {
+					int size = (int) this.readVarint();
+					
+					JsonObject object = new JsonObject();
+					for(int i = 0; i < size; i++) {
+						int index = (int) this.readVarint();
+						
+						String key;
+						if(index == 0) {
+							key = this.readString();
+							
+							this.keys.add(key);
+						}else{
+							key = this.keys.get(index - 1);
+						}
+						
+						object.add(key, this.readValue());
+					}
+					
+					return object;
+				}
+				default: throw new IOException("Unknown type " + type);
+			}
+		}
+		
+		/**
+		 * Reads an element of a top level array written by the first version
+		 */
+		public JsonElement readRecord() throws IOException {
+			this.readVarint();
+			
+			return this.readValue();
+		}
+	}
+	
+	private boolean compressed;
+	
+	public BinaryCodec() {
+		this(false);
+	}
+	
+	/**
+	 * @param compressed whether or not the files should be compressed with deflate,
+	 * files are always loaded correctly regardless of this
+	 */
+	public BinaryCodec(boolean compressed) {
+		this.compressed = compressed;
+	}
+	
+	public boolean isCompressed() {
+		return this.compressed;
+	}
+	
+	public String getExtension() {
+		return ".bin";
+	}
+	
+	private void write(OutputStream out, Object object) throws IOException {
+		Encoder encoder = new Encoder();
+		
+		Object[] elements = null;
+		if(object instanceof Object[]) {
+			elements = (Object[]) object;
+		}else if(object instanceof Collection) {
+			elements = ((Collection<?>) object).toArray();
+		}
+		
+		if(elements == null) {
+			encoder.writeValue(out, DataLoader.getGson().toJsonTree(object));
+			
+			return;
+		}
+		
+		/* Written one element at a time so that the whole array never has to be converted at once */
+		out.write(BinaryCodec.ARRAY);
+		
+		encoder.writeVarint(out, elements.length);
+		
+		for(Object element : elements) {
+			encoder.writeValue(out, DataLoader.getGson().toJsonTree(element));
+		}
+	}
+	
+	public long save(File file, Object object) throws IOException {
+		return DataLoader.write(file, (stream) -> {
+			OutputStream out = new BufferedOutputStream(stream);
+			
+			out.write(BinaryCodec.MAGIC);
+			out.write(BinaryCodec.VERSION);
+			out.write(this.compressed ? BinaryCodec.FLAG_DEFLATE : 0);
+			
+			if(this.compressed) {
+				Deflater deflater = new Deflater();
+				
+				try {
+					DeflaterOutputStream deflaterStream = new DeflaterOutputStream(out, deflater, 8192);
+					
+					this.write(deflaterStream, object);
+					
+					deflaterStream.finish();
+				}finally{
+					deflater.end();
+				}
+			}else{
+				this.write(out, object);
+			}
+			
+			out.flush();
+		});
+	}
+	
+	private static interface DecoderFunction<T> {
+		
+		public T apply(Decoder decoder) throws IOException;
+	
+	}
+	
+	private <T> T read(File file, DecoderFunction<T> function) throws IOException {
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			InputStream in = new BufferedInputStream(Channels.newInputStream(channel));
+			
+			for(int i = 0; i < BinaryCodec.MAGIC.length; i++) {
+				if(in.read() != BinaryCodec.MAGIC[i]) {
+					throw new IOException(file.getPath() + " is not a binary data file");
+				}
+			}
+			
+			int version = in.read();
+			if(version != BinaryCodec.VERSION && version != BinaryCodec.VERSION_RECORDS) {
+				throw new IOException("Unsupported version " + version + " of " + file.getPath());
+			}
+			
+			int flags = in.read();
+			if((flags & BinaryCodec.FLAG_DEFLATE) != 0) {
+				Inflater inflater = new Inflater();
+				
+				try {
+					return function.apply(new Decoder(new InflaterInputStream(in, inflater, 8192)));
+				}finally{
+					inflater.end();
+				}
+			}
+			
+			return function.apply(new Decoder(in));
+		}
+	}
+	
+	public <T> T load(File file, Class<T> clazz) throws IOException {
+		if(file.length() == 0) {
+			return null;
+		}
+		
+		JsonElement element = this.read(file, Decoder::readValue);
+		
+		return DataLoader.getGson().fromJson(element, clazz);
+	}
+	
+	public <T> void loadElements(File file, Class<T> clazz, Consumer<T> consumer) throws IOException {
+		if(file.length() == 0) {
+			return;
+		}
+		
+		this.read(file, (decoder) -> {
+			int type = decoder.readByte();
+			if(type == BinaryCodec.NULL) {
+				return null;
+			}
+			
+			if(type != BinaryCodec.RECORDS && type != BinaryCodec.ARRAY) {
+				throw new IOException(file.getPath() + " does not contain an array");
+			}
+			
+			long size = decoder.readVarint();
+			for(long i = 0; i < size; i++) {
+				JsonElement element = type == BinaryCodec.RECORDS ? decoder.readRecord() : decoder.readValue();
+				
+				consumer.accept(DataLoader.getGson().fromJson(element, clazz));
+			}
+			
+			return null;
+		});
+	}
+	
+	/**
+	 * Encodes a single value, unlike in files all the keys are written in full so that it can be decoded on its own
+	 */
+	public byte[] encode(Object object) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		
+		new Encoder().writeValue(out, DataLoader.getGson().toJsonTree(object));
+		
+		return out.toByteArray();
+	}
+	
+	/**
+	 * Decodes a value encoded by {@link #encode(Object)}
+	 */
+	public <T> T decode(byte[] bytes, Class<T> clazz) throws IOException {
+		JsonElement element = new Decoder(new ByteArrayInputStream(bytes)).readValue();
+		
+		return DataLoader.getGson().fromJson(element, clazz);
+	}
+	
+	public void createEmpty(File file, boolean array) throws IOException {
+		this.save(file, array ? new Object[0] : new JsonObject());
+	}
+}
\ No newline at end of file
@@ -3,33 +3,117 @@ package com.jockie.bot.core.data.impl;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 import com.jockie.bot.core.data.Data;
+import com.jockie.bot.core.data.DataCodec;
+import com.jockie.bot.core.data.DataStorage;
+import com.jockie.bot.core.data.ManagedData;
 
 public class DataHandler {
 	
 	private static String dataPath = "./data/";
 	
-	private static List<Data<?>> data = new ArrayList<>();
+	private static DataCodec defaultCodec = new JsonCodec();
 	
-	private static String getPath(Data<?> data) {
-		String path = DataHandler.dataPath;
+	private static DataStorage defaultStorage = new FileStorage();
+	
+	private static List<Data<?>> data = new CopyOnWriteArrayList<>();
+	
+	/* Each data has its own lock so saving one does not block saving another */
+	private static Map<Data<?>, Object> locks = Collections.synchronizedMap(new WeakHashMap<>());
+	
+	private static Set<Data<?>> dirty = ConcurrentHashMap.newKeySet();
+	
+	private static DataStatistics statistics = new DataStatistics();
+	
+	private static ScheduledExecutorService scheduler;
+	private static ScheduledFuture<?> flushTask;
+	
+	private static long writeBehindInterval = 0;
+	
+	private static boolean shutdownHook = false;
+	
+	private static long memoryBudget = 0;
+	
+	/* The lazy data which is currently loaded and its estimated size */
+	private static Map<DataImpl<?, ?>, Long> loaded = new ConcurrentHashMap<>();
+	
+	private static AtomicLong memoryUsage = new AtomicLong();
+	
+	private static Object evictionLock = new Object();
+	
+	private static Object getLock(Data<?> data) {
+		return DataHandler.locks.computeIfAbsent(data, (key) -> new Object());
+	}
+	
+	static DataCodec getCodec(Data<?> data) {
+		if(data instanceof DataImpl) {
+			DataCodec codec = ((DataImpl<?, ?>) data).getCodec();
+			if(codec != null) {
+				return codec;
+			}
+		}
+		
+		return DataHandler.defaultCodec;
+	}
+	
+	static DataStorage getStorage(Data<?> data) {
+		if(data instanceof DataImpl) {
+			DataStorage storage = ((DataImpl<?, ?>) data).getStorage();
+			if(storage != null) {
+				return storage;
+			}
+		}
+		
+		return DataHandler.defaultStorage;
+	}
+	
+	static String getPath(Data<?> data) {
+		return DataHandler.getPath(data, DataHandler.getCodec(data));
+	}
+	
+	static String getPath(Data<?> data, DataCodec codec) {
+		return DataHandler.getBasePath(data) + codec.getExtension();
+	}
+	
+	/**
+	 * @return the path of the data without an extension
+	 */
+	static String getBasePath(Data<?> data) {
+		return DataHandler.dataPath + DataHandler.getFullName(data);
+	}
+	
+	/**
+	 * @return the name of the data including its path, relative to the data path
+	 */
+	static String getFullName(Data<?> data) {
+		String name = "";
 		
 		if(data.getPath() != null && data.getPath().length() > 0) {
-			path += data.getPath() + "/";
+			name += data.getPath() + "/";
 		}
 		
 		if(data.getName() != null && data.getName().length() > 0) {
-			path += data.getName();
+			name += data.getName();
 		}else{
-			path += "Undefined";
+			name += "Undefined";
 		}
 		
-		path += ".json";
-		
-		return path;
+		return name;
 	}
 	
 	public static void setDataPath(String path) {
@@ -40,48 +124,441 @@ public class DataHandler {
 		return DataHandler.dataPath;
 	}
 	
+	/**
+	 * @param codec the codec used by all data which does not have a codec of its own, by default this is {@link JsonCodec}
+	 */
+	public static void setDefaultCodec(DataCodec codec) {
+		DataHandler.defaultCodec = codec;
+	}
+	
+	public static DataCodec getDefaultCodec() {
+		return DataHandler.defaultCodec;
+	}
+	
+	/**
+	 * @param storage the storage used by all data which does not have a storage of its own, by default this is {@link FileStorage}
+	 */
+	public static void setDefaultStorage(DataStorage storage) {
+		DataHandler.defaultStorage = storage;
+	}
+	
+	public static DataStorage getDefaultStorage() {
+		return DataHandler.defaultStorage;
+	}
+	
+	/**
+	 * Commits the changes made to all the storages in use, see {@link DataStorage#commit()}
+	 */
+	public static void commit() throws IOException {
+		Set<DataStorage> storages = Collections.newSetFromMap(new IdentityHashMap<>());
+		storages.add(DataHandler.defaultStorage);
+		
+		for(Data<?> data : DataHandler.data) {
+			storages.add(DataHandler.getStorage(data));
+		}
+		
+		for(DataStorage storage : storages) {
+			storage.commit();
+		}
+	}
+	
+	/**
+	 * Enables write-behind, when enabled {@link DataImpl#save()} only marks the data as dirty and all dirty data
+	 * is written at most once per interval, no matter how many times it was changed in between. 
+	 * Any dirty data is also written when the JVM shuts down
+	 * 
+	 * @param interval the interval between each flush, if it is less than or equal to 0 write-behind is disabled 
+	 * and everything which is dirty is written immediately
+	 */
+	public static synchronized void setWriteBehind(long interval, TimeUnit unit) {
+		if(DataHandler.flushTask != null) {
+			DataHandler.flushTask.cancel(false);
+			DataHandler.flushTask = null;
+		}
+		
+		DataHandler.writeBehindInterval = Math.max(0, unit.toMillis(interval));
+		
+		if(DataHandler.writeBehindInterval > 0) {
+			if(DataHandler.scheduler == null) {
+				DataHandler.scheduler = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+					Thread thread = new Thread(runnable, "DataHandler-WriteBehind");
+					thread.setDaemon(true);
+					
+					return thread;
+				});
+			}
+			
+			if(!DataHandler.shutdownHook) {
+				Runtime.getRuntime().addShutdownHook(new Thread(DataHandler::flush, "DataHandler-Shutdown"));
+				
+				DataHandler.shutdownHook = true;
+			}
+			
+			DataHandler.flushTask = DataHandler.scheduler.scheduleWithFixedDelay(() -> {
+				if(!DataHandler.dirty.isEmpty()) {
+					DataHandler.flush();
+					
+					DataHandler.statistics.recordFlush();
+				}
+			}, DataHandler.writeBehindInterval, DataHandler.writeBehindInterval, TimeUnit.MILLISECONDS);
+		}else{
+			DataHandler.flush();
+		}
+	}
+	
+	public static boolean isWriteBehind() {
+		return DataHandler.writeBehindInterval > 0;
+	}
+	
+	/**
+	 * @return the write-behind interval in milliseconds, 0 if it is disabled
+	 */
+	public static long getWriteBehindInterval() {
+		return DataHandler.writeBehindInterval;
+	}
+	
+	/**
+	 * @param budget the amount of memory, in bytes, which lazy data can use before the least recently used lazy data is unloaded, 
+	 * dirty data is written before it is unloaded. The memory used by data is estimated from the size of its files, 
+	 * if the budget is less than or equal to 0 nothing is unloaded. See {@link DataImpl#setLazy(boolean)}
+	 */
+	public static void setMemoryBudget(long budget) {
+		DataHandler.memoryBudget = budget;
+		
+		DataHandler.evict(null);
+	}
+	
+	public static long getMemoryBudget() {
+		return DataHandler.memoryBudget;
+	}
+	
+	/**
+	 * @return the estimated amount of memory, in bytes, used by the lazy data which is currently loaded
+	 */
+	public static long getMemoryUsage() {
+		return DataHandler.memoryUsage.get();
+	}
+	
+	public static DataStatistics getStatistics() {
+		return DataHandler.statistics;
+	}
+	
+	/**
+	 * Marks the data as changed, it will be written by the next flush
+	 */
+	public static void markDirty(Data<?> data) {
+		if(!DataHandler.dirty.add(data)) {
+			DataHandler.statistics.recordCoalesced();
+		}
+	}
+	
+	public static boolean isDirty(Data<?> data) {
+		return DataHandler.dirty.contains(data);
+	}
+	
+	/**
+	 * Writes all the dirty data and commits the storages, this is done automatically when write-behind is enabled
+	 */
+	public static void flush() {
+		for(Data<?> data : DataHandler.dirty) {
+			/* Removed before it is written so changes made while it is being written will mark it as dirty again */
+			if(!DataHandler.dirty.remove(data)) {
+				continue;
+			}
+			
+			try {
+				DataHandler.save(data);
+			}catch(Exception e) {
+				DataHandler.dirty.add(data);
+				
+				DataHandler.statistics.recordFailure();
+				
+				e.printStackTrace();
+			}
+		}
+		
+		try {
+			DataHandler.commit();
+		}catch(IOException e) {
+			DataHandler.statistics.recordFailure();
+			
+			e.printStackTrace();
+		}
+	}
+	
 	public static void addData(Data<?> data) {
 		DataHandler.data.add(data);
 	}
 	
+	public static List<Data<?>> getData() {
+		return Collections.unmodifiableList(DataHandler.data);
+	}
+	
+	/**
+	 * Saves all the data, lazy data which is not loaded is skipped since it has not changed
+	 */
 	public static void saveAll() throws IOException {
 		for(Data<?> data : DataHandler.data) {
+			if(DataHandler.isLazy(data) && !((DataImpl<?, ?>) data).isLoaded()) {
+				continue;
+			}
+			
 			DataHandler.save(data);
 		}
 	}
 	
+	/**
+	 * Loads all the data in parallel, if any of them fail the first exception is thrown once the rest have been loaded. 
+	 * Lazy data is not loaded until it is accessed
+	 */
 	public static void loadAll() throws IOException {
-		for(Data<?> data : DataHandler.data) {
-			DataHandler.load(data);
+		List<IOException> exceptions = Collections.synchronizedList(new ArrayList<>());
+		
+		DataHandler.data.parallelStream().forEach((data) -> {
+			if(DataHandler.isLazy(data)) {
+				return;
+			}
+			
+			try {
+				DataHandler.load(data);
+			}catch(IOException e) {
+				exceptions.add(e);
+			}
+		});
+		
+		if(exceptions.size() > 0) {
+			IOException exception = exceptions.get(0);
+			for(int i = 1; i < exceptions.size(); i++) {
+				exception.addSuppressed(exceptions.get(i));
+			}
+			
+			throw exception;
 		}
 	}
 	
-	@SuppressWarnings("rawtypes")
-	public static synchronized void save(Data data) throws IOException {
-		DataLoader.saveObject(new File(DataHandler.getPath(data)), data.getSavableData());
+	private static boolean isLazy(Data<?> data) {
+		return data instanceof DataImpl && ((DataImpl<?, ?>) data).isLazy();
 	}
 	
-	@SuppressWarnings({"unchecked", "rawtypes"})
-	public static synchronized void load(Data data) throws IOException {
+	/**
+	 * @return the estimated amount of memory used by the data once it is loaded
+	 */
+	private static long getSize(Data<?> data) {
 		File file = new File(DataHandler.getPath(data));
-		if(file.getParentFile() != null && !file.getParentFile().exists()) {
-			file.getParentFile().mkdirs();
+		if(file.isFile()) {
+			return file.length();
+		}
+		
+		long size = 0;
+		
+		File[] files = new File(DataHandler.getBasePath(data)).listFiles();
+		if(files != null) {
+			for(File child : files) {
+				size += child.length();
+			}
+		}
+		
+		return size;
+	}
+	
+	private static void setLoaded(Data<?> data) {
+		if(!(data instanceof DataImpl)) {
+			return;
+		}
+		
+		DataImpl<?, ?> impl = (DataImpl<?, ?>) data;
+		impl.setLoaded(true);
+		
+		if(impl.isLazy()) {
+			long size = DataHandler.getSize(data);
+			
+			Long previous = DataHandler.loaded.put(impl, size);
+			DataHandler.memoryUsage.addAndGet(size - (previous != null ? previous : 0));
+		}
+	}
+	
+	private static void forget(DataImpl<?, ?> data) {
+		Long size = DataHandler.loaded.remove(data);
+		if(size != null) {
+			DataHandler.memoryUsage.addAndGet(-size);
+		}
+	}
+	
+	/**
+	 * Unloads the least recently used lazy data until the memory usage is within the budget
+	 * 
+	 * @param exclude data which should not be unloaded, such as the data which was just loaded
+	 */
+	private static void evict(DataImpl<?, ?> exclude) {
+		if(DataHandler.memoryBudget <= 0) {
+			return;
 		}
 		
-		if(!file.exists()) {
-			Object actualData = data.getSavableData();
+		synchronized(DataHandler.evictionLock) {
+			List<DataImpl<?, ?>> loaded = DataHandler.loaded.keySet().stream()
+				.filter((data) -> data != exclude)
+				.sorted((first, second) -> Long.signum(first.getLastAccess() - second.getLastAccess()))
+				.collect(Collectors.toList());
 			
-			if(actualData instanceof Object[]) {
-				DataLoader.createFileList(file);
-			}else if(actualData instanceof Collection) {
-				DataLoader.createFileList(file);
-			}else{
-				DataLoader.createFileObject(file);
+			for(DataImpl<?, ?> data : loaded) {
+				if(DataHandler.memoryUsage.get() <= DataHandler.memoryBudget) {
+					break;
+				}
+				
+				try {
+					if(DataHandler.unload(data)) {
+						DataHandler.statistics.recordEviction();
+					}else if(!data.isLoaded()) {
+						DataHandler.forget(data);
+					}
+					
+					/* Otherwise it is being accessed, the next least recently used data is unloaded instead */
+				}catch(UnsupportedOperationException e) {
+					/* This data can not be unloaded, it will not be considered again until it is loaded again */
+					DataHandler.forget(data);
+				}catch(Exception e) {
+					DataHandler.statistics.recordFailure();
+					
+					e.printStackTrace();
+					
+					break;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Unloads lazy data, it will be loaded again the next time it is accessed. If the data is dirty it is written first
+	 * 
+	 * @return whether or not the data was unloaded, data which is not lazy, not loaded or currently being accessed can not be unloaded
+	 */
+	public static boolean unload(Data<?> data) throws IOException {
+		if(!DataHandler.isLazy(data)) {
+			return false;
+		}
+		
+		DataImpl<?, ?> impl = (DataImpl<?, ?>) data;
+		
+		synchronized(DataHandler.getLock(data)) {
+			if(!impl.isLoaded()) {
+				return false;
+			}
+			
+			/* Nothing can access it from here on until it has been unloaded, waiting for it could deadlock with an access which is evicting other data */
+			if(!impl.tryLockUnload()) {
+				return false;
+			}
+			
+			try {
+				if(DataHandler.dirty.contains(data)) {
+					DataHandler.save(data);
+				}
+				
+				impl.setLoaded(false);
+				
+				try {
+					impl.unloadData();
+				}catch(RuntimeException e) {
+					impl.setLoaded(true);
+					
+					throw e;
+				}
+				
+				DataHandler.forget(impl);
+				
+				return true;
+			}finally{
+				impl.unlockUnload();
+			}
+		}
+	}
+	
+	/**
+	 * Loads lazy data the first time it is accessed, see {@link DataImpl#ensureLoaded()}
+	 */
+	static void loadLazy(DataImpl<?, ?> data) throws IOException {
+		synchronized(DataHandler.getLock(data)) {
+			if(data.isLoaded()) {
+				return;
+			}
+			
+			DataHandler.loadData(data);
+			DataHandler.setLoaded(data);
+		}
+		
+		DataHandler.evict(data);
+	}
+	
+	@SuppressWarnings("rawtypes")
+	public static void save(Data data) throws IOException {
+		synchronized(DataHandler.getLock(data)) {
+			if(DataHandler.isLazy(data) && !((DataImpl<?, ?>) data).isLoaded()) {
+				/* Otherwise the file would be replaced by only what was changed while it was unloaded */
+				DataHandler.loadData(data);
+				DataHandler.setLoaded(data);
 			}
 			
-			System.out.println(DataHandler.getPath(data) + " does not exist, creating empty file!");
+			/* Also cleared here for data which is saved directly instead of through a flush */
+			boolean dirty = DataHandler.dirty.remove(data);
+			
+			try {
+				long started = System.nanoTime();
+				
+				long bytes;
+				
+				if(data instanceof ManagedData) {
+					bytes = ((ManagedData) data).saveData(new File(DataHandler.getBasePath(data)));
+				}else{
+					bytes = DataHandler.getJournaledStorage(data).save(data);
+				}
+				
+				DataHandler.statistics.recordWrite(bytes, System.nanoTime() - started);
+				
+				if(DataHandler.isLazy(data)) {
+					/* The size it was estimated to use when it was loaded is no longer accurate */
+					DataHandler.setLoaded(data);
+				}
+			}catch(IOException | RuntimeException e) {
+				if(dirty) {
+					DataHandler.dirty.add(data);
+				}
+				
+				throw e;
+			}
+		}
+	}
+	
+	@SuppressWarnings("rawtypes")
+	public static void load(Data data) throws IOException {
+		synchronized(DataHandler.getLock(data)) {
+			DataHandler.loadData(data);
+			DataHandler.setLoaded(data);
+		}
+		
+		if(DataHandler.isLazy(data)) {
+			DataHandler.evict((DataImpl<?, ?>) data);
+		}
+	}
+	
+	@SuppressWarnings("rawtypes")
+	private static void loadData(Data data) throws IOException {
+		if(data instanceof ManagedData) {
+			((ManagedData) data).loadData(new File(DataHandler.getBasePath(data)));
+		}else{
+			DataHandler.getJournaledStorage(data).load(data);
+		}
+	}
+	
+	/**
+	 * @return the storage of the data, checking that it supports journals if the data is journaled 
+	 * since the default storage could have been changed after journaling was enabled
+	 */
+	private static DataStorage getJournaledStorage(Data<?> data) throws IOException {
+		DataStorage storage = DataHandler.getStorage(data);
+		if(data instanceof JournaledDataImpl && ((JournaledDataImpl<?, ?>) data).getJournal() != null && !storage.isJournaled()) {
+			throw new IOException(DataHandler.getFullName(data) + " is journaled but its storage does not support journals");
 		}
 		
-		data.setLoadableData(DataLoader.loadObject(file, data.getType()));
+		return storage;
 	}
 }
\ No newline at end of file
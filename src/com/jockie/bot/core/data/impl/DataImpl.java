@@ -1,8 +1,14 @@
 package com.jockie.bot.core.data.impl;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import com.jockie.bot.core.data.Data;
+import com.jockie.bot.core.data.DataCodec;
+import com.jockie.bot.core.data.DataStorage;
+import com.jockie.bot.core.data.KeyedData;
+import com.jockie.bot.core.data.KeyedDataStorage;
 
 public abstract class DataImpl<Type, ReturnType extends DataImpl<Type, ReturnType>> implements Data<Type> {
 	
@@ -10,6 +16,19 @@ public abstract class DataImpl<Type, ReturnType extends DataImpl<Type, ReturnTyp
 	
 	private String path, name;
 	
+	private DataCodec codec;
+	
+	private DataStorage storage;
+	
+	private boolean lazy = false;
+	
+	private volatile boolean loaded = false;
+	
+	private volatile long lastAccess;
+	
+	/* Held for reading while lazy data is being accessed so that it can not be unloaded in the middle of it, see DataHandler#unload */
+	private final ReentrantReadWriteLock accessLock = new ReentrantReadWriteLock();
+	
 	public DataImpl(Class<Type> clazz, String name) {
 		this.clazz = clazz;
 		this.name = name;
@@ -39,7 +58,200 @@ public abstract class DataImpl<Type, ReturnType extends DataImpl<Type, ReturnTyp
 		return this.clazz;
 	}
 	
+	/**
+	 * @param codec the codec this data should be stored with, if null the default codec of the {@link DataHandler} is used
+	 */
+	public ReturnType setCodec(DataCodec codec) {
+		this.codec = codec;
+		
+		return this.self();
+	}
+	
+	public DataCodec getCodec() {
+		return this.codec;
+	}
+	
+	/**
+	 * @param storage the storage this data should be stored in, if null the default storage of the {@link DataHandler} is used
+	 */
+	public ReturnType setStorage(DataStorage storage) {
+		this.storage = storage;
+		
+		return this.self();
+	}
+	
+	public DataStorage getStorage() {
+		return this.storage;
+	}
+	
+	/**
+	 * @return whether or not changes to the entries of this data are written to the storage one at a time, 
+	 * in which case the data does not have to be saved after changing them, see {@link KeyedDataStorage}
+	 */
+	public boolean isStoredByEntry() {
+		return this instanceof KeyedData && DataHandler.getStorage(this) instanceof KeyedDataStorage;
+	}
+	
+	/**
+	 * Writes a single entry to the storage, if it can not be written this data is marked as dirty instead. 
+	 * This can only be used if the data is stored by entry, see {@link #isStoredByEntry()}
+	 */
+	protected void saveEntry(Object key, Object value) {
+		try {
+			((KeyedDataStorage) DataHandler.getStorage(this)).saveEntry(this, key, value);
+		}catch(IOException e) {
+			e.printStackTrace();
+			
+			this.markDirty();
+		}
+	}
+	
+	/**
+	 * Removes a single entry from the storage, if it can not be removed this data is marked as dirty instead. 
+	 * This can only be used if the data is stored by entry, see {@link #isStoredByEntry()}
+	 */
+	protected void removeEntry(Object key) {
+		try {
+			((KeyedDataStorage) DataHandler.getStorage(this)).removeEntry(this, key);
+		}catch(IOException e) {
+			e.printStackTrace();
+			
+			this.markDirty();
+		}
+	}
+	
+	/**
+	 * @param lazy whether or not this data should only be loaded the first time it is accessed instead of by {@link DataHandler#loadAll()},
+	 * lazy data can also be unloaded again when the memory budget of the {@link DataHandler} is exceeded, see {@link DataHandler#setMemoryBudget(long)}
+	 */
+	public ReturnType setLazy(boolean lazy) {
+		this.lazy = lazy;
+		
+		return this.self();
+	}
+	
+	public boolean isLazy() {
+		return this.lazy;
+	}
+	
+	public boolean isLoaded() {
+		return this.loaded;
+	}
+	
+	void setLoaded(boolean loaded) {
+		this.loaded = loaded;
+	}
+	
+	/**
+	 * @return the {@link System#nanoTime()} this data was last accessed at, only tracked for lazy data
+	 */
+	long getLastAccess() {
+		return this.lastAccess;
+	}
+	
+	/**
+	 * Loads this data if it is lazy and has not been loaded yet, this does not prevent it from being unloaded again 
+	 * before it is accessed, use {@link #acquire()} instead when accessing the underlying data
+	 */
+	protected void ensureLoaded() {
+		if(!this.lazy) {
+			return;
+		}
+		
+		this.lastAccess = System.nanoTime();
+		
+		if(this.loaded) {
+			DataHandler.getStatistics().recordHit();
+			
+			return;
+		}
+		
+		DataHandler.getStatistics().recordMiss();
+		
+		try {
+			DataHandler.loadLazy(this);
+		}catch(IOException e) {
+			/* Continuing with empty data could cause it to be saved over the actual data */
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Loads this data if it is lazy and has not been loaded yet and keeps it loaded until {@link #release()} is called, 
+	 * this should be called before any access to the underlying data and be followed by a release in a finally block
+	 */
+	protected void acquire() {
+		if(!this.lazy) {
+			return;
+		}
+		
+		this.accessLock.readLock().lock();
+		try {
+			this.ensureLoaded();
+		}catch(RuntimeException e) {
+			this.accessLock.readLock().unlock();
+			
+			throw e;
+		}
+	}
+	
+	/**
+	 * Allows this data to be unloaded again, see {@link #acquire()}
+	 */
+	protected void release() {
+		/* Checked instead of whether it is lazy in case that was changed while it was being accessed */
+		if(this.accessLock.getReadHoldCount() > 0) {
+			this.accessLock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * @return whether or not the data could be locked for unloading, this fails if it is being accessed
+	 */
+	boolean tryLockUnload() {
+		return this.accessLock.writeLock().tryLock();
+	}
+	
+	void unlockUnload() {
+		this.accessLock.writeLock().unlock();
+	}
+	
+	/**
+	 * Releases the underlying data so that it can be garbage collected, this is called by the {@link DataHandler}
+	 * when evicting lazy data. Data which does not override this can not be unloaded
+	 */
+	protected void unloadData() {
+		throw new UnsupportedOperationException(this.name + " can not be unloaded");
+	}
+	
+	/**
+	 * Marks this data as changed, see {@link DataHandler#markDirty(Data)}
+	 */
+	public void markDirty() {
+		DataHandler.markDirty(this);
+	}
+	
+	/**
+	 * Marks this data as changed after it has been changed through one of its own methods, this is only needed if something other than 
+	 * an explicit {@link #save()} writes it, the next flush if write-behind is enabled or unloading it if it is lazy
+	 */
+	protected void markChanged() {
+		if(DataHandler.isWriteBehind() || this.lazy) {
+			this.markDirty();
+		}
+	}
+	
+	/**
+	 * Saves this data, if write-behind is enabled it will only be marked as dirty and written by the next flush, 
+	 * see {@link DataHandler#setWriteBehind(long, java.util.concurrent.TimeUnit)}
+	 */
 	public void save() {
+		if(DataHandler.isWriteBehind()) {
+			this.markDirty();
+			
+			return;
+		}
+		
 		try {
 			DataHandler.save(this);
 		}catch(IOException e) {
@@ -0,0 +1,279 @@
+package com.jockie.bot.core.data.impl;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntSupplier;
+
+/**
+ * An append-only log of the changes made to a {@link JournaledDataImpl}, each change is written as one line consisting of
+ * the operation followed by its value. The journal is replayed on top of the snapshot when the data is loaded
+ * and is compacted in to a new snapshot in the background once it gets too large
+ */
+public class DataJournal {
+	
+	public static final char ADD = '+';
+	public static final char REMOVE = '-';
+	
+	public static final String EXTENSION = ".journal";
+	
+	private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor((runnable) -> {
+		Thread thread = new Thread(runnable, "DataJournal-Compactor");
+		thread.setDaemon(true);
+		
+		return thread;
+	});
+	
+	private JournaledDataImpl<?, ?> data;
+	
+	private IntSupplier size;
+	
+	private FileOutputStream stream;
+	private Writer writer;
+	
+	private long records, bytes;
+	
+	private boolean sync = false;
+	
+	private long compactionSize = 16 * 1024 * 1024;
+	private double compactionRatio = 2.0D;
+	private int compactionMinimum = 1000;
+	
+	private volatile boolean compacting = false;
+	
+	/**
+	 * @param size the amount of elements currently in the data, used to decide when to compact
+	 */
+	public DataJournal(JournaledDataImpl<?, ?> data, IntSupplier size) {
+		this.data = data;
+		this.size = size;
+	}
+	
+	/**
+	 * @param sync whether or not every record should be synced to disk before returning,
+	 * this makes every change durable but is a lot slower. By default records are only flushed to the operating system
+	 */
+	public DataJournal setSync(boolean sync) {
+		this.sync = sync;
+		
+		return this;
+	}
+	
+	public boolean isSync() {
+		return this.sync;
+	}
+	
+	/**
+	 * @param size the size in bytes the journal can reach before it is compacted
+	 * @param ratio the amount of records per element in the data the journal can reach before it is compacted
+	 * @param minimum the minimum amount of records before the ratio is considered
+	 */
+	public DataJournal setCompactionThreshold(long size, double ratio, int minimum) {
+		this.compactionSize = size;
+		this.compactionRatio = ratio;
+		this.compactionMinimum = minimum;
+		
+		return this;
+	}
+	
+	public long getRecords() {
+		return this.records;
+	}
+	
+	public long getBytes() {
+		return this.bytes;
+	}
+	
+	public File getFile() {
+		return new File(DataHandler.getPath(this.data) + DataJournal.EXTENSION);
+	}
+	
+	/**
+	 * @return the journal which was rotated away for compaction but has not yet been included in a snapshot
+	 */
+	public File getOldFile() {
+		return new File(DataHandler.getPath(this.data) + DataJournal.EXTENSION + ".old");
+	}
+	
+	/**
+	 * @return the snapshot which has been written but not yet committed
+	 */
+	public File getCompactedFile() {
+		return new File(DataHandler.getPath(this.data) + ".compacted");
+	}
+	
+	private void open() throws IOException {
+		File file = this.getFile();
+		if(file.getParentFile() != null && !file.getParentFile().exists()) {
+			file.getParentFile().mkdirs();
+		}
+		
+		boolean newLine = false;
+		if(file.length() > 0) {
+			try(RandomAccessFile access = new RandomAccessFile(file, "r")) {
+				access.seek(file.length() - 1);
+				
+				/* The last record was only partially written, it will be skipped when replaying */
+				newLine = access.read() != '\n';
+			}
+		}
+		
+		this.stream = new FileOutputStream(file, true);
+		this.writer = new BufferedWriter(new OutputStreamWriter(this.stream, StandardCharsets.UTF_8));
+		
+		if(newLine) {
+			this.writer.write('\n');
+		}
+	}
+	
+	private void close() throws IOException {
+		if(this.writer != null) {
+			this.writer.close();
+			
+			this.writer = null;
+			this.stream = null;
+		}
+	}
+	
+	/**
+	 * Appends a record to the journal, the caller should hold the lock of this journal
+	 * while changing the data and appending the record so that it is not compacted in between
+	 */
+	public synchronized void append(char operation, String value) throws IOException {
+		if(this.writer == null) {
+			this.open();
+		}
+		
+		this.writer.write(operation);
+		this.writer.write(value);
+		this.writer.write('\n');
+		this.writer.flush();
+		
+		if(this.sync) {
+			this.stream.getFD().sync();
+		}
+		
+		this.records++;
+		this.bytes += value.length() + 2;
+		
+		if(!this.compacting && this.shouldCompact()) {
+			this.compacting = true;
+			
+			DataJournal.COMPACTOR.submit(() -> {
+				try {
+					DataHandler.save(this.data);
+				}catch(Exception e) {
+					e.printStackTrace();
+				}finally{
+					this.compacting = false;
+				}
+			});
+		}
+	}
+	
+	public void append(char operation, Object value) throws IOException {
+		this.append(operation, DataLoader.getGson().toJson(value));
+	}
+	
+	private boolean shouldCompact() {
+		if(this.bytes >= this.compactionSize) {
+			return true;
+		}
+		
+		return this.records >= this.compactionMinimum && this.records > this.size.getAsInt() * this.compactionRatio;
+	}
+	
+	/**
+	 * Moves the current journal out of the way so that new records go to a new one,
+	 * this has to be done while holding the lock of this journal at the same time as the snapshot is taken
+	 */
+	synchronized void rotate() throws IOException {
+		this.close();
+		
+		File file = this.getFile(), old = this.getOldFile();
+		if(file.exists()) {
+			if(old.exists()) {
+				/* A previous compaction failed, both have to be included in the next snapshot */
+				Files.write(old.toPath(), Files.readAllBytes(file.toPath()), StandardOpenOption.APPEND);
+				
+				file.delete();
+			}else{
+				Files.move(file.toPath(), old.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		
+		this.records = 0;
+		this.bytes = 0;
+	}
+	
+	/**
+	 * Replaces the snapshot with the compacted one, deleting the old journal is what commits the compaction
+	 */
+	void commit(File snapshot) throws IOException {
+		this.getOldFile().delete();
+		
+		Files.move(this.getCompactedFile().toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+	
+	/**
+	 * Finishes or discards a compaction which was interrupted, this has to be done before the snapshot is loaded
+	 */
+	void recover(File snapshot) throws IOException {
+		File compacted = this.getCompactedFile();
+		if(compacted.exists()) {
+			if(this.getOldFile().exists()) {
+				compacted.delete();
+			}else{
+				Files.move(compacted.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+	}
+	
+	/**
+	 * Applies all the records, from the old journal and then the current one, to the data
+	 */
+	synchronized void replay() throws IOException {
+		this.close();
+		
+		this.records = 0;
+		this.bytes = 0;
+		
+		this.replay(this.getOldFile());
+		this.replay(this.getFile());
+	}
+	
+	private void replay(File file) throws IOException {
+		if(!file.exists()) {
+			return;
+		}
+		
+		try(BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+			String line;
+			while((line = reader.readLine()) != null) {
+				if(line.isEmpty()) {
+					continue;
+				}
+				
+				try {
+					this.data.applyRecord(line.charAt(0), line.substring(1));
+				}catch(RuntimeException e) {
+					System.err.println("Skipping invalid record in " + file.getPath() + ": " + line);
+				}
+				
+				this.records++;
+				this.bytes += line.length() + 1;
+			}
+		}
+	}
+}
\ No newline at end of file
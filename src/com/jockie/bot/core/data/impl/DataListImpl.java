@@ -1,11 +1,24 @@
 package com.jockie.bot.core.data.impl;
 
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
-import java.util.Vector;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-public class DataListImpl<Data> extends DataImpl<Data[], DataListImpl<Data>> {
+import com.jockie.bot.core.data.StreamableData;
+
+/**
+ * A list which is backed by a {@link CopyOnWriteArrayList}, reads never lock and snapshots are cheap
+ * but every change copies the list so changes should be made in bulk where possible, see {@link #addAll(Collection)}
+ */
+public class DataListImpl<Data> extends JournaledDataImpl<Data[], DataListImpl<Data>> implements StreamableData<Data> {
+	
+	private CopyOnWriteArrayList<Data> data = new CopyOnWriteArrayList<>();
 	
-	private List<Data> data = new Vector<>();
+	/* Elements which are being loaded, they are added all at once when loading has finished */
+	private List<Data> loading = new ArrayList<>();
 	
 	public DataListImpl(Class<Data[]> clazz, String name) {
 		super(clazz, name);
@@ -15,18 +28,189 @@ public class DataListImpl<Data> extends DataImpl<Data[], DataListImpl<Data>> {
 		this(clazz, null);
 	}
 	
+	@SuppressWarnings("unchecked")
+	public Class<Data> getElementType() {
+		return (Class<Data>) this.getType().getComponentType();
+	}
+	
 	@SuppressWarnings("unchecked")
 	public Data[] getSavableData() {
-		return (Data[]) this.data.toArray();
+		/* Copied in one go from the current array of the list, nothing has to be locked */
+		return this.data.toArray((Data[]) Array.newInstance(this.getElementType(), 0));
 	}
 	
 	public void setLoadableData(Data[] types) {
-		for(Data data : types) {
+		this.data.addAll(Arrays.asList(types));
+	}
+	
+	public void loadElement(Data data) {
+		synchronized(this.loading) {
+			this.loading.add(data);
+		}
+	}
+	
+	public void finishLoading() {
+		synchronized(this.loading) {
+			this.data.addAll(this.loading);
+			
+			this.loading = new ArrayList<>();
+		}
+	}
+	
+	/**
+	 * @param journaling whether or not changes made through {@link #add(Object)} and {@link #remove(Object)} should be appended to a journal
+	 * instead of requiring the entire list to be saved, see {@link DataJournal}
+	 */
+	public DataListImpl<Data> setJournaling(boolean journaling) {
+		this.setJournal(journaling ? new DataJournal(this, this.data::size) : null);
+		
+		return this;
+	}
+	
+	@SuppressWarnings("unchecked")
+	protected void applyRecord(char operation, String value) {
+		if(operation == DataJournal.ADD) {
+			this.data.add((Data) this.parseElement(value));
+		}else if(operation == DataJournal.REMOVE) {
+			/* Elements are removed by index since they do not necessarily implement equals */
+			this.data.remove(Integer.parseInt(value));
+		}
+	}
+	
+	protected void unloadData() {
+		this.data.clear();
+	}
+	
+	public Data get(int index) {
+		this.acquire();
+		try {
+			return this.data.get(index);
+		}finally{
+			this.release();
+		}
+	}
+	
+	public int size() {
+		this.acquire();
+		try {
+			return this.data.size();
+		}finally{
+			this.release();
+		}
+	}
+	
+	public void add(Data data) {
+		this.acquire();
+		try {
+			DataJournal journal = this.getJournal();
+			if(journal != null) {
+				synchronized(journal) {
+					this.data.add(data);
+					
+					this.record(DataJournal.ADD, data);
+				}
+				
+				return;
+			}
+			
 			this.data.add(data);
+			
+			this.markChanged();
+		}finally{
+			this.release();
+		}
+	}
+	
+	/**
+	 * Adds all the elements with a single copy of the list, instead of one per element
+	 */
+	public void addAll(Collection<? extends Data> data) {
+		this.acquire();
+		try {
+			DataJournal journal = this.getJournal();
+			if(journal != null) {
+				synchronized(journal) {
+					this.data.addAll(data);
+					
+					for(Data element : data) {
+						this.record(DataJournal.ADD, element);
+					}
+				}
+				
+				return;
+			}
+			
+			this.data.addAll(data);
+			
+			this.markChanged();
+		}finally{
+			this.release();
+		}
+	}
+	
+	public Data remove(int index) {
+		this.acquire();
+		try {
+			DataJournal journal = this.getJournal();
+			if(journal != null) {
+				synchronized(journal) {
+					Data data = this.data.remove(index);
+					
+					this.record(DataJournal.REMOVE, index);
+					
+					return data;
+				}
+			}
+			
+			Data data = this.data.remove(index);
+			
+			this.markChanged();
+			
+			return data;
+		}finally{
+			this.release();
+		}
+	}
+	
+	public boolean remove(Data data) {
+		this.acquire();
+		try {
+			DataJournal journal = this.getJournal();
+			if(journal != null) {
+				/* The index can not change before it is removed since all journaled changes are made while holding the journal */
+				synchronized(journal) {
+					int index = this.data.indexOf(data);
+					if(index == -1) {
+						return false;
+					}
+					
+					this.remove(index);
+					
+					return true;
+				}
+			}
+			
+			if(this.data.remove(data)) {
+				this.markChanged();
+				
+				return true;
+			}
+			
+			return false;
+		}finally{
+			this.release();
 		}
 	}
 	
+	/**
+	 * Changes made directly to the list are not tracked, call {@link #markDirty()} after changing it.
+	 * Iterating over the list iterates over a snapshot of it, changes made while iterating are not visible
+	 * <br><br>
+	 * If the data is lazy the list is emptied when it is unloaded, the other methods keep it loaded while they are using it
+	 */
 	public List<Data> getList() {
+		this.ensureLoaded();
+		
 		return this.data;
 	}
 	
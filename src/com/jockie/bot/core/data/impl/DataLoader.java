@@ -1,66 +1,202 @@
 package com.jockie.bot.core.data.impl;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 public class DataLoader {
 	
+	public static interface StreamWriter {
+		
+		/**
+		 * @param stream an unbuffered stream, it should not be closed
+		 */
+		public void write(OutputStream stream) throws IOException;
+	
+	}
+	
 	private static Gson gson = new Gson();
 	
-	public static <T> List<T> loadList(File file, Class<T[]> clazz) throws IOException {
-		FileReader reader = new FileReader(file);
-		
-		T[] data = DataLoader.gson.fromJson(reader, clazz);
+	private static int backups = 0;
+	
+	static Gson getGson() {
+		return DataLoader.gson;
+	}
+	
+	/**
+	 * @param backups the amount of previous versions of a file to keep, 
+	 * the most recent one will be named file.1, the one before that file.2 and so on. 0 to not keep any backups, which is the default
+	 */
+	public static void setBackups(int backups) {
+		DataLoader.backups = Math.max(0, backups);
+	}
+	
+	public static int getBackups() {
+		return DataLoader.backups;
+	}
+	
+	public static File getBackup(File file, int backup) {
+		return new File(file.getPath() + "." + backup);
+	}
+	
+	private static BufferedReader newReader(File file) throws IOException {
+		return Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8);
+	}
+	
+	private static Writer newWriter(OutputStream stream) {
+		return new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+	}
+	
+	private static void rotateBackups(File file) throws IOException {
+		if(DataLoader.backups <= 0 || !file.exists()) {
+			return;
+		}
 		
-		reader.close();
+		for(int i = DataLoader.backups - 1; i > 0; i--) {
+			File backup = DataLoader.getBackup(file, i);
+			if(backup.exists()) {
+				Files.move(backup.toPath(), DataLoader.getBackup(file, i + 1).toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
 		
-		return Arrays.asList(data);
+		/* Copied rather than moved so that the file always exists, even if the new version is never written */
+		Files.copy(file.toPath(), DataLoader.getBackup(file, 1).toPath(), StandardCopyOption.REPLACE_EXISTING);
 	}
 	
-	public static <T> T loadObject(File file, Class<T> clazz) throws IOException {
-		FileReader reader = new FileReader(file);
+	/**
+	 * Writes to a temporary file in the same directory which is synced to disk and then renamed over the target file,
+	 * this way the file is never left partially written, even if the process crashes half way through
+	 * 
+	 * @return the amount of bytes written
+	 */
+	public static long write(File file, StreamWriter writer) throws IOException {
+		File directory = file.getAbsoluteFile().getParentFile();
+		if(directory != null && !directory.exists()) {
+			directory.mkdirs();
+		}
 		
-		T data = DataLoader.gson.fromJson(new FileReader(file), clazz);
+		File temporary = File.createTempFile(file.getName(), ".tmp", directory);
 		
-		reader.close();
+		try {
+			try(FileChannel channel = FileChannel.open(temporary.toPath(), StandardOpenOption.WRITE)) {
+				writer.write(Channels.newOutputStream(channel));
+				
+				channel.force(true);
+			}
+			
+			long bytes = temporary.length();
+			
+			DataLoader.rotateBackups(file);
+			
+			try {
+				Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}catch(AtomicMoveNotSupportedException e) {
+				Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			
+			/* Makes sure the rename itself is persisted, this is not supported on every platform */
+			if(directory != null) {
+				try(FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+					channel.force(true);
+				}catch(IOException e) {}
+			}
+			
+			return bytes;
+		}finally{
+			temporary.delete();
+		}
+	}
+	
+	private static long writeJson(File file, Object object, Type type) throws IOException {
+		return DataLoader.write(file, (stream) -> {
+			Writer writer = DataLoader.newWriter(stream);
+			
+			DataLoader.gson.toJson(object, type, writer);
+			
+			writer.flush();
+		});
+	}
+	
+	public static <T> List<T> loadList(File file, Class<T[]> clazz) throws IOException {
+		try(BufferedReader reader = DataLoader.newReader(file)) {
+			return Arrays.asList(DataLoader.gson.fromJson(reader, clazz));
+		}
+	}
+	
+	public static <T> T loadObject(File file, Class<T> clazz) throws IOException {
+		try(BufferedReader reader = DataLoader.newReader(file)) {
+			return DataLoader.gson.fromJson(reader, clazz);
+		}
+	}
+	
+	/**
+	 * Reads a JSON array one element at a time, passing each element to the consumer as soon as it has been read
+	 */
+	public static <T> void loadElements(File file, Class<T> clazz, Consumer<T> consumer) throws IOException {
+		if(file.length() == 0) {
+			return;
+		}
 		
-		return data;
+		try(JsonReader reader = DataLoader.gson.newJsonReader(DataLoader.newReader(file))) {
+			if(reader.peek() == JsonToken.NULL) {
+				return;
+			}
+			
+			reader.beginArray();
+			
+			while(reader.hasNext()) {
+				consumer.accept(DataLoader.gson.fromJson(reader, clazz));
+			}
+			
+			reader.endArray();
+		}
 	}
 	
-	public static <T> void saveList(File file, Collection<T> list) throws IOException {
+	public static <T> long saveList(File file, Collection<T> list) throws IOException {
 		Type type = new TypeToken<List<T>>(){}.getType();
 		
-		FileWriter writer = new FileWriter(file);
-		
-		DataLoader.gson.toJson(list, type, writer);
-		
-		writer.close();
+		return DataLoader.writeJson(file, list, type);
 	}
 	
-	public static <T> void saveObject(File file, T object) throws IOException {
+	/**
+	 * @return the amount of bytes written
+	 */
+	public static <T> long saveObject(File file, T object) throws IOException {
 		Type type = new TypeToken<T>(){}.getType();
 		
-		FileWriter writer = new FileWriter(file);
-		
-		DataLoader.gson.toJson(object, type, writer);
-		
-		writer.close();
+		return DataLoader.writeJson(file, object, type);
 	}
 	
 	public static void createFileList(File file) throws IOException {
-		DataLoader.gson.newJsonWriter(new FileWriter(file)).beginArray().endArray().close();
+		DataLoader.write(file, (stream) -> {
+			DataLoader.gson.newJsonWriter(DataLoader.newWriter(stream)).beginArray().endArray().flush();
+		});
 	}
 	
 	public static void createFileObject(File file) throws IOException {
-		DataLoader.gson.newJsonWriter(new FileWriter(file)).beginObject().endObject().close();
+		DataLoader.write(file, (stream) -> {
+			DataLoader.gson.newJsonWriter(DataLoader.newWriter(stream)).beginObject().endObject().flush();
+		});
 	}
 }
\ No newline at end of file
@@ -1,10 +1,13 @@
 package com.jockie.bot.core.data.impl;
 
+import java.lang.reflect.Array;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
-public class DataMapImpl<Key, Data> extends DataImpl<Data[], DataMapImpl<Key, Data>> {
+import com.jockie.bot.core.data.KeyedData;
+
+public class DataMapImpl<Key, Data> extends JournaledDataImpl<Data[], DataMapImpl<Key, Data>> implements KeyedData<Key, Data> {
 	
 	private Map<Key, Data> data = new ConcurrentHashMap<>();
 	
@@ -20,31 +23,131 @@ public class DataMapImpl<Key, Data> extends DataImpl<Data[], DataMapImpl<Key, Da
 		this(function, clazz, null);
 	}
 	
+	@SuppressWarnings("unchecked")
+	public Class<Data> getElementType() {
+		return (Class<Data>) this.getType().getComponentType();
+	}
+	
 	@SuppressWarnings("unchecked")
 	public Data[] getSavableData() {
-		return (Data[]) this.data.values().toArray();
+		return this.data.values().toArray((Data[]) Array.newInstance(this.getElementType(), 0));
+	}
+	
+	public Key getKey(Data data) {
+		return this.function.apply(data);
 	}
 	
 	public void setLoadableData(Data[] types) {
 		for(Data data : types) {
+			this.loadElement(data);
+		}
+	}
+	
+	public void loadElement(Data data) {
+		this.data.put(this.function.apply(data), data);
+	}
+	
+	/**
+	 * @param journaling whether or not changes made through {@link #add(Object)} and {@link #remove(Object)} should be appended to a journal
+	 * instead of requiring the entire map to be saved, see {@link DataJournal}
+	 */
+	public DataMapImpl<Key, Data> setJournaling(boolean journaling) {
+		this.setJournal(journaling ? new DataJournal(this, this.data::size) : null);
+		
+		return this;
+	}
+	
+	@SuppressWarnings("unchecked")
+	protected void applyRecord(char operation, String value) {
+		Data data = (Data) this.parseElement(value);
+		
+		if(operation == DataJournal.ADD) {
 			this.data.put(this.function.apply(data), data);
+		}else if(operation == DataJournal.REMOVE) {
+			this.data.remove(this.function.apply(data));
 		}
 	}
 	
+	protected void unloadData() {
+		this.data.clear();
+	}
+	
+	/**
+	 * Changes made directly to the map are not tracked, call {@link #markDirty()} after changing it
+	 * <br><br>
+	 * If the data is lazy the map is emptied when it is unloaded, the other methods keep it loaded while they are using it
+	 */
 	public Map<Key, Data> getMap() {
+		this.ensureLoaded();
+		
 		return this.data;
 	}
 	
 	public Data getByKey(Key key) {
-		return this.data.get(key);
+		this.acquire();
+		try {
+			return this.data.get(key);
+		}finally{
+			this.release();
+		}
 	}
 	
 	public void add(Data data) {
-		this.data.put(this.function.apply(data), data);
+		this.acquire();
+		try {
+			DataJournal journal = this.getJournal();
+			if(journal != null) {
+				synchronized(journal) {
+					this.data.put(this.function.apply(data), data);
+					
+					this.record(DataJournal.ADD, data);
+				}
+				
+				return;
+			}
+			
+			Key key = this.function.apply(data);
+			
+			this.data.put(key, data);
+			
+			if(this.isStoredByEntry()) {
+				this.saveEntry(key, data);
+			}else{
+				this.markChanged();
+			}
+		}finally{
+			this.release();
+		}
 	}
 	
 	public Data remove(Key key) {
-		return this.data.remove(key);
+		this.acquire();
+		try {
+			DataJournal journal = this.getJournal();
+			if(journal != null) {
+				synchronized(journal) {
+					Data data = this.data.remove(key);
+					if(data != null) {
+						this.record(DataJournal.REMOVE, data);
+					}
+					
+					return data;
+				}
+			}
+			
+			Data data = this.data.remove(key);
+			if(data != null) {
+				if(this.isStoredByEntry()) {
+					this.removeEntry(key);
+				}else{
+					this.markChanged();
+				}
+			}
+			
+			return data;
+		}finally{
+			this.release();
+		}
 	}
 	
 	public void removeByData(Data data) {
@@ -0,0 +1,67 @@
+package com.jockie.bot.core.data.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import com.jockie.bot.core.data.Data;
+import com.jockie.bot.core.data.DataCodec;
+
+/**
+ * Converts existing files from one codec to another, for instance from the default {@link JsonCodec} to a {@link BinaryCodec}
+ */
+public class DataMigration {
+	
+	/**
+	 * The extension added to the original files once they have been migrated, they are kept in case anything went wrong
+	 */
+	public static final String EXTENSION = ".migrated";
+	
+	/**
+	 * Converts the file of the data, stored using the codec from, to the codec the data is currently using.
+	 * This should be done before the data is loaded
+	 * 
+	 * @return whether or not there was a file to migrate
+	 */
+	public static boolean migrate(Data<?> data, DataCodec from) throws IOException {
+		DataCodec to = DataHandler.getCodec(data);
+		
+		File source = new File(DataHandler.getPath(data, from));
+		File target = new File(DataHandler.getPath(data, to));
+		
+		if(!source.exists() || source.equals(target)) {
+			return false;
+		}
+		
+		to.save(target, from.load(source, data.getType()));
+		
+		/* Journals are independent of the codec so they only have to follow the snapshot */
+		for(String extension : new String[] { DataJournal.EXTENSION, DataJournal.EXTENSION + ".old" }) {
+			File journal = new File(source.getPath() + extension);
+			if(journal.exists()) {
+				Files.move(journal.toPath(), new File(target.getPath() + extension).toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		
+		Files.move(source.toPath(), new File(source.getPath() + DataMigration.EXTENSION).toPath(), StandardCopyOption.REPLACE_EXISTING);
+		
+		return true;
+	}
+	
+	/**
+	 * Migrates all the data registered in the {@link DataHandler}, see {@link #migrate(Data, DataCodec)}
+	 * 
+	 * @return the amount of files which were migrated
+	 */
+	public static int migrateAll(DataCodec from) throws IOException {
+		int migrated = 0;
+		for(Data<?> data : DataHandler.getData()) {
+			if(DataMigration.migrate(data, from)) {
+				migrated++;
+			}
+		}
+		
+		return migrated;
+	}
+}
\ No newline at end of file
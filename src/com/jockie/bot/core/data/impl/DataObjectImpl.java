@@ -13,11 +13,21 @@ public class DataObjectImpl<Type> extends DataImpl<Type, DataObjectImpl<Type>> {
 	}
 	
 	public Type getObject() {
-		return this.object;
+		this.acquire();
+		try {
+			return this.object;
+		}finally{
+			this.release();
+		}
 	}
 	
 	public void setObject(Type type) {
-		this.object = type;
+		this.acquire();
+		try {
+			this.object = type;
+		}finally{
+			this.release();
+		}
 	}
 	
 	public Type getSavableData() {
@@ -28,6 +38,10 @@ public class DataObjectImpl<Type> extends DataImpl<Type, DataObjectImpl<Type>> {
 		this.object = type;
 	}
 	
+	protected void unloadData() {
+		this.object = null;
+	}
+	
 	public DataObjectImpl<Type> self() {
 		return this;
 	}
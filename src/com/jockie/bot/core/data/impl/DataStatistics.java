@@ -0,0 +1,148 @@
+package com.jockie.bot.core.data.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics for the saving and loading done by the {@link DataHandler}, times are in nanoseconds
+ */
+public class DataStatistics {
+	
+	private LongAdder writes = new LongAdder();
+	private LongAdder bytesWritten = new LongAdder();
+	private LongAdder writeTime = new LongAdder();
+	
+	private AtomicLong maxWriteTime = new AtomicLong();
+	
+	private LongAdder flushes = new LongAdder();
+	private LongAdder coalesced = new LongAdder();
+	private LongAdder failures = new LongAdder();
+	
+	private LongAdder hits = new LongAdder();
+	private LongAdder misses = new LongAdder();
+	private LongAdder evictions = new LongAdder();
+	
+	void recordWrite(long bytes, long time) {
+		this.writes.increment();
+		this.bytesWritten.add(bytes);
+		this.writeTime.add(time);
+		
+		this.maxWriteTime.accumulateAndGet(time, Math::max);
+	}
+	
+	void recordFlush() {
+		this.flushes.increment();
+	}
+	
+	void recordCoalesced() {
+		this.coalesced.increment();
+	}
+	
+	void recordFailure() {
+		this.failures.increment();
+	}
+	
+	void recordHit() {
+		this.hits.increment();
+	}
+	
+	void recordMiss() {
+		this.misses.increment();
+	}
+	
+	void recordEviction() {
+		this.evictions.increment();
+	}
+	
+	/**
+	 * @return the amount of times a file has been written
+	 */
+	public long getWrites() {
+		return this.writes.sum();
+	}
+	
+	public long getBytesWritten() {
+		return this.bytesWritten.sum();
+	}
+	
+	public long getTotalWriteTime() {
+		return this.writeTime.sum();
+	}
+	
+	public long getMaxWriteTime() {
+		return this.maxWriteTime.get();
+	}
+	
+	public long getAverageWriteTime() {
+		long writes = this.writes.sum();
+		
+		return writes > 0 ? this.writeTime.sum()/writes : 0;
+	}
+	
+	/**
+	 * @return the amount of times the dirty data has been flushed by the write-behind scheduler
+	 */
+	public long getFlushes() {
+		return this.flushes.sum();
+	}
+	
+	/**
+	 * @return the amount of changes which did not cause an extra write because the data was already waiting to be written
+	 */
+	public long getCoalesced() {
+		return this.coalesced.sum();
+	}
+	
+	public long getFailures() {
+		return this.failures.sum();
+	}
+	
+	/**
+	 * @return the amount of times lazy data was accessed while it was loaded
+	 */
+	public long getHits() {
+		return this.hits.sum();
+	}
+	
+	/**
+	 * @return the amount of times lazy data had to be loaded when it was accessed
+	 */
+	public long getMisses() {
+		return this.misses.sum();
+	}
+	
+	public double getHitRate() {
+		long hits = this.hits.sum(), total = hits + this.misses.sum();
+		
+		return total > 0 ? (double) hits/total : 0;
+	}
+	
+	/**
+	 * @return the amount of times lazy data was unloaded to stay within the memory budget
+	 */
+	public long getEvictions() {
+		return this.evictions.sum();
+	}
+	
+	public void reset() {
+		this.writes.reset();
+		this.bytesWritten.reset();
+		this.writeTime.reset();
+		this.maxWriteTime.set(0);
+		this.flushes.reset();
+		this.coalesced.reset();
+		this.failures.reset();
+		this.hits.reset();
+		this.misses.reset();
+		this.evictions.reset();
+	}
+	
+	public String toString() {
+		return "DataStatistics{writes=" + this.getWrites() + ", bytesWritten=" + this.getBytesWritten() 
+			+ ", averageWriteTime=" + TimeUnit.NANOSECONDS.toMillis(this.getAverageWriteTime()) + "ms"
+			+ ", maxWriteTime=" + TimeUnit.NANOSECONDS.toMillis(this.getMaxWriteTime()) + "ms"
+			+ ", flushes=" + this.getFlushes() + ", coalesced=" + this.getCoalesced() + ", failures=" + this.getFailures()
+			+ ", hits=" + this.getHits() + ", misses=" + this.getMisses() + ", evictions=" + this.getEvictions() + "}";
+	}
+}
\ No newline at end of file
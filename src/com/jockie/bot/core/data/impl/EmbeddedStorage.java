@@ -0,0 +1,258 @@
+package com.jockie.bot.core.data.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+
+import com.jockie.bot.core.data.Data;
+import com.jockie.bot.core.data.KeyedData;
+import com.jockie.bot.core.data.KeyedDataStorage;
+
+/**
+ * Stores all data in a single embedded key-value store file, backed by an H2 MVStore. Each data gets its own map in the store,
+ * the entries of {@link KeyedData} are stored under their own keys so that changing one entry only writes that entry,
+ * other data is stored as a single value. Values are encoded with a {@link BinaryCodec}.
+ * <br><br>
+ * Changes are batched and only become durable once they are committed, either by {@link #commit()},
+ * by the {@link DataHandler} when it flushes or automatically after the auto commit delay.
+ * Storages opened on the same file share the same store, which is closed once all of them have been closed.
+ * <br><br>
+ * This requires h2-mvstore (com.h2database:h2-mvstore) which is an optional dependency and has to be added separately
+ */
+public class EmbeddedStorage implements KeyedDataStorage {
+	
+	private static class Handle {
+		
+		private final MVStore store;
+		
+		private int references = 0;
+		
+		private Handle(MVStore store) {
+			this.store = store;
+		}
+	}
+	
+	/* The key non-keyed data is stored under */
+	private static final String VALUE = "";
+	
+	private static final Map<String, Handle> HANDLES = new HashMap<>();
+	
+	private static Handle acquire(File file, int autoCommitDelay) throws IOException {
+		String path = file.getCanonicalPath();
+		
+		synchronized(EmbeddedStorage.HANDLES) {
+			Handle handle = EmbeddedStorage.HANDLES.get(path);
+			if(handle == null) {
+				if(file.getParentFile() != null && !file.getParentFile().exists()) {
+					file.getParentFile().mkdirs();
+				}
+				
+				MVStore.Builder builder = new MVStore.Builder().fileName(path);
+				if(autoCommitDelay <= 0) {
+					builder.autoCommitDisabled();
+				}
+				
+				try {
+					handle = new Handle(builder.open());
+				}catch(IllegalStateException e) {
+					throw new IOException("Unable to open " + path, e);
+				}
+				
+				if(autoCommitDelay > 0) {
+					handle.store.setAutoCommitDelay(autoCommitDelay);
+				}
+				
+				EmbeddedStorage.HANDLES.put(path, handle);
+			}
+			
+			handle.references++;
+			
+			return handle;
+		}
+	}
+	
+	private static void release(File file, Handle handle) throws IOException {
+		synchronized(EmbeddedStorage.HANDLES) {
+			if(--handle.references == 0) {
+				EmbeddedStorage.HANDLES.remove(file.getCanonicalPath());
+				
+				handle.store.close();
+			}
+		}
+	}
+	
+	private final File file;
+	
+	private final Handle handle;
+	
+	private final BinaryCodec codec = new BinaryCodec();
+	
+	private volatile boolean closed = false;
+	
+	/**
+	 * @param autoCommitDelay the maximum amount of milliseconds changes are kept before they are committed automatically,
+	 * if it is less than or equal to 0 changes are only committed by {@link #commit()}.
+	 * This only applies if no other storage has opened the file yet
+	 */
+	public EmbeddedStorage(File file, int autoCommitDelay) throws IOException {
+		this.file = file;
+		this.handle = EmbeddedStorage.acquire(file, autoCommitDelay);
+	}
+	
+	public EmbeddedStorage(File file) throws IOException {
+		this(file, 1000);
+	}
+	
+	public File getFile() {
+		return this.file;
+	}
+	
+	private MVMap<String, byte[]> getMap(Data<?> data) {
+		if(this.closed) {
+			throw new IllegalStateException("The storage has been closed");
+		}
+		
+		return this.handle.store.openMap(DataHandler.getFullName(data));
+	}
+	
+	@SuppressWarnings("unchecked")
+	public long save(Data<?> data) throws IOException {
+		MVMap<String, byte[]> map = this.getMap(data);
+		
+		long bytes = 0;
+		
+		/* Locked so that entries written while saving are not removed as stale, see saveEntry */
+		synchronized(map) {
+			if(data instanceof KeyedData) {
+				KeyedData<Object, Object> keyed = (KeyedData<Object, Object>) data;
+				
+				Set<String> keys = new HashSet<>();
+				for(Object element : (Object[]) data.getSavableData()) {
+					String key = String.valueOf(keyed.getKey(element));
+					keys.add(key);
+					
+					byte[] value = this.codec.encode(element);
+					
+					/* Unchanged entries are not written again */
+					if(!Arrays.equals(value, map.get(key))) {
+						map.put(key, value);
+						
+						bytes += value.length;
+					}
+				}
+				
+				List<String> removed = new ArrayList<>();
+				for(String key : map.keySet()) {
+					if(!keys.contains(key)) {
+						removed.add(key);
+					}
+				}
+				
+				for(String key : removed) {
+					map.remove(key);
+				}
+			}else{
+				byte[] value = this.codec.encode(data.getSavableData());
+				
+				map.put(EmbeddedStorage.VALUE, value);
+				
+				bytes += value.length;
+			}
+		}
+		
+		return bytes;
+	}
+	
+	private <T> void loadElements(MVMap<String, byte[]> map, KeyedData<?, T> data) throws IOException {
+		for(byte[] value : map.values()) {
+			data.loadElement(this.codec.decode(value, data.getElementType()));
+		}
+		
+		data.finishLoading();
+	}
+	
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public void load(Data data) throws IOException {
+		MVMap<String, byte[]> map = this.getMap(data);
+		
+		if(data instanceof KeyedData) {
+			this.loadElements(map, (KeyedData<?, ?>) data);
+		}else{
+			byte[] value = map.get(EmbeddedStorage.VALUE);
+			if(value != null) {
+				data.setLoadableData(this.codec.decode(value, data.getType()));
+			}
+		}
+	}
+	
+	/**
+	 * Entries are already written one at a time so journals are not needed
+	 */
+	public boolean isJournaled() {
+		return false;
+	}
+	
+	public void saveEntry(Data<?> data, Object key, Object value) throws IOException {
+		byte[] bytes = this.codec.encode(value);
+		
+		MVMap<String, byte[]> map = this.getMap(data);
+		synchronized(map) {
+			map.put(String.valueOf(key), bytes);
+		}
+	}
+	
+	public void removeEntry(Data<?> data, Object key) {
+		MVMap<String, byte[]> map = this.getMap(data);
+		synchronized(map) {
+			map.remove(String.valueOf(key));
+		}
+	}
+	
+	public <T> T loadEntry(Data<?> data, Object key, Class<T> type) throws IOException {
+		byte[] value = this.getMap(data).get(String.valueOf(key));
+		if(value == null) {
+			return null;
+		}
+		
+		return this.codec.decode(value, type);
+	}
+	
+	public void commit() {
+		if(!this.closed) {
+			this.handle.store.commit();
+		}
+	}
+	
+	/**
+	 * Discards all the changes since the last commit, this does not change any data which has already been loaded
+	 */
+	public void rollback() {
+		if(!this.closed) {
+			this.handle.store.rollback();
+		}
+	}
+	
+	/**
+	 * Commits any remaining changes and releases the store, it is closed once all the storages using it have been closed
+	 */
+	public void close() throws IOException {
+		if(this.closed) {
+			return;
+		}
+		
+		this.commit();
+		
+		this.closed = true;
+		
+		EmbeddedStorage.release(this.file, this.handle);
+	}
+}
\ No newline at end of file
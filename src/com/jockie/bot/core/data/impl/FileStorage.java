@@ -0,0 +1,105 @@
+package com.jockie.bot.core.data.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+
+import com.jockie.bot.core.data.Data;
+import com.jockie.bot.core.data.DataCodec;
+import com.jockie.bot.core.data.DataStorage;
+import com.jockie.bot.core.data.StreamableData;
+
+/**
+ * Stores each data in its own file, encoded with the codec of the data, see {@link DataHandler#getDefaultCodec()}.
+ * Changes are appended to the journal of the data if it has one, see {@link DataJournal}
+ */
+public class FileStorage implements DataStorage {
+	
+	private static DataJournal getJournal(Data<?> data) {
+		if(data instanceof JournaledDataImpl) {
+			return ((JournaledDataImpl<?, ?>) data).getJournal();
+		}
+		
+		return null;
+	}
+	
+	public long save(Data<?> data) throws IOException {
+		DataCodec codec = DataHandler.getCodec(data);
+		
+		DataJournal journal = FileStorage.getJournal(data);
+		if(journal != null) {
+			/* Compacts the journal in to a new snapshot, nothing can be changed between taking the snapshot and rotating the journal */
+			Object savable;
+			synchronized(journal) {
+				savable = data.getSavableData();
+				
+				journal.rotate();
+			}
+			
+			long bytes = codec.save(journal.getCompactedFile(), savable);
+			
+			journal.commit(new File(DataHandler.getPath(data)));
+			
+			return bytes;
+		}
+		
+		return codec.save(new File(DataHandler.getPath(data)), data.getSavableData());
+	}
+	
+	private static <T> void loadElements(DataCodec codec, File file, StreamableData<T> data) throws IOException {
+		codec.loadElements(file, data.getElementType(), data::loadElement);
+		
+		data.finishLoading();
+	}
+	
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public void load(Data data) throws IOException {
+		DataCodec codec = DataHandler.getCodec(data);
+		
+		File file = new File(DataHandler.getPath(data, codec));
+		if(file.getParentFile() != null && !file.getParentFile().exists()) {
+			file.getParentFile().mkdirs();
+		}
+		
+		DataJournal journal = FileStorage.getJournal(data);
+		if(journal != null) {
+			journal.recover(file);
+		}
+		
+		if(!file.exists()) {
+			Object actualData = data.getSavableData();
+			
+			if(actualData instanceof Object[]) {
+				codec.createEmpty(file, true);
+			}else if(actualData instanceof Collection) {
+				codec.createEmpty(file, true);
+			}else{
+				codec.createEmpty(file, false);
+			}
+			
+			System.out.println(file.getPath() + " does not exist, creating empty file!");
+		}
+		
+		if(data instanceof StreamableData) {
+			FileStorage.loadElements(codec, file, (StreamableData<?>) data);
+		}else{
+			data.setLoadableData(codec.load(file, data.getType()));
+		}
+		
+		if(journal != null) {
+			journal.replay();
+		}
+	}
+	
+	public boolean isJournaled() {
+		return true;
+	}
+	
+	public void commit() {
+	
+	}
+	
+	public void close() {
+	
+	}
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.jockie.bot.core.data.impl;
+
+import java.io.IOException;
+
+import com.jockie.bot.core.data.DataStorage;
+
+/**
+ * Data whose changes can be appended to a {@link DataJournal} instead of saving all of it, 
+ * the journal is replayed through {@link #applyRecord(char, String)} when the data is loaded
+ */
+public abstract class JournaledDataImpl<Type, ReturnType extends JournaledDataImpl<Type, ReturnType>> extends DataImpl<Type, ReturnType> {
+	
+	private DataJournal journal;
+	
+	public JournaledDataImpl(Class<Type> clazz, String name) {
+		super(clazz, name);
+	}
+	
+	/**
+	 * @throws IllegalStateException if this data is journaled and the storage does not support journals, see {@link DataStorage#isJournaled()}
+	 */
+	public ReturnType setStorage(DataStorage storage) {
+		if(this.journal != null && !(storage != null ? storage : DataHandler.getDefaultStorage()).isJournaled()) {
+			throw new IllegalStateException(this.getName() + " is journaled and can not be stored in a storage which does not support journals");
+		}
+		
+		return super.setStorage(storage);
+	}
+	
+	/**
+	 * @throws IllegalStateException if the storage of this data does not support journals, see {@link DataStorage#isJournaled()}
+	 */
+	protected void setJournal(DataJournal journal) {
+		if(journal != null && !DataHandler.getStorage(this).isJournaled()) {
+			throw new IllegalStateException(this.getName() + " can not be journaled since its storage does not support journals");
+		}
+		
+		this.journal = journal;
+	}
+	
+	/**
+	 * @return the journal changes are appended to, null if this data is not journaled
+	 */
+	public DataJournal getJournal() {
+		return this.journal;
+	}
+	
+	/**
+	 * Appends a change to the journal, if it can not be written this data is marked as dirty instead 
+	 * so that the change is included in the next save
+	 */
+	protected void record(char operation, Object value) {
+		try {
+			this.journal.append(operation, value);
+		}catch(IOException e) {
+			e.printStackTrace();
+			
+			this.markDirty();
+		}
+	}
+	
+	/**
+	 * Applies a change read from the journal
+	 */
+	protected abstract void applyRecord(char operation, String value);
+	
+	/**
+	 * @return the element parsed from a journal record
+	 */
+	protected Object parseElement(String value) {
+		return DataLoader.getGson().fromJson(value, this.getType().getComponentType());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.jockie.bot.core.data.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+import com.jockie.bot.core.data.DataCodec;
+
+/**
+ * Stores data as JSON through Gson, this is the default codec
+ */
+public class JsonCodec implements DataCodec {
+	
+	public String getExtension() {
+		return ".json";
+	}
+	
+	public long save(File file, Object object) throws IOException {
+		return DataLoader.saveObject(file, object);
+	}
+	
+	public <T> T load(File file, Class<T> clazz) throws IOException {
+		return DataLoader.loadObject(file, clazz);
+	}
+	
+	public <T> void loadElements(File file, Class<T> clazz, Consumer<T> consumer) throws IOException {
+		DataLoader.loadElements(file, clazz, consumer);
+	}
+	
+	public void createEmpty(File file, boolean array) throws IOException {
+		if(array) {
+			DataLoader.createFileList(file);
+		}else{
+			DataLoader.createFileObject(file);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,769 @@
+package com.jockie.bot.core.data.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.ToLongFunction;
+
+import com.jockie.bot.core.data.ManagedData;
+
+/**
+ * A map with long keys, such as user or guild ids, which is stored off-heap in memory-mapped files instead of on the heap.
+ * Values are stored as records in a data file, encoded with a {@link BinaryCodec}, and are found through an open-addressing index in a second file,
+ * they are only decoded when they are accessed.
+ * <br><br>
+ * Loading only maps the files so it is near-instant regardless of the size. Changes are written to the mapped files directly,
+ * these are persisted by the operating system without having to save, saving forces them to disk and compacts the data file if too much of it is unused.
+ * The data file can not be larger than 2GB.
+ * <br><br>
+ * Each change writes the record and the end of the data file before it is added to the index, so if the process is stopped in the middle of a change
+ * only that change is lost. The counts in the headers are recalculated when files which were not closed are loaded again.
+ * <br><br>
+ * Growing the index and compacting replace the files while the old ones are still mapped, mapped files are only released once they are garbage collected.
+ * This is not supported on Windows, which does not allow files to be replaced while they are mapped
+ */
+public class MappedDataMapImpl<Data> extends DataImpl<Data[], MappedDataMapImpl<Data>> implements ManagedData {
+	
+	public static final String DATA_EXTENSION = ".data";
+	public static final String INDEX_EXTENSION = ".index";
+	
+	private static final int DATA_MAGIC = 0x4A55444D;
+	private static final int INDEX_MAGIC = 0x4A554449;
+	
+	private static final int VERSION = 1;
+	
+	/* Magic, version, end of the records and the amount of bytes which are no longer used */
+	private static final int DATA_HEADER = 24;
+	
+	/* Magic, version, capacity, size, tombstones and whether or not it was closed */
+	private static final int INDEX_HEADER = 24;
+	
+	private static final int OPEN = 0, CLOSED = 1;
+	
+	/* Key and pointer, the pointer is the offset of the record plus one so that 0 can mean empty */
+	private static final int SLOT = 16;
+	
+	private static final long EMPTY = 0, TOMBSTONE = -1;
+	
+	private static final int MINIMUM_DATA_SIZE = 64 * 1024;
+	
+	private ToLongFunction<Data> function;
+	
+	private BinaryCodec codec = new BinaryCodec();
+	
+	private ReadWriteLock lock = new ReentrantReadWriteLock();
+	
+	private File path;
+	
+	private FileChannel dataChannel, indexChannel;
+	private MappedByteBuffer dataBuffer, indexBuffer;
+	
+	private int capacity, size, tombstones;
+	
+	private long end, garbage;
+	
+	private int initialCapacity = 1024;
+	
+	private double compactionRatio = 0.5D;
+	
+	public MappedDataMapImpl(ToLongFunction<Data> function, Class<Data[]> clazz, String name) {
+		super(clazz, name);
+		
+		this.function = function;
+	}
+	
+	public MappedDataMapImpl(ToLongFunction<Data> function, Class<Data[]> clazz) {
+		this(function, clazz, null);
+	}
+	
+	/**
+	 * @param initialCapacity the amount of slots the index is created with, this is rounded up to a power of two.
+	 * The index grows automatically, setting this only avoids rebuilding it while it is being filled
+	 */
+	public MappedDataMapImpl<Data> setInitialCapacity(int initialCapacity) {
+		this.initialCapacity = Integer.highestOneBit(Math.max(16, initialCapacity - 1)) << 1;
+		
+		return this;
+	}
+	
+	/**
+	 * @param compactionRatio how much of the data file can be unused before it is compacted when saving
+	 */
+	public MappedDataMapImpl<Data> setCompactionRatio(double compactionRatio) {
+		this.compactionRatio = compactionRatio;
+		
+		return this;
+	}
+	
+	@SuppressWarnings("unchecked")
+	public Class<Data> getElementType() {
+		return (Class<Data>) this.getType().getComponentType();
+	}
+	
+	private static long hash(long key) {
+		key ^= key >>> 33;
+		key *= 0xFF51AFD7ED558CCDL;
+		key ^= key >>> 33;
+		key *= 0xC4CEB9FE1A85EC53L;
+		key ^= key >>> 33;
+		
+		return key;
+	}
+	
+	private void checkLoaded() {
+		if(this.dataBuffer == null) {
+			throw new IllegalStateException(this.getName() + " has not been loaded");
+		}
+	}
+	
+	private long getKey(int slot) {
+		return this.indexBuffer.getLong(MappedDataMapImpl.INDEX_HEADER + slot * MappedDataMapImpl.SLOT);
+	}
+	
+	private long getPointer(int slot) {
+		return this.indexBuffer.getLong(MappedDataMapImpl.INDEX_HEADER + slot * MappedDataMapImpl.SLOT + 8);
+	}
+	
+	/**
+	 * The pointer is written last, a slot is only used once it has a pointer so this is what adds it
+	 */
+	private void setSlot(int slot, long key, long pointer) {
+		this.indexBuffer.putLong(MappedDataMapImpl.INDEX_HEADER + slot * MappedDataMapImpl.SLOT, key);
+		this.setPointer(slot, pointer);
+	}
+	
+	private void setPointer(int slot, long pointer) {
+		this.indexBuffer.putLong(MappedDataMapImpl.INDEX_HEADER + slot * MappedDataMapImpl.SLOT + 8, pointer);
+	}
+	
+	private void writeHeaders() {
+		this.dataBuffer.putLong(8, this.end);
+		this.dataBuffer.putLong(16, this.garbage);
+		
+		this.indexBuffer.putInt(8, this.capacity);
+		this.indexBuffer.putInt(12, this.size);
+		this.indexBuffer.putInt(16, this.tombstones);
+	}
+	
+	/**
+	 * @return the slot containing the key or -1 if there is none
+	 */
+	private int findSlot(long key) {
+		int mask = this.capacity - 1;
+		
+		for(int i = 0, slot = (int) MappedDataMapImpl.hash(key) & mask; i < this.capacity; i++, slot = (slot + 1) & mask) {
+			long pointer = this.getPointer(slot);
+			if(pointer == MappedDataMapImpl.EMPTY) {
+				return -1;
+			}
+			
+			if(pointer != MappedDataMapImpl.TOMBSTONE && this.getKey(slot) == key) {
+				return slot;
+			}
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * @return the slot containing the key or the first free slot the key can be inserted in to
+	 */
+	private int findInsertSlot(long key) {
+		int mask = this.capacity - 1, tombstone = -1;
+		
+		for(int i = 0, slot = (int) MappedDataMapImpl.hash(key) & mask; i < this.capacity; i++, slot = (slot + 1) & mask) {
+			long pointer = this.getPointer(slot);
+			if(pointer == MappedDataMapImpl.EMPTY) {
+				return tombstone != -1 ? tombstone : slot;
+			}
+			
+			if(pointer == MappedDataMapImpl.TOMBSTONE) {
+				if(tombstone == -1) {
+					tombstone = slot;
+				}
+			}else if(this.getKey(slot) == key) {
+				return slot;
+			}
+		}
+		
+		return tombstone;
+	}
+	
+	private int getRecordLength(long pointer) {
+		return this.dataBuffer.getInt((int) (pointer - 1)) + 4;
+	}
+	
+	private byte[] readRecord(long pointer) {
+		int offset = (int) (pointer - 1);
+		
+		ByteBuffer buffer = this.dataBuffer.duplicate();
+		buffer.position(offset + 4);
+		
+		byte[] bytes = new byte[buffer.getInt(offset)];
+		buffer.get(bytes);
+		
+		return bytes;
+	}
+	
+	private Data decode(byte[] bytes) {
+		try {
+			return this.codec.decode(bytes, this.getElementType());
+		}catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private void ensureDataCapacity(long required) throws IOException {
+		if(required <= this.dataBuffer.capacity()) {
+			return;
+		}
+		
+		if(required > Integer.MAX_VALUE) {
+			throw new IOException("The data file of " + this.getName() + " can not be larger than 2GB, try compacting it");
+		}
+		
+		long size = Math.min(Integer.MAX_VALUE, Math.max(required, this.dataBuffer.capacity() * 2L));
+		
+		this.dataBuffer = this.dataChannel.map(MapMode.READ_WRITE, 0, size);
+	}
+	
+	private long appendRecord(byte[] bytes) throws IOException {
+		this.ensureDataCapacity(this.end + 4 + bytes.length);
+		
+		ByteBuffer buffer = this.dataBuffer.duplicate();
+		buffer.position((int) this.end);
+		buffer.putInt(bytes.length);
+		buffer.put(bytes);
+		
+		long pointer = this.end + 1;
+		
+		this.end += 4 + bytes.length;
+		
+		/* Written before the record is added to the index so that it can never be overwritten by the next record */
+		this.dataBuffer.putLong(8, this.end);
+		
+		return pointer;
+	}
+	
+	private void mapIndex(int capacity) throws IOException {
+		this.indexBuffer = this.indexChannel.map(MapMode.READ_WRITE, 0, MappedDataMapImpl.INDEX_HEADER + (long) capacity * MappedDataMapImpl.SLOT);
+	}
+	
+	/**
+	 * Rebuilds the index with a new capacity, this also removes all tombstones.
+	 * The new index is written next to the current one and replaces it once it is complete, the same way as {@link #compact()}
+	 */
+	private void resize(int capacity) throws IOException {
+		File indexResize = this.getFile(this.path, MappedDataMapImpl.INDEX_EXTENSION + ".resize");
+		File indexNext = this.getFile(this.path, MappedDataMapImpl.INDEX_EXTENSION + ".next");
+		
+		try(FileChannel indexChannel = FileChannel.open(indexResize.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			MappedByteBuffer index = indexChannel.map(MapMode.READ_WRITE, 0, MappedDataMapImpl.INDEX_HEADER + (long) capacity * MappedDataMapImpl.SLOT);
+			
+			for(int slot = 0; slot < capacity; slot++) {
+				index.putLong(MappedDataMapImpl.INDEX_HEADER + slot * MappedDataMapImpl.SLOT + 8, MappedDataMapImpl.EMPTY);
+			}
+			
+			int mask = capacity - 1;
+			for(int slot = 0; slot < this.capacity; slot++) {
+				long pointer = this.getPointer(slot);
+				if(pointer == MappedDataMapImpl.EMPTY || pointer == MappedDataMapImpl.TOMBSTONE) {
+					continue;
+				}
+				
+				long key = this.getKey(slot);
+				
+				/* There are no tombstones or duplicate keys in the new index so the first empty slot is the right one */
+				int next = (int) MappedDataMapImpl.hash(key) & mask;
+				while(index.getLong(MappedDataMapImpl.INDEX_HEADER + next * MappedDataMapImpl.SLOT + 8) != MappedDataMapImpl.EMPTY) {
+					next = (next + 1) & mask;
+				}
+				
+				index.putLong(MappedDataMapImpl.INDEX_HEADER + next * MappedDataMapImpl.SLOT, key);
+				index.putLong(MappedDataMapImpl.INDEX_HEADER + next * MappedDataMapImpl.SLOT + 8, pointer);
+			}
+			
+			index.putInt(0, MappedDataMapImpl.INDEX_MAGIC);
+			index.putInt(4, MappedDataMapImpl.VERSION);
+			index.putInt(8, capacity);
+			index.putInt(12, this.size);
+			index.putInt(16, 0);
+			index.putInt(20, MappedDataMapImpl.CLOSED);
+			
+			index.force();
+		}
+		
+		Files.move(indexResize.toPath(), indexNext.toPath(), StandardCopyOption.ATOMIC_MOVE);
+		
+		File path = this.path;
+		
+		this.closeFiles();
+		this.recover(path);
+		this.open(path);
+	}
+	
+	public void add(Data data) {
+		long key = this.function.applyAsLong(data);
+		
+		byte[] bytes;
+		try {
+			bytes = this.codec.encode(data);
+		}catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		
+		this.acquire();
+		this.lock.writeLock().lock();
+		try {
+			this.checkLoaded();
+			
+			if((this.size + this.tombstones + 1) > this.capacity * 0.75D) {
+				/* If most of the used slots are tombstones there is no need to grow */
+				this.resize(this.size + 1 > this.capacity / 2 ? this.capacity * 2 : this.capacity);
+			}
+			
+			long pointer = this.appendRecord(bytes);
+			
+			int slot = this.findInsertSlot(key);
+			
+			long previous = this.getPointer(slot);
+			if(previous == MappedDataMapImpl.EMPTY) {
+				this.size++;
+			}else if(previous == MappedDataMapImpl.TOMBSTONE) {
+				this.size++;
+				this.tombstones--;
+			}else{
+				this.garbage += this.getRecordLength(previous);
+			}
+			
+			this.setSlot(slot, key, pointer);
+			this.writeHeaders();
+		}catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}finally{
+			this.lock.writeLock().unlock();
+			this.release();
+		}
+		
+		this.markChanged();
+	}
+	
+	public Data remove(long key) {
+		byte[] bytes;
+		
+		this.acquire();
+		this.lock.writeLock().lock();
+		try {
+			this.checkLoaded();
+			
+			int slot = this.findSlot(key);
+			if(slot == -1) {
+				return null;
+			}
+			
+			long pointer = this.getPointer(slot);
+			
+			bytes = this.readRecord(pointer);
+			
+			this.setPointer(slot, MappedDataMapImpl.TOMBSTONE);
+			
+			this.size--;
+			this.tombstones++;
+			this.garbage += bytes.length + 4;
+			
+			this.writeHeaders();
+		}finally{
+			this.lock.writeLock().unlock();
+			this.release();
+		}
+		
+		this.markChanged();
+		
+		return this.decode(bytes);
+	}
+	
+	public Data remove(Long key) {
+		return this.remove(key.longValue());
+	}
+	
+	public void removeByData(Data data) {
+		this.remove(this.function.applyAsLong(data));
+	}
+	
+	public Data get(long key) {
+		byte[] bytes;
+		
+		this.acquire();
+		this.lock.readLock().lock();
+		try {
+			this.checkLoaded();
+			
+			int slot = this.findSlot(key);
+			if(slot == -1) {
+				return null;
+			}
+			
+			bytes = this.readRecord(this.getPointer(slot));
+		}finally{
+			this.lock.readLock().unlock();
+			this.release();
+		}
+		
+		/* Decoded outside of the lock since it is by far the most expensive part */
+		return this.decode(bytes);
+	}
+	
+	public Data getByKey(Long key) {
+		return this.get(key.longValue());
+	}
+	
+	public boolean containsKey(long key) {
+		this.acquire();
+		this.lock.readLock().lock();
+		try {
+			this.checkLoaded();
+			
+			return this.findSlot(key) != -1;
+		}finally{
+			this.lock.readLock().unlock();
+			this.release();
+		}
+	}
+	
+	public int size() {
+		this.acquire();
+		this.lock.readLock().lock();
+		try {
+			return this.size;
+		}finally{
+			this.lock.readLock().unlock();
+			this.release();
+		}
+	}
+	
+	public long[] getKeys() {
+		this.acquire();
+		this.lock.readLock().lock();
+		try {
+			this.checkLoaded();
+			
+			long[] keys = new long[this.size];
+			
+			int count = 0;
+			for(int slot = 0; slot < this.capacity; slot++) {
+				long pointer = this.getPointer(slot);
+				if(pointer != MappedDataMapImpl.EMPTY && pointer != MappedDataMapImpl.TOMBSTONE) {
+					keys[count++] = this.getKey(slot);
+				}
+			}
+			
+			return keys;
+		}finally{
+			this.lock.readLock().unlock();
+			this.release();
+		}
+	}
+	
+	/**
+	 * Decodes every value, this should be avoided for large maps
+	 */
+	public void forEach(BiConsumer<Long, Data> consumer) {
+		for(long key : this.getKeys()) {
+			Data data = this.get(key);
+			if(data != null) {
+				consumer.accept(key, data);
+			}
+		}
+	}
+	
+	/**
+	 * @return all the values, this decodes every value and should only be used for exporting the data
+	 */
+	@SuppressWarnings("unchecked")
+	public Data[] getSavableData() {
+		List<Data> values = new ArrayList<>();
+		this.forEach((key, data) -> values.add(data));
+		
+		return values.toArray((Data[]) Array.newInstance(this.getElementType(), values.size()));
+	}
+	
+	public void setLoadableData(Data[] types) {
+		for(Data data : types) {
+			this.add(data);
+		}
+	}
+	
+	private File getFile(File path, String extension) {
+		return new File(path.getPath() + extension);
+	}
+	
+	/**
+	 * Finishes or discards a compaction or resize which was interrupted, creating the next index is what commits it
+	 */
+	private void recover(File path) throws IOException {
+		File data = this.getFile(path, MappedDataMapImpl.DATA_EXTENSION), index = this.getFile(path, MappedDataMapImpl.INDEX_EXTENSION);
+		File dataCompact = this.getFile(path, MappedDataMapImpl.DATA_EXTENSION + ".compact");
+		File indexCompact = this.getFile(path, MappedDataMapImpl.INDEX_EXTENSION + ".compact");
+		File indexResize = this.getFile(path, MappedDataMapImpl.INDEX_EXTENSION + ".resize");
+		File indexNext = this.getFile(path, MappedDataMapImpl.INDEX_EXTENSION + ".next");
+		
+		if(indexNext.exists()) {
+			if(dataCompact.exists()) {
+				Files.move(dataCompact.toPath(), data.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			
+			Files.move(indexNext.toPath(), index.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}else{
+			dataCompact.delete();
+			indexCompact.delete();
+			indexResize.delete();
+		}
+	}
+	
+	private void open(File path) throws IOException {
+		this.dataChannel = FileChannel.open(this.getFile(path, MappedDataMapImpl.DATA_EXTENSION).toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		this.indexChannel = FileChannel.open(this.getFile(path, MappedDataMapImpl.INDEX_EXTENSION).toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		
+		if(this.dataChannel.size() == 0) {
+			this.dataBuffer = this.dataChannel.map(MapMode.READ_WRITE, 0, MappedDataMapImpl.MINIMUM_DATA_SIZE);
+			this.dataBuffer.putInt(0, MappedDataMapImpl.DATA_MAGIC);
+			this.dataBuffer.putInt(4, MappedDataMapImpl.VERSION);
+			
+			this.end = MappedDataMapImpl.DATA_HEADER;
+			this.garbage = 0;
+		}else{
+			this.dataBuffer = this.dataChannel.map(MapMode.READ_WRITE, 0, this.dataChannel.size());
+			
+			if(this.dataBuffer.getInt(0) != MappedDataMapImpl.DATA_MAGIC || this.dataBuffer.getInt(4) != MappedDataMapImpl.VERSION) {
+				throw new IOException(path.getPath() + MappedDataMapImpl.DATA_EXTENSION + " is not a supported data file");
+			}
+			
+			this.end = this.dataBuffer.getLong(8);
+			this.garbage = this.dataBuffer.getLong(16);
+		}
+		
+		if(this.indexChannel.size() == 0) {
+			this.capacity = this.initialCapacity;
+			this.size = 0;
+			this.tombstones = 0;
+			
+			this.mapIndex(this.capacity);
+			
+			this.indexBuffer.putInt(0, MappedDataMapImpl.INDEX_MAGIC);
+			this.indexBuffer.putInt(4, MappedDataMapImpl.VERSION);
+		}else{
+			this.indexBuffer = this.indexChannel.map(MapMode.READ_WRITE, 0, this.indexChannel.size());
+			
+			if(this.indexBuffer.getInt(0) != MappedDataMapImpl.INDEX_MAGIC || this.indexBuffer.getInt(4) != MappedDataMapImpl.VERSION) {
+				throw new IOException(path.getPath() + MappedDataMapImpl.INDEX_EXTENSION + " is not a supported index file");
+			}
+			
+			this.capacity = this.indexBuffer.getInt(8);
+			this.size = this.indexBuffer.getInt(12);
+			this.tombstones = this.indexBuffer.getInt(16);
+			
+			if(this.indexBuffer.getInt(20) != MappedDataMapImpl.CLOSED) {
+				/* The process was stopped without closing the files, the counts may not include the last change */
+				this.recount();
+			}
+		}
+		
+		this.indexBuffer.putInt(20, MappedDataMapImpl.OPEN);
+		
+		this.writeHeaders();
+		
+		this.path = path;
+	}
+	
+	/**
+	 * Counts the used slots, tombstones and unused records from the index
+	 */
+	private void recount() {
+		long used = 0;
+		
+		this.size = 0;
+		this.tombstones = 0;
+		
+		for(int slot = 0; slot < this.capacity; slot++) {
+			long pointer = this.getPointer(slot);
+			if(pointer == MappedDataMapImpl.TOMBSTONE) {
+				this.tombstones++;
+			}else if(pointer != MappedDataMapImpl.EMPTY) {
+				this.size++;
+				
+				used += this.getRecordLength(pointer);
+			}
+		}
+		
+		this.garbage = this.end - MappedDataMapImpl.DATA_HEADER - used;
+	}
+	
+	/**
+	 * Forces all changes to disk and closes the files, the map has to be loaded again before it can be used
+	 */
+	public void close() throws IOException {
+		this.lock.writeLock().lock();
+		try {
+			this.closeFiles();
+		}finally{
+			this.lock.writeLock().unlock();
+		}
+	}
+	
+	protected void unloadData() {
+		try {
+			this.close();
+		}catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private void closeFiles() throws IOException {
+		if(this.dataBuffer == null) {
+			return;
+		}
+		
+		this.dataBuffer.force();
+		
+		/* Only marked as closed once everything else has been written */
+		this.indexBuffer.force();
+		this.indexBuffer.putInt(20, MappedDataMapImpl.CLOSED);
+		this.indexBuffer.force();
+		
+		this.dataChannel.close();
+		this.indexChannel.close();
+		
+		this.dataBuffer = null;
+		this.indexBuffer = null;
+	}
+	
+	/**
+	 * Rewrites the data file without any of the unused records, the new files are written next to the current ones
+	 * and replace them once they are complete so that a crash at any point leaves either the old or the new files
+	 */
+	private void compact() throws IOException {
+		File dataCompact = this.getFile(this.path, MappedDataMapImpl.DATA_EXTENSION + ".compact");
+		File indexCompact = this.getFile(this.path, MappedDataMapImpl.INDEX_EXTENSION + ".compact");
+		File indexNext = this.getFile(this.path, MappedDataMapImpl.INDEX_EXTENSION + ".next");
+		
+		long used = this.end - this.garbage;
+		
+		try(FileChannel dataChannel = FileChannel.open(dataCompact.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			FileChannel indexChannel = FileChannel.open(indexCompact.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			
+			MappedByteBuffer data = dataChannel.map(MapMode.READ_WRITE, 0, Math.max(MappedDataMapImpl.MINIMUM_DATA_SIZE, used));
+			MappedByteBuffer index = indexChannel.map(MapMode.READ_WRITE, 0, this.indexBuffer.capacity());
+			
+			ByteBuffer source = this.dataBuffer.duplicate();
+			
+			data.position(MappedDataMapImpl.DATA_HEADER);
+			
+			/* The slots stay where they are, only the pointers change */
+			ByteBuffer indexSource = this.indexBuffer.duplicate();
+			indexSource.clear();
+			index.put(indexSource);
+			index.putInt(20, MappedDataMapImpl.CLOSED);
+			
+			for(int slot = 0; slot < this.capacity; slot++) {
+				long pointer = this.getPointer(slot);
+				if(pointer == MappedDataMapImpl.EMPTY || pointer == MappedDataMapImpl.TOMBSTONE) {
+					continue;
+				}
+				
+				int offset = (int) (pointer - 1);
+				
+				source.limit(offset + this.getRecordLength(pointer));
+				source.position(offset);
+				
+				index.putLong(MappedDataMapImpl.INDEX_HEADER + slot * MappedDataMapImpl.SLOT + 8, data.position() + 1);
+				
+				data.put(source);
+				
+				source.clear();
+			}
+			
+			data.putInt(0, MappedDataMapImpl.DATA_MAGIC);
+			data.putInt(4, MappedDataMapImpl.VERSION);
+			data.putLong(8, data.position());
+			data.putLong(16, 0);
+			
+			data.force();
+			index.force();
+		}
+		
+		Files.move(indexCompact.toPath(), indexNext.toPath(), StandardCopyOption.ATOMIC_MOVE);
+		
+		File path = this.path;
+		
+		this.closeFiles();
+		this.recover(path);
+		this.open(path);
+	}
+	
+	/**
+	 * @return whether or not the data file has enough unused records to be compacted
+	 */
+	public boolean shouldCompact() {
+		return this.garbage > MappedDataMapImpl.MINIMUM_DATA_SIZE && this.garbage > this.end * this.compactionRatio;
+	}
+	
+	/**
+	 * @return the amount of bytes in the mapped files which were forced to disk
+	 */
+	public long saveData(File path) throws IOException {
+		this.lock.writeLock().lock();
+		try {
+			if(this.dataBuffer == null || !path.equals(this.path)) {
+				this.closeFiles();
+				this.loadFiles(path);
+			}
+			
+			if(this.shouldCompact()) {
+				this.compact();
+			}
+			
+			this.dataBuffer.force();
+			this.indexBuffer.force();
+			
+			return this.end + this.indexBuffer.capacity();
+		}finally{
+			this.lock.writeLock().unlock();
+		}
+	}
+	
+	public void loadData(File path) throws IOException {
+		this.lock.writeLock().lock();
+		try {
+			this.closeFiles();
+			this.loadFiles(path);
+		}finally{
+			this.lock.writeLock().unlock();
+		}
+	}
+	
+	private void loadFiles(File path) throws IOException {
+		if(path.getParentFile() != null && !path.getParentFile().exists()) {
+			path.getParentFile().mkdirs();
+		}
+		
+		this.recover(path);
+		this.open(path);
+	}
+	
+	public MappedDataMapImpl<Data> self() {
+		return this;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,513 @@
+package com.jockie.bot.core.data.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.jockie.bot.core.data.DataCodec;
+import com.jockie.bot.core.data.ManagedData;
+
+/**
+ * A map which is split in to shards, each stored in its own file in a directory named after the data.
+ * Keys are either hashed in to a fixed amount of shards or grouped by a function, such as one shard per guild.
+ * <br><br>
+ * Only the shards which have changed are written when saving, so the cost of saving depends on how much has changed rather than the size of the map.
+ * Shards are loaded and saved in parallel, if the data is lazy they are instead loaded the first time a key in them is accessed, see {@link #setLazy(boolean)}.
+ * The amount of loaded shards can be limited, in which case the least recently used shards are unloaded, see {@link #setMaxLoadedShards(int)}
+ */
+public class ShardedDataMapImpl<Key, Data> extends DataImpl<Data[], ShardedDataMapImpl<Key, Data>> implements ManagedData {
+	
+	private class Shard {
+		
+		private final String id;
+		
+		private final Map<Key, Data> data = new ConcurrentHashMap<>();
+		
+		private volatile boolean loaded = false;
+		private volatile boolean dirty = false;
+		
+		private volatile long lastAccess;
+		
+		private Shard(String id) {
+			this.id = id;
+		}
+		
+		private Shard load() {
+			if(this.loaded) {
+				return this;
+			}
+			
+			synchronized(this) {
+				if(!this.loaded) {
+					File file = ShardedDataMapImpl.this.getFile(this.id);
+					if(file != null && file.exists()) {
+						try {
+							ShardedDataMapImpl.this.getDataCodec().loadElements(file, ShardedDataMapImpl.this.getElementType(), (data) -> {
+								this.data.putIfAbsent(ShardedDataMapImpl.this.function.apply(data), data);
+							});
+						}catch(IOException e) {
+							throw new UncheckedIOException(e);
+						}
+					}
+					
+					this.loaded = true;
+				}
+			}
+			
+			return this;
+		}
+		
+		private synchronized long save() throws IOException {
+			/* Changes synchronize on the shard so none can be made while it is being written, it is marked as dirty again if writing fails */
+			this.dirty = false;
+			
+			File file = ShardedDataMapImpl.this.getFile(this.id);
+			
+			try {
+				if(this.data.isEmpty()) {
+					file.delete();
+					
+					return 0;
+				}
+				
+				return ShardedDataMapImpl.this.getDataCodec().save(file, ShardedDataMapImpl.this.toArray(this.data.values()));
+			}catch(IOException | RuntimeException e) {
+				this.dirty = true;
+				
+				throw e;
+			}
+		}
+		
+		private synchronized void unload() throws IOException {
+			if(this.dirty) {
+				this.save();
+			}
+			
+			/* Everything other than reads which find a value synchronize on the shard, so they either see it before it is cleared or after it has been loaded again */
+			this.loaded = false;
+			this.data.clear();
+		}
+	}
+	
+	private Map<String, Shard> shards = new ConcurrentHashMap<>();
+	
+	private Function<Data, Key> function;
+	
+	private Function<Key, String> shardFunction;
+	
+	private int maxLoadedShards = 0;
+	
+	private Object evictionLock = new Object();
+	
+	/* Set while the data is being moved to another directory, no shards are unloaded since they would be written to the old directory */
+	private volatile boolean moving = false;
+	
+	private DataStatistics statistics = new DataStatistics();
+	
+	private volatile File directory;
+	
+	/**
+	 * @param shards the amount of shards the keys are hashed in to
+	 */
+	public ShardedDataMapImpl(Function<Data, Key> function, int shards, Class<Data[]> clazz, String name) {
+		this(function, (key) -> String.valueOf(Math.floorMod(key.hashCode(), shards)), clazz, name);
+	}
+	
+	/**
+	 * @param shardFunction the function used to get the shard a key belongs to, the shard is used as the name of its file
+	 */
+	public ShardedDataMapImpl(Function<Data, Key> function, Function<Key, String> shardFunction, Class<Data[]> clazz, String name) {
+		super(clazz, name);
+		
+		this.function = function;
+		this.shardFunction = shardFunction;
+	}
+	
+	public ShardedDataMapImpl(Function<Data, Key> function, Function<Key, String> shardFunction, Class<Data[]> clazz) {
+		this(function, shardFunction, clazz, null);
+	}
+	
+	/**
+	 * @param maxLoadedShards the amount of shards which can be loaded at the same time before the least recently used shards are unloaded, 
+	 * changed shards are written before they are unloaded. If this is less than or equal to 0 there is no limit
+	 */
+	public ShardedDataMapImpl<Key, Data> setMaxLoadedShards(int maxLoadedShards) {
+		this.maxLoadedShards = maxLoadedShards;
+		
+		this.evictShards(null);
+		
+		return this;
+	}
+	
+	public int getMaxLoadedShards() {
+		return this.maxLoadedShards;
+	}
+	
+	/**
+	 * @return the hits, misses and evictions of the shards of this map
+	 */
+	public DataStatistics getStatistics() {
+		return this.statistics;
+	}
+	
+	@SuppressWarnings("unchecked")
+	public Class<Data> getElementType() {
+		return (Class<Data>) this.getType().getComponentType();
+	}
+	
+	private DataCodec getDataCodec() {
+		return DataHandler.getCodec(this);
+	}
+	
+	private File getFile(String shard) {
+		if(this.directory == null) {
+			return null;
+		}
+		
+		return new File(this.directory, shard + this.getDataCodec().getExtension());
+	}
+	
+	@SuppressWarnings("unchecked")
+	private Data[] toArray(Iterable<Data> values) {
+		List<Data> list = new ArrayList<>();
+		for(Data data : values) {
+			list.add(data);
+		}
+		
+		return list.toArray((Data[]) Array.newInstance(this.getElementType(), list.size()));
+	}
+	
+	/**
+	 * The data has to be acquired while the shard is being used, see {@link #acquire()}
+	 */
+	private Shard getShard(Key key) {
+		Shard shard = this.shards.computeIfAbsent(this.shardFunction.apply(key), Shard::new);
+		shard.lastAccess = System.nanoTime();
+		
+		if(shard.loaded) {
+			this.statistics.recordHit();
+		}else{
+			this.statistics.recordMiss();
+			
+			shard.load();
+			
+			this.evictShards(shard);
+		}
+		
+		return shard;
+	}
+	
+	/**
+	 * Loads each shard, one at a time, and passes it to the consumer while it is guaranteed to stay loaded
+	 */
+	private void forEachShard(Consumer<Shard> consumer) {
+		this.acquire();
+		try {
+			for(Shard shard : this.shards.values()) {
+				synchronized(shard) {
+					consumer.accept(shard.load());
+				}
+				
+				this.evictShards(null);
+			}
+		}finally{
+			this.release();
+		}
+	}
+	
+	/**
+	 * Unloads the least recently used shards until there are no more than the maximum amount of loaded shards
+	 * 
+	 * @param exclude a shard which should not be unloaded, such as the shard which was just loaded
+	 */
+	private void evictShards(Shard exclude) {
+		if(this.maxLoadedShards <= 0 || this.moving) {
+			return;
+		}
+		
+		synchronized(this.evictionLock) {
+			List<Shard> loaded = this.shards.values().stream()
+				.filter((shard) -> shard.loaded && shard != exclude)
+				.sorted((first, second) -> Long.signum(first.lastAccess - second.lastAccess))
+				.collect(Collectors.toList());
+			
+			int evict = loaded.size() + (exclude != null && exclude.loaded ? 1 : 0) - this.maxLoadedShards;
+			for(int i = 0; i < evict && i < loaded.size(); i++) {
+				try {
+					loaded.get(i).unload();
+					
+					this.statistics.recordEviction();
+				}catch(IOException e) {
+					this.statistics.recordFailure();
+					
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @return the ids of all known shards, loaded or not
+	 */
+	public List<String> getShards() {
+		return Collections.unmodifiableList(new ArrayList<>(this.shards.keySet()));
+	}
+	
+	/**
+	 * @return whether or not the shard is loaded
+	 */
+	public boolean isLoaded(String shard) {
+		Shard value = this.shards.get(shard);
+		
+		return value != null && value.loaded;
+	}
+	
+	/**
+	 * @return the amount of shards which have changed since they were last saved
+	 */
+	public int getDirtyShards() {
+		return (int) this.shards.values().stream().filter((shard) -> shard.dirty).count();
+	}
+	
+	/**
+	 * @return all the values, this loads every shard
+	 */
+	public Data[] getSavableData() {
+		List<Data> values = new ArrayList<>();
+		this.forEachShard((shard) -> values.addAll(shard.data.values()));
+		
+		return this.toArray(values);
+	}
+	
+	public void setLoadableData(Data[] types) {
+		for(Data data : types) {
+			this.add(data);
+		}
+	}
+	
+	public Data getByKey(Key key) {
+		this.acquire();
+		try {
+			Shard shard = this.getShard(key);
+			
+			/* 
+			 * A value which was found is correct even if the shard is being unloaded, finding nothing could mean that it was cleared in the meantime, 
+			 * it may even have been loaded again already, so that is only trusted while holding the shard
+			 */
+			Data data = shard.data.get(key);
+			if(data == null) {
+				synchronized(shard) {
+					data = shard.load().data.get(key);
+				}
+			}
+			
+			return data;
+		}finally{
+			this.release();
+		}
+	}
+	
+	public boolean containsKey(Key key) {
+		return this.getByKey(key) != null;
+	}
+	
+	/**
+	 * @return the amount of values, this loads every shard
+	 */
+	public int size() {
+		AtomicLong size = new AtomicLong();
+		this.forEachShard((shard) -> size.addAndGet(shard.data.size()));
+		
+		return (int) size.get();
+	}
+	
+	public void add(Data data) {
+		Key key = this.function.apply(data);
+		
+		this.acquire();
+		try {
+			Shard shard = this.getShard(key);
+			synchronized(shard) {
+				/* Loaded again in case it was unloaded since it was retrieved */
+				shard.load().data.put(key, data);
+				shard.dirty = true;
+			}
+		}finally{
+			this.release();
+		}
+		
+		this.markChanged();
+	}
+	
+	public Data remove(Key key) {
+		Data data;
+		
+		this.acquire();
+		try {
+			Shard shard = this.getShard(key);
+			synchronized(shard) {
+				data = shard.load().data.remove(key);
+				if(data != null) {
+					shard.dirty = true;
+				}
+			}
+		}finally{
+			this.release();
+		}
+		
+		if(data != null) {
+			this.markChanged();
+		}
+		
+		return data;
+	}
+	
+	public void removeByData(Data data) {
+		this.remove(this.function.apply(data));
+	}
+	
+	/**
+	 * Marks a shard as changed, this has to be done after changing a value without going through {@link #add(Object)}
+	 */
+	public void markDirty(Key key) {
+		this.acquire();
+		try {
+			Shard shard = this.getShard(key);
+			synchronized(shard) {
+				shard.load().dirty = true;
+			}
+		}finally{
+			this.release();
+		}
+		
+		this.markChanged();
+	}
+	
+	/**
+	 * Writes all the shards which have changed, in parallel
+	 * 
+	 * @return the amount of bytes written
+	 */
+	public long saveData(File path) throws IOException {
+		if(!path.equals(this.directory)) {
+			/* 
+			 * Everything has to be written if the data has moved, every shard is loaded from the old directory first 
+			 * and kept loaded until it has been written to the new one 
+			 */
+			this.moving = true;
+			
+			try {
+				this.forEachShard((shard) -> shard.dirty = true);
+				
+				this.directory = path;
+				
+				return this.saveDirtyShards(path);
+			}finally{
+				this.moving = false;
+				
+				this.evictShards(null);
+			}
+		}
+		
+		return this.saveDirtyShards(path);
+	}
+	
+	private long saveDirtyShards(File path) throws IOException {
+		if(!path.exists()) {
+			path.mkdirs();
+		}
+		
+		List<Shard> dirty = this.shards.values().stream()
+			.filter((shard) -> shard.dirty)
+			.collect(Collectors.toList());
+		
+		AtomicLong bytes = new AtomicLong();
+		List<IOException> exceptions = Collections.synchronizedList(new ArrayList<>());
+		
+		dirty.parallelStream().forEach((shard) -> {
+			try {
+				bytes.addAndGet(shard.save());
+			}catch(IOException e) {
+				exceptions.add(e);
+			}
+		});
+		
+		ShardedDataMapImpl.throwExceptions(exceptions);
+		
+		return bytes.get();
+	}
+	
+	/**
+	 * Finds all the shards, these are loaded in parallel unless the data is lazy or the amount of loaded shards is limited
+	 */
+	public void loadData(File path) throws IOException {
+		if(!path.exists()) {
+			path.mkdirs();
+		}
+		
+		this.directory = path;
+		this.shards.clear();
+		
+		String extension = this.getDataCodec().getExtension();
+		
+		File[] files = path.listFiles((directory, name) -> name.endsWith(extension));
+		if(files != null) {
+			for(File file : files) {
+				String id = file.getName().substring(0, file.getName().length() - extension.length());
+				
+				this.shards.put(id, new Shard(id));
+			}
+		}
+		
+		if(!this.isLazy() && this.maxLoadedShards <= 0) {
+			List<IOException> exceptions = Collections.synchronizedList(new ArrayList<>());
+			
+			this.shards.values().parallelStream().forEach((shard) -> {
+				try {
+					shard.load();
+				}catch(UncheckedIOException e) {
+					exceptions.add(e.getCause());
+				}
+			});
+			
+			ShardedDataMapImpl.throwExceptions(exceptions);
+		}
+	}
+	
+	protected void unloadData() {
+		for(Shard shard : this.shards.values()) {
+			try {
+				shard.unload();
+			}catch(IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		
+		this.shards.clear();
+	}
+	
+	private static void throwExceptions(List<IOException> exceptions) throws IOException {
+		if(exceptions.size() > 0) {
+			IOException exception = exceptions.get(0);
+			for(int i = 1; i < exceptions.size(); i++) {
+				exception.addSuppressed(exceptions.get(i));
+			}
+			
+			throw exception;
+		}
+	}
+	
+	public ShardedDataMapImpl<Key, Data> self() {
+		return this;
+	}
+}
\ No newline at end of file
@@ -1,15 +1,22 @@
 package com.jockie.bot.core.utility;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import net.dv8tion.jda.core.JDA;
 import net.dv8tion.jda.core.entities.Category;
 import net.dv8tion.jda.core.entities.Emote;
 import net.dv8tion.jda.core.entities.Guild;
 import net.dv8tion.jda.core.entities.Member;
+import net.dv8tion.jda.core.entities.Message;
 import net.dv8tion.jda.core.entities.Message.MentionType;
+import net.dv8tion.jda.core.entities.MessageChannel;
 import net.dv8tion.jda.core.entities.Role;
 import net.dv8tion.jda.core.entities.TextChannel;
 import net.dv8tion.jda.core.entities.User;
@@ -26,6 +33,18 @@ public class ArgumentUtility {
 	public static final Pattern USER_NAME_PATTERN = Pattern.compile(".{2,32}#[0-9]{4}");
 	public static final Pattern ID_PATTERN = Pattern.compile("\\d+");
 	
+	/* Short-lived so that commands which are used in quick succession on the same entity do not have to make a new request each time */
+	private static final Cache<Long, User> RETRIEVED_USERS = CacheBuilder.newBuilder()
+		.expireAfterWrite(5, TimeUnit.MINUTES)
+		.maximumSize(10000)
+		.build();
+	
+	/* Messages can be edited so these should not be kept around for very long */
+	private static final Cache<Long, Message> RETRIEVED_MESSAGES = CacheBuilder.newBuilder()
+		.expireAfterWrite(30, TimeUnit.SECONDS)
+		.maximumSize(1000)
+		.build();
+	
 	private static String getGroup(Pattern pattern, int group, String value) {
 		Matcher matcher = pattern.matcher(value);
 		if(matcher.find()) {
@@ -112,6 +131,79 @@ public class ArgumentUtility {
 		return new EmptyRestAction<User>(jda, null);
 	}
 	
+	/**
+	 * Same as {@link #retrieveUser(JDA, String)} but without blocking and with a short-lived cache of the retrieved users
+	 * 
+	 * @return a future which will be completed with the user or null if there is no user
+	 */
+	public static CompletableFuture<User> retrieveUserCached(JDA jda, String value) {
+		String id = ArgumentUtility.getGroup(MentionType.USER.getPattern(), 1, value);
+		if(id == null) {
+			if(!ID_PATTERN.matcher(value).matches()) {
+				return CompletableFuture.completedFuture(null);
+			}
+			
+			id = value;
+		}
+		
+		long idLong;
+		try {
+			idLong = Long.parseLong(id);
+		}catch(NumberFormatException e) {
+			return CompletableFuture.completedFuture(null);
+		}
+		
+		User user = RETRIEVED_USERS.getIfPresent(idLong);
+		if(user != null) {
+			return CompletableFuture.completedFuture(user);
+		}
+		
+		CompletableFuture<User> future = new CompletableFuture<>();
+		jda.retrieveUserById(idLong).queue(retrieved -> {
+			if(retrieved != null) {
+				RETRIEVED_USERS.put(idLong, retrieved);
+			}
+			
+			future.complete(retrieved);
+		}, failure -> future.complete(null));
+		
+		return future;
+	}
+	
+	/**
+	 * Retrieve a message by its id without blocking, with a short-lived cache of the retrieved messages
+	 * 
+	 * @return a future which will be completed with the message or null if there is no message
+	 */
+	public static CompletableFuture<Message> retrieveMessageCached(MessageChannel channel, String value) {
+		if(!ID_PATTERN.matcher(value).matches()) {
+			return CompletableFuture.completedFuture(null);
+		}
+		
+		long idLong;
+		try {
+			idLong = Long.parseLong(value);
+		}catch(NumberFormatException e) {
+			return CompletableFuture.completedFuture(null);
+		}
+		
+		Message message = RETRIEVED_MESSAGES.getIfPresent(idLong);
+		if(message != null && message.getChannel().getIdLong() == channel.getIdLong()) {
+			return CompletableFuture.completedFuture(message);
+		}
+		
+		CompletableFuture<Message> future = new CompletableFuture<>();
+		channel.getMessageById(idLong).queue(retrieved -> {
+			if(retrieved != null) {
+				RETRIEVED_MESSAGES.put(idLong, retrieved);
+			}
+			
+			future.complete(retrieved);
+		}, failure -> future.complete(null));
+		
+		return future;
+	}
+	
 	public static Member getMemberByIdOrName(Guild guild, String value, boolean ignoreCase) {
 		String processed = ArgumentUtility.getGroup(MentionType.USER.getPattern(), 1, value);
 		
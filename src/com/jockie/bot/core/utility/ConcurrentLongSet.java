@@ -0,0 +1,152 @@
+package com.jockie.bot.core.utility;
+
+import java.util.Arrays;
+
+/**
+ * A set of primitive longs, such as ids, which is optimized for lookups. Checking if a value is in the set is lock-free, 
+ * does not box the value and takes constant time while adding and removing values copies the set, 
+ * it should therefore only be used for sets which rarely change
+ */
+public class ConcurrentLongSet {
+	
+	/* An open addressing hash table which is never modified once it has been created, 0 marks an empty slot */
+	private static class Table {
+		
+		private final long[] slots;
+		private final int mask;
+		
+		private final long[] values;
+		
+		/* 0 can not be stored in a slot */
+		private final boolean zero;
+		
+		private Table(long[] values) {
+			int capacity = 2;
+			while(capacity < values.length * 2) {
+				capacity <<= 1;
+			}
+			
+			this.slots = new long[capacity];
+			this.mask = capacity - 1;
+			this.values = values;
+			
+			boolean zero = false;
+			for(long value : values) {
+				if(value == 0) {
+					zero = true;
+					
+					continue;
+				}
+				
+				int index = Table.hash(value) & this.mask;
+				while(this.slots[index] != 0) {
+					index = (index + 1) & this.mask;
+				}
+				
+				this.slots[index] = value;
+			}
+			
+			this.zero = zero;
+		}
+		
+		private static int hash(long value) {
+			long hash = value * 0x9E3779B97F4A7C15L;
+			
+			return (int) (hash ^ (hash >>> 32));
+		}
+		
+		private boolean contains(long value) {
+			if(value == 0) {
+				return this.zero;
+			}
+			
+			int index = Table.hash(value) & this.mask;
+			
+			long slot;
+			while((slot = this.slots[index]) != 0) {
+				if(slot == value) {
+					return true;
+				}
+				
+				index = (index + 1) & this.mask;
+			}
+			
+			return false;
+		}
+	}
+	
+	private volatile Table table;
+	
+	public ConcurrentLongSet(long... values) {
+		this.set(values);
+	}
+	
+	public boolean contains(long value) {
+		return this.table.contains(value);
+	}
+	
+	/**
+	 * @return true if the value was not already in the set
+	 */
+	public synchronized boolean add(long value) {
+		Table table = this.table;
+		if(table.contains(value)) {
+			return false;
+		}
+		
+		long[] values = new long[table.values.length + 1];
+		System.arraycopy(table.values, 0, values, 0, table.values.length);
+		values[table.values.length] = value;
+		
+		this.table = new Table(values);
+		
+		return true;
+	}
+	
+	/**
+	 * @return true if the value was in the set
+	 */
+	public synchronized boolean remove(long value) {
+		Table table = this.table;
+		if(!table.contains(value)) {
+			return false;
+		}
+		
+		long[] values = new long[table.values.length - 1];
+		for(int i = 0, j = 0; i < table.values.length; i++) {
+			if(table.values[i] != value) {
+				values[j++] = table.values[i];
+			}
+		}
+		
+		this.table = new Table(values);
+		
+		return true;
+	}
+	
+	/**
+	 * Replaces all the values in the set
+	 */
+	public synchronized void set(long... values) {
+		this.table = new Table(Arrays.stream(values).distinct().toArray());
+	}
+	
+	public synchronized void clear() {
+		this.table = new Table(new long[0]);
+	}
+	
+	public int size() {
+		return this.table.values.length;
+	}
+	
+	public boolean isEmpty() {
+		return this.table.values.length == 0;
+	}
+	
+	/**
+	 * @return a copy of the values, in the order they were added
+	 */
+	public long[] toArray() {
+		return this.table.values.clone();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,186 @@
+package com.jockie.bot.core.utility;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of positive values, such as durations in nanoseconds. Values are counted in log-linear buckets,
+ * each power of two is split in to 16 buckets, so any recorded value and percentile is accurate to within about 6%
+ * while the histogram has a fixed size, about 4KB, no matter how many values are recorded.
+ * <br><br>
+ * Values above {@link #HIGHEST_TRACKABLE_VALUE}, about 68 seconds in nanoseconds, are counted in the highest bucket, 
+ * the maximum is still exact
+ */
+public class Histogram {
+	
+	public static final long HIGHEST_TRACKABLE_VALUE = (1L << 36) - 1;
+	
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << Histogram.SUB_BUCKET_BITS;
+	
+	private static int getIndex(long value) {
+		if(value < Histogram.SUB_BUCKETS) {
+			return (int) value;
+		}
+		
+		int magnitude = 63 - Long.numberOfLeadingZeros(value) - Histogram.SUB_BUCKET_BITS;
+		
+		return (magnitude + 1) * Histogram.SUB_BUCKETS + (int) (value >>> magnitude) - Histogram.SUB_BUCKETS;
+	}
+	
+	/**
+	 * @return the highest value which would be counted in the bucket
+	 */
+	private static long getHighestValue(int index) {
+		if(index < Histogram.SUB_BUCKETS) {
+			return index;
+		}
+		
+		int magnitude = index / Histogram.SUB_BUCKETS - 1;
+		long lowest = (long) (Histogram.SUB_BUCKETS + index % Histogram.SUB_BUCKETS) << magnitude;
+		
+		return lowest + (1L << magnitude) - 1;
+	}
+	
+	private static final int BUCKETS = Histogram.getIndex(Histogram.HIGHEST_TRACKABLE_VALUE) + 1;
+	
+	private final AtomicLongArray counts = new AtomicLongArray(Histogram.BUCKETS);
+	
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	
+	private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+	private final AtomicLong max = new AtomicLong();
+	
+	/**
+	 * @param value the value to record, negative values are recorded as 0
+	 */
+	public void record(long value) {
+		value = Math.max(0, value);
+		
+		this.counts.incrementAndGet(Histogram.getIndex(Math.min(value, Histogram.HIGHEST_TRACKABLE_VALUE)));
+		this.count.increment();
+		this.sum.add(value);
+		
+		/* Only written when they change, which after the first few values is rare */
+		if(value < this.min.get()) {
+			this.min.accumulateAndGet(value, Math::min);
+		}
+		
+		if(value > this.max.get()) {
+			this.max.accumulateAndGet(value, Math::max);
+		}
+	}
+	
+	public long getCount() {
+		return this.count.sum();
+	}
+	
+	public long getSum() {
+		return this.sum.sum();
+	}
+	
+	public long getMin() {
+		return this.getCount() > 0 ? this.min.get() : 0;
+	}
+	
+	public long getMax() {
+		return this.max.get();
+	}
+	
+	public double getMean() {
+		long count = this.getCount();
+		
+		return count > 0 ? (double) this.getSum()/count : 0;
+	}
+	
+	/**
+	 * @param percentile the percentile, between 0 and 100
+	 *
+	 * @return the value at the percentile, this is the highest value in the bucket it falls in and never more than the maximum value, 
+	 * if it falls in the highest bucket this is the maximum value
+	 */
+	public long getPercentile(double percentile) {
+		long[] counts = new long[Histogram.BUCKETS];
+		
+		long total = 0;
+		for(int i = 0; i < counts.length; i++) {
+			counts[i] = this.counts.get(i);
+			total += counts[i];
+		}
+		
+		if(total == 0) {
+			return 0;
+		}
+		
+		long target = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * total));
+		
+		long seen = 0;
+		for(int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			
+			if(seen >= target) {
+				if(i == counts.length - 1) {
+					return this.getMax();
+				}
+				
+				return Math.min(Histogram.getHighestValue(i), this.getMax());
+			}
+		}
+		
+		return this.getMax();
+	}
+	
+	/**
+	 * @return a copy of this histogram, which will not change as more values are recorded
+	 */
+	public Histogram copy() {
+		Histogram histogram = new Histogram();
+		histogram.add(this);
+		
+		return histogram;
+	}
+	
+	/**
+	 * Adds all the values recorded by another histogram to this one
+	 */
+	public void add(Histogram histogram) {
+		for(int i = 0; i < Histogram.BUCKETS; i++) {
+			long count = histogram.counts.get(i);
+			if(count > 0) {
+				this.counts.addAndGet(i, count);
+			}
+		}
+		
+		this.count.add(histogram.count.sum());
+		this.sum.add(histogram.sum.sum());
+		
+		this.min.accumulateAndGet(histogram.min.get(), Math::min);
+		this.max.accumulateAndGet(histogram.max.get(), Math::max);
+	}
+	
+	public void reset() {
+		for(int i = 0; i < Histogram.BUCKETS; i++) {
+			this.counts.set(i, 0);
+		}
+		
+		this.count.reset();
+		this.sum.reset();
+		
+		this.min.set(Long.MAX_VALUE);
+		this.max.set(0);
+	}
+	
+	/**
+	 * @return a summary of this histogram, assuming the values are in nanoseconds
+	 */
+	public String toString() {
+		return "Histogram{count=" + this.getCount()
+			+ ", mean=" + TimeUnit.NANOSECONDS.toMicros((long) this.getMean()) + "us"
+			+ ", p50=" + TimeUnit.NANOSECONDS.toMicros(this.getPercentile(50)) + "us"
+			+ ", p99=" + TimeUnit.NANOSECONDS.toMicros(this.getPercentile(99)) + "us"
+			+ ", max=" + TimeUnit.NANOSECONDS.toMicros(this.getMax()) + "us}";
+	}
+}
\ No newline at end of file
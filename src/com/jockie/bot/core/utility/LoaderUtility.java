@@ -1,7 +1,18 @@
 package com.jockie.bot.core.utility;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
 
 import com.google.common.collect.ImmutableSet;
 import com.google.common.reflect.ClassPath;
@@ -9,11 +20,22 @@ import com.google.common.reflect.ClassPath.ClassInfo;
 import com.jockie.bot.core.command.ICommand;
 import com.jockie.bot.core.command.argument.IArgument;
 import com.jockie.bot.core.command.impl.DummyCommand;
+import com.jockie.bot.core.command.processor.CommandIndexProcessor;
 
 public class LoaderUtility {
 	
 	private LoaderUtility() {}
 	
+	/** Where the indexes written by {@link CommandIndexProcessor} are located */
+	public static final String INDEX_DIRECTORY = "META-INF/jockie-utils/";
+	public static final String INDEX_EXTENSION = ".index";
+	
+	private static boolean parallelLoading = false;
+	
+	private static boolean failFast = false;
+	
+	private static Map<Class<?>, Long> loadTimes = new ConcurrentHashMap<>();
+	
 	/**
 	 * @return true if clazz implements interfaze checked recursively till the super class is either null or Object
 	 */
@@ -35,33 +57,195 @@ public class LoaderUtility {
 		return LoaderUtility.loadFrom(packagePath, true, clazz);
 	}
 	
+	/**
+	 * @return the names of the classes implementing clazz from all the indexes on the class path, 
+	 * or null if there are no indexes, see {@link CommandIndexProcessor}
+	 */
+	public static List<String> getIndexedClasses(ClassLoader classLoader, Class<?> clazz) throws IOException {
+		Enumeration<URL> indexes = classLoader.getResources(LoaderUtility.INDEX_DIRECTORY + clazz.getName() + LoaderUtility.INDEX_EXTENSION);
+		if(!indexes.hasMoreElements()) {
+			return null;
+		}
+		
+		List<String> classes = new ArrayList<>();
+		while(indexes.hasMoreElements()) {
+			try(BufferedReader reader = new BufferedReader(new InputStreamReader(indexes.nextElement().openStream(), StandardCharsets.UTF_8))) {
+				String line;
+				while((line = reader.readLine()) != null) {
+					line = line.trim();
+					
+					if(line.length() > 0 && !classes.contains(line)) {
+						classes.add(line);
+					}
+				}
+			}
+		}
+		
+		return classes;
+	}
+	
+	private static boolean isInPackage(String className, String packagePath, boolean subPackages) {
+		int lastDot = className.lastIndexOf('.');
+		
+		String classPackage = lastDot != -1 ? className.substring(0, lastDot) : "";
+		if(classPackage.equals(packagePath)) {
+			return true;
+		}
+		
+		return subPackages && classPackage.startsWith(packagePath + ".");
+	}
+	
+	/**
+	 * See {@link #isParallelLoading()}
+	 */
+	public static void setParallelLoading(boolean parallel) {
+		LoaderUtility.parallelLoading = parallel;
+	}
+	
+	/**
+	 * @return whether or not the classes found by {@link #loadFrom(String, boolean, Class)} are loaded and instantiated in parallel, 
+	 * the order of the result is the same either way. This is disabled by default since the constructors of the classes have to be thread-safe
+	 * and can not depend on the order they are called in, such as commands adding themselves to a category
+	 */
+	public static boolean isParallelLoading() {
+		return LoaderUtility.parallelLoading;
+	}
+	
+	/**
+	 * See {@link #isFailFast()}
+	 */
+	public static void setFailFast(boolean failFast) {
+		LoaderUtility.failFast = failFast;
+	}
+	
+	/**
+	 * @return whether or not {@link #loadFrom(String, boolean, Class)} throws if any of the classes could not be loaded,
+	 * by default they are printed and skipped
+	 */
+	public static boolean isFailFast() {
+		return LoaderUtility.failFast;
+	}
+	
+	/**
+	 * @return how long, in nanoseconds, it took to load and instantiate each of the classes instantiated by {@link #loadFrom(String, boolean, Class)},
+	 * this can be used to find slow constructors
+	 */
+	public static Map<Class<?>, Long> getLoadTimes() {
+		return Collections.unmodifiableMap(LoaderUtility.loadTimes);
+	}
+	
+	/**
+	 * @return the instance of the class or null if it is not an implementation of clazz
+	 */
 	@SuppressWarnings("unchecked") /* It is checked through isDeepImplementation */
+	private static <T> T load(ClassLoader classLoader, String className, Class<T> clazz) throws Exception {
+		long started = System.nanoTime();
+		
+		Class<?> clazz2 = classLoader.loadClass(className);
+		
+		if(LoaderUtility.isDeepImplementation(clazz2, clazz)) {
+			T object = (T) clazz2.getConstructor().newInstance();
+			
+			LoaderUtility.loadTimes.put(clazz2, System.nanoTime() - started);
+			
+			return object;
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Classes which could not be loaded or instantiated are printed and skipped, unless fail-fast is enabled, see {@link #isFailFast()}
+	 * 
+	 * @throws IllegalStateException if fail-fast is enabled and any of the classes could not be loaded or instantiated, 
+	 * all of them are attempted first and each failure is added as a suppressed exception
+	 * @throws UncheckedIOException if fail-fast is enabled and the class path could not be read
+	 */
+	@SuppressWarnings("unchecked") /* Only instances of clazz are returned by load */
 	public static <T> List<T> loadFrom(String packagePath, boolean subPackages, Class<T> clazz) {
-		List<T> objects = new ArrayList<>();
+		ClassLoader classLoader = ClassLoader.getSystemClassLoader();
+		
+		List<String> classNames = new ArrayList<>();
 		
 		try {
-			ClassLoader classLoader = ClassLoader.getSystemClassLoader();
-			
-			ImmutableSet<ClassInfo> classes;
-			if(subPackages) {
-				classes = ClassPath.from(classLoader).getTopLevelClassesRecursive(packagePath);
-			}else{
-				classes = ClassPath.from(classLoader).getTopLevelClasses(packagePath);
+			/* 
+			 * Scanning the class path can take a long time with a lot of dependencies, so the index is used when it is available,
+			 * the index may come from another dependency than the one containing the package so the class path is still scanned if it has nothing in the package
+			 */
+			List<String> indexed = LoaderUtility.getIndexedClasses(classLoader, clazz);
+			if(indexed != null) {
+				for(String className : indexed) {
+					if(LoaderUtility.isInPackage(className, packagePath, subPackages)) {
+						classNames.add(className);
+					}
+				}
 			}
 			
-			for(ClassInfo info : classes) {
-				Class<?> clazz2 = classLoader.loadClass(info.toString());
+			if(classNames.isEmpty()) {
+				ImmutableSet<ClassInfo> classes;
+				if(subPackages) {
+					classes = ClassPath.from(classLoader).getTopLevelClassesRecursive(packagePath);
+				}else{
+					classes = ClassPath.from(classLoader).getTopLevelClasses(packagePath);
+				}
 				
-				if(LoaderUtility.isDeepImplementation(clazz2, clazz)) {
-					try {
-						objects.add((T) clazz2.getConstructor().newInstance());
-					}catch(Exception e1) {
-						throw e1;
-					}
+				for(ClassInfo info : classes) {
+					classNames.add(info.getName());
 				}
 			}
-		}catch(Exception e) {
+		}catch(IOException e) {
+			if(LoaderUtility.failFast) {
+				throw new UncheckedIOException("Unable to find the classes in " + packagePath, e);
+			}
+			
 			e.printStackTrace();
+			
+			return new ArrayList<>();
+		}
+		
+		Object[] loaded = new Object[classNames.size()];
+		Throwable[] failures = new Throwable[classNames.size()];
+		
+		/* The classes are independent of each other so the reflection done by their constructors can be done in parallel, see isParallelLoading */
+		IntStream indexes = IntStream.range(0, classNames.size());
+		if(LoaderUtility.parallelLoading) {
+			indexes = indexes.parallel();
+		}
+		
+		indexes.forEach(i -> {
+			try {
+				loaded[i] = LoaderUtility.load(classLoader, classNames.get(i), clazz);
+			}catch(Throwable e) {
+				failures[i] = e;
+			}
+		});
+		
+		List<T> objects = new ArrayList<>();
+		List<String> failed = new ArrayList<>();
+		
+		for(int i = 0; i < loaded.length; i++) {
+			if(failures[i] != null) {
+				failed.add(classNames.get(i));
+				
+				if(!LoaderUtility.failFast) {
+					System.err.println("Failed to load " + classNames.get(i));
+					
+					failures[i].printStackTrace();
+				}
+			}else if(loaded[i] != null) {
+				objects.add((T) loaded[i]);
+			}
+		}
+		
+		if(LoaderUtility.failFast && failed.size() > 0) {
+			IllegalStateException exception = new IllegalStateException("Failed to load " + String.join(", ", failed) + " from " + packagePath);
+			for(Throwable failure : failures) {
+				if(failure != null) {
+					exception.addSuppressed(failure);
+				}
+			}
+			
+			throw exception;
 		}
 		
 		return objects;
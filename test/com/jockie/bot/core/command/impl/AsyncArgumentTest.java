@@ -0,0 +1,276 @@
+package com.jockie.bot.core.command.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import com.jockie.bot.core.command.ICommand;
+import com.jockie.bot.core.command.argument.IArgument;
+import com.jockie.bot.core.command.argument.VerifiedArgument;
+import com.jockie.bot.core.command.argument.VerifiedArgument.VerifiedType;
+import com.jockie.bot.core.command.argument.impl.AsyncArgument;
+import com.jockie.bot.core.command.argument.impl.SimpleArgument;
+
+import net.dv8tion.jda.core.JDA;
+import net.dv8tion.jda.core.entities.ChannelType;
+import net.dv8tion.jda.core.entities.Message;
+import net.dv8tion.jda.core.entities.PrivateChannel;
+import net.dv8tion.jda.core.entities.SelfUser;
+import net.dv8tion.jda.core.entities.User;
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+
+public class AsyncArgumentTest {
+	
+	/* Long enough for a loaded machine, the commands which should not execute are only waited for a short time */
+	private static final long WAIT = TimeUnit.SECONDS.toMillis(10);
+	
+	private static class RecordingCommand extends CommandImpl {
+		
+		private final String name;
+		
+		private final BlockingQueue<String> executed;
+		
+		public RecordingCommand(String command, String name, BlockingQueue<String> executed, IArgument<?>... arguments) {
+			super(command, false, arguments);
+			
+			super.setPrivateTriggerable(true);
+			
+			this.name = name;
+			this.executed = executed;
+		}
+		
+		public void execute(MessageReceivedEvent event, CommandEvent commandEvent, Object... arguments) {
+			this.executed.add(this.name + " " + Arrays.toString(arguments));
+		}
+	}
+	
+	/* Only the methods in the map do anything, every other method returns null, false or 0 */
+	private static <T> T proxy(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, arguments) -> {
+			switch(method.getName()) {
+				case "equals": return proxy == arguments[0];
+				case "hashCode": return System.identityHashCode(proxy);
+				case "toString": return type.getSimpleName();
+			}
+			
+			Function<Object[], Object> function = methods.get(method.getName());
+			if(function != null) {
+				return function.apply(arguments);
+			}
+			
+			Class<?> returnType = method.getReturnType();
+			if(returnType == boolean.class) {
+				return false;
+			}else if(returnType == long.class) {
+				return 0L;
+			}else if(returnType == int.class) {
+				return 0;
+			}
+			
+			return null;
+		}));
+	}
+	
+	private static MessageReceivedEvent createEvent(String content) {
+		Map<String, Function<Object[], Object>> selfUser = new HashMap<>();
+		selfUser.put("getIdLong", (arguments) -> 1L);
+		
+		SelfUser self = AsyncArgumentTest.proxy(SelfUser.class, selfUser);
+		
+		Map<String, Function<Object[], Object>> jda = new HashMap<>();
+		jda.put("getSelfUser", (arguments) -> self);
+		
+		Map<String, Function<Object[], Object>> user = new HashMap<>();
+		user.put("getIdLong", (arguments) -> 2L);
+		
+		Map<String, Function<Object[], Object>> channel = new HashMap<>();
+		channel.put("getType", (arguments) -> ChannelType.PRIVATE);
+		channel.put("getIdLong", (arguments) -> 3L);
+		
+		User author = AsyncArgumentTest.proxy(User.class, user);
+		PrivateChannel privateChannel = AsyncArgumentTest.proxy(PrivateChannel.class, channel);
+		
+		Map<String, Function<Object[], Object>> message = new HashMap<>();
+		message.put("getIdLong", (arguments) -> 4L);
+		message.put("getContentRaw", (arguments) -> content);
+		message.put("getAuthor", (arguments) -> author);
+		message.put("getChannel", (arguments) -> privateChannel);
+		message.put("getPrivateChannel", (arguments) -> privateChannel);
+		message.put("getChannelType", (arguments) -> ChannelType.PRIVATE);
+		
+		return new MessageReceivedEvent(AsyncArgumentTest.proxy(JDA.class, jda), 0, AsyncArgumentTest.proxy(Message.class, message));
+	}
+	
+	private static CommandListener createListener(ICommand... commands) {
+		return new CommandListener()
+			.setHelpEnabled(false)
+			.addCommandStore(new CommandStore().addCommands(commands));
+	}
+	
+	private static AsyncArgument<String> async(Function<String, CompletableFuture<VerifiedArgument<String>>> function, long timeout) {
+		return new AsyncArgument.Builder<String>()
+			.setFunction((event, argument, value) -> function.apply(value))
+			.setTimeout(timeout)
+			.setName("async")
+			.build();
+	}
+	
+	private static SimpleArgument<String> simple() {
+		return new SimpleArgument.Builder<String>()
+			.setFunction((event, argument, value) -> new VerifiedArgument<>(VerifiedType.VALID, value))
+			.setName("simple")
+			.build();
+	}
+	
+	/* Endless so that it is ordered after a command with the same trigger and a single argument which is not */
+	private static SimpleArgument<String> fallback() {
+		return new SimpleArgument.Builder<String>()
+			.setFunction((event, argument, value) -> new VerifiedArgument<>(VerifiedType.VALID, value))
+			.setEndless(true)
+			.setName("fallback")
+			.build();
+	}
+	
+	@Test
+	public void testVerifiedWithoutBlocking() throws Exception {
+		BlockingQueue<String> executed = new LinkedBlockingQueue<>();
+		
+		CountDownLatch returned = new CountDownLatch(1);
+		
+		/* Only completed once the listener has returned, on a different thread, so the listener can not have waited for it */
+		AsyncArgument<String> argument = AsyncArgumentTest.async((value) -> CompletableFuture.supplyAsync(() -> {
+			try {
+				returned.await();
+			}catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			
+			return new VerifiedArgument<>(VerifiedType.VALID, value.toUpperCase());
+		}), 0);
+		
+		CommandListener listener = AsyncArgumentTest.createListener(new RecordingCommand("find", "async", executed, argument, AsyncArgumentTest.simple()));
+		
+		listener.onMessageReceived(AsyncArgumentTest.createEvent("!find first second"));
+		
+		assertTrue("The command executed before the asynchronous argument had been verified", executed.isEmpty());
+		
+		returned.countDown();
+		
+		/* The arguments after the asynchronous one are parsed at once and keep their positions */
+		assertEquals("async [FIRST, second]", executed.poll(WAIT, TimeUnit.MILLISECONDS));
+	}
+	
+	@Test
+	public void testInvalidFallsThrough() throws Exception {
+		BlockingQueue<String> executed = new LinkedBlockingQueue<>();
+		
+		AsyncArgument<String> argument = AsyncArgumentTest.async((value) -> {
+			return CompletableFuture.supplyAsync(() -> new VerifiedArgument<String>("not found"));
+		}, 0);
+		
+		CommandListener listener = AsyncArgumentTest.createListener(
+			new RecordingCommand("find", "async", executed, argument),
+			new RecordingCommand("find", "fallback", executed, AsyncArgumentTest.fallback())
+		);
+		
+		listener.onMessageReceived(AsyncArgumentTest.createEvent("!find value"));
+		
+		assertEquals("fallback [value]", executed.poll(WAIT, TimeUnit.MILLISECONDS));
+		assertNull(executed.poll(100, TimeUnit.MILLISECONDS));
+	}
+	
+	@Test
+	public void testFailureFallsThrough() throws Exception {
+		BlockingQueue<String> executed = new LinkedBlockingQueue<>();
+		
+		AsyncArgument<String> failing = AsyncArgumentTest.async((value) -> {
+			return CompletableFuture.supplyAsync(() -> {
+				throw new IllegalStateException("Request failed");
+			});
+		}, 0);
+		
+		AsyncArgument<String> throwing = AsyncArgumentTest.async((value) -> {
+			throw new IllegalStateException("Could not make request");
+		}, 0);
+		
+		CommandListener listener = AsyncArgumentTest.createListener(
+			new RecordingCommand("failing", "async", executed, failing),
+			new RecordingCommand("failing", "fallback", executed, AsyncArgumentTest.fallback()),
+			new RecordingCommand("throwing", "async", executed, throwing),
+			new RecordingCommand("throwing", "fallback", executed, AsyncArgumentTest.fallback())
+		);
+		
+		listener.onMessageReceived(AsyncArgumentTest.createEvent("!failing value"));
+		
+		assertEquals("fallback [value]", executed.poll(WAIT, TimeUnit.MILLISECONDS));
+		
+		listener.onMessageReceived(AsyncArgumentTest.createEvent("!throwing value"));
+		
+		assertEquals("fallback [value]", executed.poll(WAIT, TimeUnit.MILLISECONDS));
+		assertNull(executed.poll(100, TimeUnit.MILLISECONDS));
+	}
+	
+	@Test
+	public void testTimeoutFallsThrough() throws Exception {
+		BlockingQueue<String> executed = new LinkedBlockingQueue<>();
+		
+		CompletableFuture<VerifiedArgument<String>> never = new CompletableFuture<>();
+		
+		CommandListener listener = AsyncArgumentTest.createListener(
+			new RecordingCommand("find", "async", executed, AsyncArgumentTest.async((value) -> never, 200)),
+			new RecordingCommand("find", "fallback", executed, AsyncArgumentTest.fallback())
+		);
+		
+		long started = System.nanoTime();
+		
+		listener.onMessageReceived(AsyncArgumentTest.createEvent("!find value"));
+		
+		assertEquals("fallback [value]", executed.poll(WAIT, TimeUnit.MILLISECONDS));
+		assertTrue("The argument timed out early", System.nanoTime() - started >= TimeUnit.MILLISECONDS.toNanos(200));
+		
+		/* Completing it after it has timed out does not execute the command as well */
+		never.complete(new VerifiedArgument<>(VerifiedType.VALID, "value"));
+		
+		assertNull(executed.poll(100, TimeUnit.MILLISECONDS));
+	}
+	
+	@Test
+	public void testValidEndNow() throws Exception {
+		BlockingQueue<String> executed = new LinkedBlockingQueue<>();
+		
+		Function<String, CompletableFuture<VerifiedArgument<String>>> endNow = (value) -> {
+			return CompletableFuture.supplyAsync(() -> new VerifiedArgument<>(VerifiedType.VALID_END_NOW, value));
+		};
+		
+		CommandListener listener = AsyncArgumentTest.createListener(
+			new RecordingCommand("last", "async", executed, AsyncArgumentTest.async(endNow, 0)),
+			new RecordingCommand("last", "fallback", executed, AsyncArgumentTest.fallback()),
+			new RecordingCommand("first", "async", executed, AsyncArgumentTest.async(endNow, 0), AsyncArgumentTest.simple()),
+			new RecordingCommand("first", "fallback", executed, AsyncArgumentTest.fallback())
+		);
+		
+		/* The same as a synchronous argument, ending the parsing at the last argument matches the command */
+		listener.onMessageReceived(AsyncArgumentTest.createEvent("!last value"));
+		
+		assertEquals("async [value]", executed.poll(WAIT, TimeUnit.MILLISECONDS));
+		
+		/* The arguments after it have already been parsed, so it can not end the parsing there and the next command is attempted */
+		listener.onMessageReceived(AsyncArgumentTest.createEvent("!first value other"));
+		
+		assertEquals("fallback [value other]", executed.poll(WAIT, TimeUnit.MILLISECONDS));
+		assertNull(executed.poll(100, TimeUnit.MILLISECONDS));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.jockie.bot.core.command.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class PrefixMatcherTest {
+	
+	@Test
+	public void testLongestMatch() {
+		PrefixMatcher matcher = new PrefixMatcher("!", "!!", "!!!x", "bot ");
+		
+		assertEquals("!", matcher.match("!help"));
+		assertEquals("!!", matcher.match("!!help"));
+		assertEquals("!!!x", matcher.match("!!!xhelp"));
+		assertEquals("bot ", matcher.match("bot help"));
+		
+		/* The longest prefix which the message actually starts with, not the longest one it partially matches */
+		assertEquals("!!", matcher.match("!!!help"));
+		assertEquals("!!", matcher.match("!!!"));
+	}
+	
+	@Test
+	public void testNoMatch() {
+		PrefixMatcher matcher = new PrefixMatcher("!", "bot ");
+		
+		assertNull(matcher.match("help"));
+		assertNull(matcher.match("bot"));
+		assertNull(matcher.match(""));
+		assertNull(new PrefixMatcher().match("!help"));
+	}
+	
+	@Test
+	public void testCaseSensitive() {
+		PrefixMatcher matcher = new PrefixMatcher("Bot ");
+		
+		assertEquals("Bot ", matcher.match("Bot help"));
+		assertNull(matcher.match("bot help"));
+	}
+	
+	@Test
+	public void testPrefixes() {
+		String[] prefixes = { "!", "!!!", "!!" };
+		
+		PrefixMatcher matcher = new PrefixMatcher(prefixes);
+		
+		assertArrayEquals(new String[] { "!!!", "!!", "!" }, matcher.getPrefixes());
+		
+		/* Neither the given array nor the returned one change the matcher */
+		prefixes[0] = "?";
+		matcher.getPrefixes()[0] = "?";
+		
+		assertArrayEquals(new String[] { "!!!", "!!", "!" }, matcher.getPrefixes());
+		assertEquals("!", matcher.match("!help"));
+	}
+}
\ No newline at end of file
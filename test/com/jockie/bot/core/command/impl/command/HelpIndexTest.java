@@ -0,0 +1,150 @@
+package com.jockie.bot.core.command.impl.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.jockie.bot.core.command.ICommand;
+import com.jockie.bot.core.command.impl.CommandImpl;
+import com.jockie.bot.core.command.impl.CommandStore;
+
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+
+public class HelpIndexTest {
+	
+	public static class TestCommand extends CommandImpl {
+		
+		public TestCommand(String command, String... aliases) {
+			super(command);
+			
+			super.setAliases(aliases);
+		}
+		
+		public TestCommand(String command, ICommand subCommand, String... aliases) {
+			this(command, aliases);
+			
+			super.addSubCommand(subCommand);
+		}
+		
+		public void onCommand(MessageReceivedEvent event) {}
+	}
+	
+	private static HelpIndex createIndex(String... commands) {
+		CommandStore store = new CommandStore();
+		for(String command : commands) {
+			store.addCommands(new TestCommand(command));
+		}
+		
+		return new HelpIndex(Collections.singletonList(store));
+	}
+	
+	private static List<String> search(HelpIndex index, String query) {
+		List<String> triggers = new ArrayList<>();
+		for(HelpIndex.Entry entry : index.search(query)) {
+			triggers.add(entry.getTrigger());
+		}
+		
+		return triggers;
+	}
+	
+	private static List<String> searchAll(HelpIndex index, String query) {
+		List<String> triggers = new ArrayList<>();
+		for(HelpIndex.Entry entry : index.getEntries()) {
+			if(entry.getTrigger().toLowerCase().contains(query.toLowerCase())) {
+				triggers.add(entry.getTrigger());
+			}
+		}
+		
+		return triggers;
+	}
+	
+	@Test
+	public void testShortQueries() {
+		HelpIndex index = HelpIndexTest.createIndex("ping", "Play", "prefix", "help", "stop");
+		
+		assertEquals(Arrays.asList("help", "ping", "Play", "prefix", "stop"), HelpIndexTest.search(index, "p"));
+		assertEquals(Arrays.asList("help", "Play"), HelpIndexTest.search(index, "L"));
+		assertEquals(Arrays.asList("ping"), HelpIndexTest.search(index, "in"));
+		assertEquals(Arrays.asList("Play"), HelpIndexTest.search(index, "pla"));
+		assertEquals(Arrays.asList(), HelpIndexTest.search(index, "x p"));
+		assertEquals(Arrays.asList(), HelpIndexTest.search(index, "z"));
+		assertEquals(index.getEntries(), index.search(""));
+	}
+	
+	@Test
+	public void testLongQueries() {
+		HelpIndex index = HelpIndexTest.createIndex("abcd", "bcde", "prefix", "PREFIXES", "help");
+		
+		assertEquals(Arrays.asList("prefix", "PREFIXES"), HelpIndexTest.search(index, "refi"));
+		assertEquals(Arrays.asList("PREFIXES"), HelpIndexTest.search(index, "Prefixe"));
+		assertEquals(Arrays.asList(), HelpIndexTest.search(index, "prefixess"));
+		
+		/* Every sequence of 3 characters is in one of the triggers but none of them contain the whole query */
+		assertEquals(Arrays.asList(), HelpIndexTest.search(index, "abcde"));
+	}
+	
+	@Test
+	public void testSubCommandsAndAliases() {
+		CommandStore store = new CommandStore();
+		store.addCommands(new TestCommand("music", new TestCommand("play", "p"), "m"));
+		
+		HelpIndex index = new HelpIndex(Collections.singletonList(store));
+		
+		assertEquals(Arrays.asList("m", "m p", "m play", "music", "music p", "music play"), HelpIndexTest.search(index, ""));
+		assertEquals(Arrays.asList("m play", "music play"), HelpIndexTest.search(index, "pl"));
+		assertEquals(Arrays.asList("music play"), HelpIndexTest.search(index, "c pl"));
+		assertEquals(Arrays.asList("music p", "music play"), HelpIndexTest.search(index, "music p"));
+	}
+	
+	@Test
+	public void testMatchesBruteForce() {
+		Random random = new Random(0);
+		String characters = "abcdeXYZ ";
+		
+		CommandStore store = new CommandStore();
+		for(int i = 0; i < 300; i++) {
+			StringBuilder builder = new StringBuilder();
+			for(int j = 2 + random.nextInt(8); j > 0; j--) {
+				builder.append(characters.charAt(random.nextInt(characters.length() - 1)));
+			}
+			
+			store.addCommands(new TestCommand(builder.toString(), builder.reverse().toString() + "q"));
+		}
+		
+		HelpIndex index = new HelpIndex(Collections.singletonList(store));
+		
+		for(int i = 0; i < 5000; i++) {
+			StringBuilder builder = new StringBuilder();
+			for(int j = random.nextInt(7); j > 0; j--) {
+				builder.append(characters.charAt(random.nextInt(characters.length())));
+			}
+			
+			String query = builder.toString();
+			
+			assertEquals(query, HelpIndexTest.searchAll(index, query), HelpIndexTest.search(index, query));
+		}
+	}
+	
+	@Test
+	public void testIsCurrent() {
+		CommandStore store = new CommandStore();
+		store.addCommands(new TestCommand("ping"));
+		
+		HelpIndex index = new HelpIndex(Collections.singletonList(store));
+		
+		assertTrue(index.isCurrent(Collections.singletonList(store)));
+		assertFalse(index.isCurrent(Collections.singletonList(new CommandStore())));
+		
+		store.addCommands(new TestCommand("pong"));
+		
+		assertFalse(index.isCurrent(Collections.singletonList(store)));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,184 @@
+package com.jockie.bot.core.data.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BinaryCodecTest {
+	
+	public static class Value {
+		
+		private long id;
+		private int count;
+		private double ratio;
+		private boolean flag;
+		private String name;
+		private List<String> tags = new ArrayList<>();
+		private Map<String, Long> scores = new LinkedHashMap<>();
+		private Value child;
+		
+		private Value() {}
+		
+		public Value(long id, String name) {
+			this.id = id;
+			this.count = (int) id;
+			this.ratio = id / 3D;
+			this.flag = id % 2 == 0;
+			this.name = name;
+		}
+		
+		public boolean equals(Object object) {
+			if(!(object instanceof Value)) {
+				return false;
+			}
+			
+			Value value = (Value) object;
+			
+			return this.id == value.id && this.count == value.count && Double.compare(this.ratio, value.ratio) == 0 && this.flag == value.flag 
+				&& Objects.equals(this.name, value.name) && Objects.equals(this.tags, value.tags) && Objects.equals(this.scores, value.scores) 
+				&& Objects.equals(this.child, value.child);
+		}
+		
+		public int hashCode() {
+			return Long.hashCode(this.id);
+		}
+		
+		public String toString() {
+			return "Value(" + this.id + ", " + this.name + ")";
+		}
+	}
+	
+	private File file;
+	
+	@Before
+	public void setUp() throws IOException {
+		this.file = File.createTempFile("codec", ".bin");
+	}
+	
+	@After
+	public void tearDown() {
+		this.file.delete();
+	}
+	
+	private static Value createValue(long id) {
+		Value value = new Value(id, "value \u00E9\u4E2D\uD83D\uDE00 " + id);
+		value.tags.addAll(Arrays.asList("a", "", "tag " + id));
+		value.scores.put("min", Long.MIN_VALUE);
+		value.scores.put("max", Long.MAX_VALUE);
+		value.scores.put("negative", -id);
+		value.child = new Value(-id, null);
+		
+		return value;
+	}
+	
+	@Test
+	public void testEncodeDecode() throws IOException {
+		BinaryCodec codec = new BinaryCodec();
+		
+		for(long id : new long[] { 0, 1, -1, 127, 128, -129, Integer.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE }) {
+			Value value = BinaryCodecTest.createValue(id);
+			
+			assertEquals(value, codec.decode(codec.encode(value), Value.class));
+		}
+		
+		assertEquals(Arrays.asList(1.5D, -0.25D, 1e300D), Arrays.asList(codec.decode(codec.encode(new double[] { 1.5D, -0.25D, 1e300D }), Double[].class)));
+		assertNull(codec.decode(codec.encode(null), Value.class));
+	}
+	
+	private void testSaveLoad(BinaryCodec codec) throws IOException {
+		Value value = BinaryCodecTest.createValue(42);
+		
+		codec.save(this.file, value);
+		
+		assertEquals(value, codec.load(this.file, Value.class));
+		
+		/* Every element shares the same keys, which are only written once */
+		Value[] values = new Value[1000];
+		for(int i = 0; i < values.length; i++) {
+			values[i] = BinaryCodecTest.createValue(i * 31L - 500);
+		}
+		
+		codec.save(this.file, values);
+		
+		assertEquals(Arrays.asList(values), Arrays.asList(codec.load(this.file, Value[].class)));
+		
+		List<Value> elements = new ArrayList<>();
+		codec.loadElements(this.file, Value.class, elements::add);
+		
+		assertEquals(Arrays.asList(values), elements);
+		
+		codec.createEmpty(this.file, true);
+		
+		elements.clear();
+		codec.loadElements(this.file, Value.class, elements::add);
+		
+		assertEquals(0, elements.size());
+	}
+	
+	@Test
+	public void testSaveLoad() throws IOException {
+		this.testSaveLoad(new BinaryCodec());
+	}
+	
+	@Test
+	public void testSaveLoadCompressed() throws IOException {
+		this.testSaveLoad(new BinaryCodec(true));
+	}
+	
+	@Test
+	public void testCompressedIsSmaller() throws IOException {
+		Value[] values = new Value[1000];
+		for(int i = 0; i < values.length; i++) {
+			values[i] = BinaryCodecTest.createValue(i);
+		}
+		
+		long size = new BinaryCodec().save(this.file, values);
+		long compressedSize = new BinaryCodec(true).save(this.file, values);
+		
+		assertEquals(compressedSize, this.file.length());
+		assertTrue(compressedSize < size);
+	}
+	
+	@Test
+	public void testLoadFirstVersion() throws IOException {
+		BinaryCodec codec = new BinaryCodec();
+		
+		Value[] values = { BinaryCodecTest.createValue(1), BinaryCodecTest.createValue(2) };
+		
+		/* The first version wrote each element of a top level array as a record, prefixed by its length */
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(new byte[] { 'J', 'U', 'D', 1, 0, 9, (byte) values.length });
+		
+		for(Value value : values) {
+			byte[] bytes = codec.encode(value);
+			
+			out.write(bytes.length & 0x7F | 0x80);
+			out.write(bytes.length >>> 7);
+			out.write(bytes);
+		}
+		
+		Files.write(this.file.toPath(), out.toByteArray());
+		
+		assertEquals(Arrays.asList(values), Arrays.asList(codec.load(this.file, Value[].class)));
+		
+		List<Value> elements = new ArrayList<>();
+		codec.loadElements(this.file, Value.class, elements::add);
+		
+		assertEquals(Arrays.asList(values), elements);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,165 @@
+package com.jockie.bot.core.data.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DataJournalTest {
+	
+	public static class Entry {
+		
+		private long id;
+		private String name;
+		
+		private Entry() {}
+		
+		public Entry(long id, String name) {
+			this.id = id;
+			this.name = name;
+		}
+	}
+	
+	private String dataPath;
+	private File directory;
+	
+	@Before
+	public void setUp() throws IOException {
+		this.dataPath = DataHandler.getDataPath();
+		this.directory = Files.createTempDirectory("journal").toFile();
+		
+		DataHandler.setDataPath(this.directory.getPath() + File.separator);
+	}
+	
+	@After
+	public void tearDown() {
+		DataHandler.setDataPath(this.dataPath);
+		
+		DataJournalTest.delete(this.directory);
+	}
+	
+	private static void delete(File file) {
+		File[] files = file.listFiles();
+		if(files != null) {
+			for(File child : files) {
+				DataJournalTest.delete(child);
+			}
+		}
+		
+		file.delete();
+	}
+	
+	private DataMapImpl<Long, Entry> load() throws IOException {
+		DataMapImpl<Long, Entry> map = new DataMapImpl<Long, Entry>((entry) -> entry.id, Entry[].class, "entries").setJournaling(true);
+		
+		DataHandler.load(map);
+		
+		return map;
+	}
+	
+	@Test
+	public void testReplay() throws IOException {
+		DataMapImpl<Long, Entry> map = this.load();
+		map.add(new Entry(1, "first"));
+		map.add(new Entry(2, "second"));
+		map.add(new Entry(1, "replaced"));
+		map.remove(2L);
+		
+		assertEquals(4, map.getJournal().getRecords());
+		assertTrue(map.getJournal().getFile().exists());
+		
+		DataMapImpl<Long, Entry> loaded = this.load();
+		
+		assertEquals(1, loaded.getMap().size());
+		assertEquals("replaced", loaded.getByKey(1L).name);
+		assertNull(loaded.getByKey(2L));
+		assertEquals(4, loaded.getJournal().getRecords());
+	}
+	
+	@Test
+	public void testRotate() throws IOException {
+		DataMapImpl<Long, Entry> map = this.load();
+		map.add(new Entry(1, "first"));
+		map.add(new Entry(2, "second"));
+		
+		DataHandler.save(map);
+		
+		DataJournal journal = map.getJournal();
+		
+		assertEquals(0, journal.getRecords());
+		assertFalse(journal.getFile().exists());
+		assertFalse(journal.getOldFile().exists());
+		assertFalse(journal.getCompactedFile().exists());
+		
+		map.add(new Entry(3, "third"));
+		map.remove(1L);
+		
+		assertEquals(2, journal.getRecords());
+		
+		DataMapImpl<Long, Entry> loaded = this.load();
+		
+		assertEquals(2, loaded.getMap().size());
+		assertNull(loaded.getByKey(1L));
+		assertEquals("second", loaded.getByKey(2L).name);
+		assertEquals("third", loaded.getByKey(3L).name);
+	}
+	
+	@Test
+	public void testRecoverBeforeCommit() throws IOException {
+		DataMapImpl<Long, Entry> map = this.load();
+		map.add(new Entry(1, "first"));
+		map.add(new Entry(2, "second"));
+		
+		/* The compaction was interrupted after the snapshot was written but before the old journal was deleted */
+		DataJournal journal = map.getJournal();
+		journal.rotate();
+		
+		DataHandler.getCodec(map).save(journal.getCompactedFile(), new Entry[0]);
+		
+		map.add(new Entry(3, "third"));
+		
+		DataMapImpl<Long, Entry> loaded = this.load();
+		
+		assertFalse(journal.getCompactedFile().exists());
+		assertEquals(3, loaded.getMap().size());
+		assertEquals("first", loaded.getByKey(1L).name);
+		assertEquals("third", loaded.getByKey(3L).name);
+		
+		/* Both journals are included in the next snapshot */
+		DataHandler.save(loaded);
+		
+		assertFalse(journal.getOldFile().exists());
+		assertEquals(3, this.load().getMap().size());
+	}
+	
+	@Test
+	public void testRecoverAfterCommit() throws IOException {
+		DataMapImpl<Long, Entry> map = this.load();
+		map.add(new Entry(1, "first"));
+		map.add(new Entry(2, "second"));
+		
+		/* The compaction was interrupted after the old journal was deleted but before the snapshot was replaced */
+		DataJournal journal = map.getJournal();
+		journal.rotate();
+		
+		DataHandler.getCodec(map).save(journal.getCompactedFile(), map.getSavableData());
+		
+		journal.getOldFile().delete();
+		
+		map.add(new Entry(3, "third"));
+		
+		DataMapImpl<Long, Entry> loaded = this.load();
+		
+		assertFalse(journal.getCompactedFile().exists());
+		assertEquals(3, loaded.getMap().size());
+		assertEquals("second", loaded.getByKey(2L).name);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,132 @@
+package com.jockie.bot.core.data.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LazyDataTest {
+	
+	public static class Entry {
+		
+		private long id;
+		
+		private Entry() {}
+		
+		public Entry(long id) {
+			this.id = id;
+		}
+	}
+	
+	private static final int THREADS = 8, ENTRIES = 1000, MAPS = 4;
+	
+	private String dataPath;
+	private long memoryBudget;
+	
+	private File directory;
+	
+	@Before
+	public void setUp() throws IOException {
+		this.dataPath = DataHandler.getDataPath();
+		this.memoryBudget = DataHandler.getMemoryBudget();
+		this.directory = Files.createTempDirectory("lazy").toFile();
+		
+		DataHandler.setDataPath(this.directory.getPath() + File.separator);
+		
+		/* Every load unloads all the other data */
+		DataHandler.setMemoryBudget(1);
+	}
+	
+	@After
+	public void tearDown() {
+		DataHandler.setMemoryBudget(this.memoryBudget);
+		DataHandler.setDataPath(this.dataPath);
+		
+		LazyDataTest.delete(this.directory);
+	}
+	
+	private static void delete(File file) {
+		File[] files = file.listFiles();
+		if(files != null) {
+			for(File child : files) {
+				LazyDataTest.delete(child);
+			}
+		}
+		
+		file.delete();
+	}
+	
+	private static void run(Runnable runnable) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(LazyDataTest.THREADS);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for(int i = 0; i < LazyDataTest.THREADS; i++) {
+				futures.add(executor.submit(runnable));
+			}
+			
+			for(Future<?> future : futures) {
+				/* Rethrows anything thrown by the accesses */
+				future.get();
+			}
+		}finally{
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	public void testNoChangesAreLostWhileEvicting() throws Exception {
+		List<DataMapImpl<Long, Entry>> maps = new ArrayList<>();
+		for(int i = 0; i < LazyDataTest.MAPS; i++) {
+			maps.add(new DataMapImpl<Long, Entry>((entry) -> entry.id, Entry[].class, "map" + i).setLazy(true));
+		}
+		
+		LazyDataTest.run(() -> {
+			long offset = Thread.currentThread().getId() * LazyDataTest.ENTRIES;
+			for(int i = 0; i < LazyDataTest.ENTRIES; i++) {
+				maps.get(i % LazyDataTest.MAPS).add(new Entry(offset + i));
+			}
+		});
+		
+		int size = 0;
+		for(DataMapImpl<Long, Entry> map : maps) {
+			size += map.getMap().size();
+		}
+		
+		assertEquals(LazyDataTest.THREADS * LazyDataTest.ENTRIES, size);
+	}
+	
+	@Test
+	public void testMappedDataIsNotUnloadedWhileAccessed() throws Exception {
+		List<MappedDataMapImpl<Entry>> maps = new ArrayList<>();
+		for(int i = 0; i < LazyDataTest.MAPS; i++) {
+			maps.add(new MappedDataMapImpl<Entry>((entry) -> entry.id, Entry[].class, "mapped" + i).setLazy(true));
+		}
+		
+		LazyDataTest.run(() -> {
+			long offset = Thread.currentThread().getId() * LazyDataTest.ENTRIES;
+			for(int i = 0; i < LazyDataTest.ENTRIES; i++) {
+				maps.get(i % LazyDataTest.MAPS).add(new Entry(offset + i));
+				maps.get((i + 1) % LazyDataTest.MAPS).get(offset + i);
+			}
+		});
+		
+		int size = 0;
+		for(MappedDataMapImpl<Entry> map : maps) {
+			size += map.size();
+			
+			DataHandler.unload(map);
+		}
+		
+		assertEquals(LazyDataTest.THREADS * LazyDataTest.ENTRIES, size);
+	}
+}
\ No newline at end of file
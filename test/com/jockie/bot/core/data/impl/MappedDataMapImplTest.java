@@ -0,0 +1,216 @@
+package com.jockie.bot.core.data.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MappedDataMapImplTest {
+	
+	public static class Entry {
+		
+		private long id;
+		private String value;
+		
+		private Entry() {}
+		
+		public Entry(long id, String value) {
+			this.id = id;
+			this.value = value;
+		}
+	}
+	
+	private File directory;
+	private File path;
+	
+	private MappedDataMapImpl<Entry> map;
+	
+	@Before
+	public void setUp() throws IOException {
+		this.directory = Files.createTempDirectory("mapped").toFile();
+		this.path = new File(this.directory, "entries");
+	}
+	
+	@After
+	public void tearDown() throws IOException {
+		if(this.map != null) {
+			this.map.close();
+		}
+		
+		MappedDataMapImplTest.delete(this.directory);
+	}
+	
+	private static void delete(File file) {
+		File[] files = file.listFiles();
+		if(files != null) {
+			for(File child : files) {
+				MappedDataMapImplTest.delete(child);
+			}
+		}
+		
+		file.delete();
+	}
+	
+	private MappedDataMapImpl<Entry> reopen() throws IOException {
+		if(this.map != null) {
+			this.map.close();
+		}
+		
+		return this.open();
+	}
+	
+	private MappedDataMapImpl<Entry> open() throws IOException {
+		/* A small initial capacity so that the index has to grow */
+		this.map = new MappedDataMapImpl<Entry>((entry) -> entry.id, Entry[].class, "entries").setInitialCapacity(16);
+		this.map.loadData(this.path);
+		
+		return this.map;
+	}
+	
+	private static String value(long id, int version) {
+		return "value " + id + " version " + version;
+	}
+	
+	@Test
+	public void testReopenAfterAdd() throws IOException {
+		MappedDataMapImpl<Entry> map = this.reopen();
+		for(long id = 0; id < 5000; id++) {
+			map.add(new Entry(id * 7919, MappedDataMapImplTest.value(id, 0)));
+		}
+		
+		map = this.reopen();
+		
+		assertEquals(5000, map.size());
+		
+		for(long id = 0; id < 5000; id++) {
+			assertEquals(MappedDataMapImplTest.value(id, 0), map.get(id * 7919).value);
+		}
+		
+		assertNull(map.get(1));
+		
+		String[] files = this.directory.list();
+		Arrays.sort(files);
+		
+		assertEquals(Arrays.asList("entries.data", "entries.index"), Arrays.asList(files));
+	}
+	
+	@Test
+	public void testReopenAfterRemove() throws IOException {
+		MappedDataMapImpl<Entry> map = this.reopen();
+		for(long id = 0; id < 3000; id++) {
+			map.add(new Entry(id, MappedDataMapImplTest.value(id, 0)));
+		}
+		
+		for(long id = 0; id < 3000; id += 3) {
+			assertEquals(id, map.remove(id).id);
+		}
+		
+		assertNull(map.remove(0L));
+		
+		map = this.reopen();
+		
+		assertEquals(2000, map.size());
+		assertEquals(2000, map.getKeys().length);
+		
+		for(long id = 0; id < 3000; id++) {
+			if(id % 3 == 0) {
+				assertNull(map.get(id));
+			}else{
+				assertEquals(MappedDataMapImplTest.value(id, 0), map.get(id).value);
+			}
+		}
+		
+		/* Removed keys can be added again */
+		map.add(new Entry(3, MappedDataMapImplTest.value(3, 1)));
+		
+		map = this.reopen();
+		
+		assertEquals(2001, map.size());
+		assertEquals(MappedDataMapImplTest.value(3, 1), map.get(3).value);
+	}
+	
+	@Test
+	public void testReopenAfterCompact() throws IOException {
+		MappedDataMapImpl<Entry> map = this.reopen();
+		for(int version = 0; version < 4; version++) {
+			for(long id = 0; id < 2000; id++) {
+				map.add(new Entry(id, MappedDataMapImplTest.value(id, version)));
+			}
+		}
+		
+		for(long id = 0; id < 2000; id += 2) {
+			map.remove(id);
+		}
+		
+		assertTrue(map.shouldCompact());
+		
+		long size = new File(this.directory, "entries.data").length();
+		
+		map.saveData(this.path);
+		
+		assertFalse(map.shouldCompact());
+		assertTrue(new File(this.directory, "entries.data").length() < size);
+		
+		map = this.reopen();
+		
+		assertEquals(1000, map.size());
+		
+		for(long id = 0; id < 2000; id++) {
+			if(id % 2 == 0) {
+				assertNull(map.get(id));
+			}else{
+				assertEquals(MappedDataMapImplTest.value(id, 3), map.get(id).value);
+			}
+		}
+		
+		String[] files = this.directory.list();
+		Arrays.sort(files);
+		
+		assertEquals(Arrays.asList("entries.data", "entries.index"), Arrays.asList(files));
+	}
+	
+	@Test
+	public void testReopenWithoutClosing() throws IOException {
+		MappedDataMapImpl<Entry> map = this.reopen();
+		for(long id = 0; id < 100; id++) {
+			map.add(new Entry(id, MappedDataMapImplTest.value(id, 0)));
+		}
+		
+		for(long id = 0; id < 10; id++) {
+			map.remove(id);
+		}
+		
+		/* As if the process was stopped after a change was added to the index but before the counts were written */
+		try(RandomAccessFile index = new RandomAccessFile(new File(this.directory, "entries.index"), "rw")) {
+			index.seek(12);
+			index.writeInt(0);
+		}
+		
+		/* The previous map is never closed */
+		map = this.open();
+		
+		assertEquals(90, map.size());
+		
+		for(long id = 100; id < 110; id++) {
+			map.add(new Entry(id, MappedDataMapImplTest.value(id, 1)));
+		}
+		
+		map = this.reopen();
+		
+		assertEquals(100, map.size());
+		
+		for(long id = 10; id < 110; id++) {
+			assertEquals(MappedDataMapImplTest.value(id, id < 100 ? 0 : 1), map.get(id).value);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,117 @@
+package com.jockie.bot.core.data.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ShardedDataMapImplTest {
+	
+	public static class Entry {
+		
+		private long id;
+		
+		private Entry() {}
+		
+		public Entry(long id) {
+			this.id = id;
+		}
+	}
+	
+	private static final int THREADS = 4, ENTRIES = 500;
+	
+	private File directory;
+	
+	@Before
+	public void setUp() throws IOException {
+		this.directory = Files.createTempDirectory("sharded").toFile();
+	}
+	
+	@After
+	public void tearDown() {
+		ShardedDataMapImplTest.delete(this.directory);
+	}
+	
+	private static void delete(File file) {
+		File[] files = file.listFiles();
+		if(files != null) {
+			for(File child : files) {
+				ShardedDataMapImplTest.delete(child);
+			}
+		}
+		
+		file.delete();
+	}
+	
+	private ShardedDataMapImpl<Long, Entry> load(int maxLoadedShards) throws IOException {
+		ShardedDataMapImpl<Long, Entry> map = new ShardedDataMapImpl<Long, Entry>((entry) -> entry.id, 16, Entry[].class, "entries")
+			.setMaxLoadedShards(maxLoadedShards);
+		
+		map.loadData(this.directory);
+		
+		return map;
+	}
+	
+	@Test
+	public void testSaveLoad() throws IOException {
+		ShardedDataMapImpl<Long, Entry> map = this.load(0);
+		for(long id = 0; id < 1000; id++) {
+			map.add(new Entry(id));
+		}
+		
+		map.remove(5L);
+		map.saveData(this.directory);
+		
+		assertEquals(0, map.getDirtyShards());
+		
+		map = this.load(0);
+		
+		assertEquals(999, map.size());
+		assertNull(map.getByKey(5L));
+		assertNotNull(map.getByKey(6L));
+	}
+	
+	@Test
+	public void testNothingIsLostWhileEvictingShards() throws Exception {
+		/* Every shard which is accessed unloads the previous one */
+		ShardedDataMapImpl<Long, Entry> map = this.load(1);
+		
+		ExecutorService executor = Executors.newFixedThreadPool(ShardedDataMapImplTest.THREADS);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for(int i = 0; i < ShardedDataMapImplTest.THREADS; i++) {
+				long offset = i * ShardedDataMapImplTest.ENTRIES;
+				
+				futures.add(executor.submit(() -> {
+					for(long id = offset; id < offset + ShardedDataMapImplTest.ENTRIES; id++) {
+						map.add(new Entry(id));
+						
+						assertNotNull("Missing " + id, map.getByKey(id));
+					}
+				}));
+			}
+			
+			for(Future<?> future : futures) {
+				future.get();
+			}
+		}finally{
+			executor.shutdown();
+		}
+		
+		assertTrue(map.getStatistics().getEvictions() > 0);
+		assertEquals(ShardedDataMapImplTest.THREADS * ShardedDataMapImplTest.ENTRIES, map.size());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,117 @@
+package com.jockie.bot.core.utility;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class ConcurrentLongSetTest {
+	
+	@Test
+	public void testAddRemove() {
+		ConcurrentLongSet set = new ConcurrentLongSet();
+		
+		assertTrue(set.isEmpty());
+		
+		assertTrue(set.add(190860672923664384L));
+		assertFalse(set.add(190860672923664384L));
+		assertTrue(set.contains(190860672923664384L));
+		assertEquals(1, set.size());
+		
+		assertTrue(set.remove(190860672923664384L));
+		assertFalse(set.remove(190860672923664384L));
+		assertFalse(set.contains(190860672923664384L));
+		assertTrue(set.isEmpty());
+	}
+	
+	@Test
+	public void testZero() {
+		ConcurrentLongSet set = new ConcurrentLongSet(1, 2, 3);
+		
+		/* 0 marks an empty slot so it is stored separately */
+		assertFalse(set.contains(0));
+		
+		assertTrue(set.add(0));
+		assertFalse(set.add(0));
+		assertTrue(set.contains(0));
+		assertEquals(4, set.size());
+		assertArrayEquals(new long[] { 1, 2, 3, 0 }, set.toArray());
+		
+		assertTrue(set.remove(0));
+		assertFalse(set.contains(0));
+		assertTrue(set.contains(1));
+		assertEquals(3, set.size());
+		
+		set.set(0, 0);
+		
+		assertTrue(set.contains(0));
+		assertEquals(1, set.size());
+	}
+	
+	@Test
+	public void testCollisions() {
+		ConcurrentLongSet set = new ConcurrentLongSet();
+		
+		Set<Long> expected = new HashSet<>();
+		
+		/* Enough values, which only differ in their high or low bits, that many of them are placed in the same slot */
+		for(long i = 1; i <= 2000; i++) {
+			assertTrue(set.add(i << 32));
+			assertTrue(set.add(-i));
+			
+			expected.add(i << 32);
+			expected.add(-i);
+		}
+		
+		assertTrue(set.add(Long.MIN_VALUE));
+		assertTrue(set.add(Long.MAX_VALUE));
+		
+		expected.add(Long.MIN_VALUE);
+		expected.add(Long.MAX_VALUE);
+		
+		/* Removing values from the middle of a probe sequence can not hide the values after them */
+		Random random = new Random(0);
+		for(int i = 0; i < 1000; i++) {
+			long value = random.nextBoolean() ? (random.nextInt(2000) + 1L) << 32 : -(random.nextInt(2000) + 1L);
+			
+			assertEquals(expected.remove(value), set.remove(value));
+		}
+		
+		assertEquals(expected.size(), set.size());
+		
+		for(long value : expected) {
+			assertTrue(set.contains(value));
+		}
+		
+		for(long i = 1; i <= 2000; i++) {
+			assertEquals(expected.contains(i << 32), set.contains(i << 32));
+			assertEquals(expected.contains(-i), set.contains(-i));
+			
+			assertFalse(set.contains(i));
+		}
+	}
+	
+	@Test
+	public void testSet() {
+		ConcurrentLongSet set = new ConcurrentLongSet(5, 5, 6);
+		
+		assertArrayEquals(new long[] { 5, 6 }, set.toArray());
+		
+		set.set(7, 8);
+		
+		assertFalse(set.contains(5));
+		assertTrue(set.contains(7));
+		assertEquals(2, set.size());
+		
+		set.clear();
+		
+		assertTrue(set.isEmpty());
+		assertFalse(set.contains(7));
+	}
+}
\ No newline at end of file
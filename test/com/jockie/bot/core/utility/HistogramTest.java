@@ -0,0 +1,101 @@
+package com.jockie.bot.core.utility;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class HistogramTest {
+	
+	@Test
+	public void testSmallValuesAreExact() {
+		Histogram histogram = new Histogram();
+		for(long value = 0; value < 16; value++) {
+			histogram.record(value);
+		}
+		
+		assertEquals(16, histogram.getCount());
+		assertEquals(0, histogram.getMin());
+		assertEquals(15, histogram.getMax());
+		
+		for(long value = 0; value < 16; value++) {
+			/* The percentile which contains exactly the values up to this one */
+			assertEquals(value, histogram.getPercentile((value + 1) * 100D / 16));
+		}
+	}
+	
+	@Test
+	public void testBucketBounds() {
+		Histogram histogram = new Histogram();
+		histogram.record(32);
+		histogram.record(Long.MAX_VALUE);
+		
+		/* 32 and 33 share a bucket, the percentile is the highest value in it */
+		assertEquals(33, histogram.getPercentile(50));
+		
+		histogram = new Histogram();
+		histogram.record(34);
+		histogram.record(Long.MAX_VALUE);
+		
+		assertEquals(35, histogram.getPercentile(50));
+		
+		histogram = new Histogram();
+		histogram.record(1024);
+		histogram.record(Long.MAX_VALUE);
+		
+		/* Each power of two is split in to 16 buckets */
+		assertEquals(1024 + 64 - 1, histogram.getPercentile(50));
+	}
+	
+	@Test
+	public void testRelativeError() {
+		for(long value = 16; value <= Histogram.HIGHEST_TRACKABLE_VALUE; value = value * 3 / 2 + 1) {
+			Histogram histogram = new Histogram();
+			histogram.record(value);
+			histogram.record(Long.MAX_VALUE);
+			
+			long percentile = histogram.getPercentile(50);
+			
+			assertTrue(value + " was reported as " + percentile, percentile >= value && percentile - value <= value / 16);
+		}
+	}
+	
+	@Test
+	public void testLimits() {
+		Histogram histogram = new Histogram();
+		
+		assertEquals(0, histogram.getPercentile(99));
+		
+		histogram.record(-5);
+		histogram.record(Long.MAX_VALUE);
+		
+		assertEquals(0, histogram.getMin());
+		assertEquals(0, histogram.getPercentile(0));
+		assertEquals(Long.MAX_VALUE, histogram.getPercentile(100));
+		
+		/* Never more than the largest recorded value even though the bucket goes higher */
+		histogram = new Histogram();
+		histogram.record(1000);
+		
+		assertEquals(1000, histogram.getPercentile(100));
+	}
+	
+	@Test
+	public void testHighestTrackableValue() {
+		Histogram histogram = new Histogram();
+		histogram.record(Histogram.HIGHEST_TRACKABLE_VALUE + 1000);
+		histogram.record(Histogram.HIGHEST_TRACKABLE_VALUE * 4);
+		
+		/* Both are counted in the highest bucket, which reports the exact maximum */
+		assertEquals(Histogram.HIGHEST_TRACKABLE_VALUE * 4, histogram.getPercentile(50));
+		assertEquals(Histogram.HIGHEST_TRACKABLE_VALUE * 4, histogram.getMax());
+		
+		histogram.record(1000);
+		
+		Histogram copy = histogram.copy();
+		
+		assertEquals(3, copy.getCount());
+		assertEquals(1000, copy.getMin());
+		assertEquals(Histogram.HIGHEST_TRACKABLE_VALUE * 4, copy.getPercentile(100));
+	}
+}
\ No newline at end of file